@@ -0,0 +1,109 @@
+package org.freeplane.core.io.xml;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.n3.nanoxml.XMLElement;
+
+/**
+ * Compares load time and allocated memory of {@link TreeXmlReader} and {@link StreamingTreeXmlReader}
+ * for a generated map.
+ *
+ * Usage: TreeXmlReaderBenchmark [node count] [iterations]
+ */
+public class TreeXmlReaderBenchmark {
+	private interface Loader {
+		void load(ReadManager readManager, Object root, String xml) throws Exception;
+	}
+
+	static class Node {
+		final List<Node> children = new ArrayList<>();
+		String text;
+		String id;
+		String created;
+		String modified;
+		String position;
+		XMLElement unknown;
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		final String xml = createMap(nodeCount);
+		final ReadManager readManager = createReadManager();
+		final Loader treeXmlReader = (manager, root, text) -> new TreeXmlReader(manager).load(root, new StringReader(text));
+		final Loader streamingReader = (manager, root, text) -> new StreamingTreeXmlReader(manager).load(root, new StringReader(text));
+		System.out.println("map with " + nodeCount + " nodes, " + xml.length() / 1024 + " KB");
+		for (int i = 0; i < iterations; i++) {
+			measure("TreeXmlReader", treeXmlReader, readManager, xml);
+			measure("StreamingTreeXmlReader", streamingReader, readManager, xml);
+		}
+	}
+
+	private static void measure(String name, Loader loader, ReadManager readManager, String xml) throws Exception {
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+		System.gc();
+		final long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+		final long start = System.nanoTime();
+		loader.load(readManager, new Node(), xml);
+		final long time = System.nanoTime() - start;
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		System.out.println(String.format("%-24s %6d ms %8d MB allocated by calling thread", name, time / 1_000_000, allocated / (1024 * 1024)));
+	}
+
+	private static String createMap(int nodeCount) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<map version=\"freeplane 1.9.13\">\n");
+		int created = 0;
+		sb.append("<node TEXT=\"root\" ID=\"ID_0\" CREATED=\"1600000000000\" MODIFIED=\"1600000000000\">\n");
+		created++;
+		while (created < nodeCount) {
+			sb.append("<node TEXT=\"branch ").append(created).append("\" ID=\"ID_").append(created)
+				.append("\" POSITION=\"right\" CREATED=\"1600000000000\" MODIFIED=\"1600000000000\">\n");
+			created++;
+			for (int i = 0; i < 100 && created < nodeCount; i++, created++) {
+				sb.append("<node TEXT=\"leaf ").append(created).append(" with some &amp; text\" ID=\"ID_").append(created)
+					.append("\" CREATED=\"1600000000000\" MODIFIED=\"1600000000000\"");
+				if (i % 10 == 0)
+					sb.append("><hook NAME=\"unknown\" VALUE=\"").append(i).append("\"/></node>\n");
+				else
+					sb.append("/>\n");
+			}
+			sb.append("</node>\n");
+		}
+		sb.append("</node>\n</map>\n");
+		return sb.toString();
+	}
+
+	private static ReadManager createReadManager() {
+		final ReadManager readManager = new ReadManager();
+		final IElementDOMHandler nodeHandler = new IElementDOMHandler() {
+			@Override
+			public Object createElement(Object parent, String tag, XMLElement attributes) {
+				return new Node();
+			}
+
+			@Override
+			public void endElement(Object parent, String tag, Object element, XMLElement dom) {
+				final Node node = (Node) element;
+				if (dom.getAttributeCount() != 0 || dom.hasChildren())
+					node.unknown = dom;
+				((Node) parent).children.add(node);
+			}
+		};
+		readManager.addElementHandler("map", nodeHandler);
+		readManager.addElementHandler("node", nodeHandler);
+		readManager.addAttributeHandler("node", "TEXT", (node, value) -> ((Node) node).text = value);
+		readManager.addAttributeHandler("node", "ID", (node, value) -> ((Node) node).id = value);
+		readManager.addAttributeHandler("node", "CREATED", (node, value) -> ((Node) node).created = value);
+		readManager.addAttributeHandler("node", "MODIFIED", (node, value) -> ((Node) node).modified = value);
+		readManager.addAttributeHandler("node", "POSITION", (node, value) -> ((Node) node).position = value);
+		readManager.addAttributeHandler("map", "version", (node, value) -> {});
+		return readManager;
+	}
+}
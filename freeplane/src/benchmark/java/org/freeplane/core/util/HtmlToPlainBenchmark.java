@@ -0,0 +1,43 @@
+package org.freeplane.core.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Function;
+
+/**
+ * Compares time and allocated memory of converting the node html used by the tests to plain text
+ * in a single pass against replacing patterns one after another as done before.
+ *
+ * Usage: HtmlToPlainBenchmark [rounds] [repetitions]
+ */
+public class HtmlToPlainBenchmark {
+	public static void main(String[] args) throws Exception {
+		final int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		final int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		final String[] nodeHtml = HtmlToPlainConverterShould.loadNodeHtml();
+		int characters = 0;
+		for (String html : nodeHtml)
+			characters += html.length();
+		System.out.println(repetitions + " times " + nodeHtml.length + " nodes with " + characters + " characters");
+		for (int i = 0; i < rounds; i++) {
+			measure("single pass", html -> HtmlToPlainConverter.convert(html, true), nodeHtml, repetitions);
+			measure("patterns", html -> PatternHtmlToPlain.htmlToPlain(html, true), nodeHtml, repetitions);
+		}
+	}
+
+	private static void measure(String name, Function<String, String> conversion, String[] nodeHtml, int repetitions) {
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+		System.gc();
+		final long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+		final long start = System.nanoTime();
+		long plainCharacters = 0;
+		for (int i = 0; i < repetitions; i++) {
+			for (String html : nodeHtml)
+				plainCharacters += conversion.apply(html).length();
+		}
+		final long time = System.nanoTime() - start;
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		System.out.println(String.format("%-12s %6d ms %8d KB allocated, %d plain characters", name, time / 1_000_000,
+		    allocated / 1024, plainCharacters));
+	}
+}
@@ -0,0 +1,74 @@
+package org.freeplane.features.filter;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Compares time and allocated memory of filter runs storing filter results by node ordinals
+ * with storing them in a {@link WeakHashMap} as done before, for a generated map.
+ *
+ * Usage: FilterBenchmark [node count] [iterations]
+ */
+public class FilterBenchmark {
+	private interface Run {
+		void run(MapModel map);
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		final MapModel map = createMap(nodeCount);
+		final Run ordinalStorage = m -> new Filter(node -> node.getText().endsWith("7"), false, true, false, false, null)
+		    .calculateFilterResults(m);
+		final Run weakHashMapStorage = m -> {
+			final Map<NodeModel, int[]> filterInfos = new WeakHashMap<>();
+			storeFilterInfos(filterInfos, m.getRootNode());
+		};
+		System.out.println("map with " + nodeCount + " nodes");
+		for (int i = 0; i < iterations; i++) {
+			measure("filter run, ordinal storage", ordinalStorage, map);
+			measure("WeakHashMap storage only", weakHashMapStorage, map);
+		}
+	}
+
+	/** A mutable int per node has the size of the former mutable FilterInfo object. */
+	private static void storeFilterInfos(Map<NodeModel, int[]> filterInfos, NodeModel node) {
+		final int[] filterInfo = filterInfos.computeIfAbsent(node, x -> new int[] {FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE});
+		filterInfo[0] = FilterInfo.add(filterInfo[0], node.getText().endsWith("7")
+		        ? FilterInfo.FILTER_SHOW_AS_MATCHED : FilterInfo.FILTER_SHOW_AS_HIDDEN);
+		for (NodeModel child : node.getChildren())
+			storeFilterInfos(filterInfos, child);
+	}
+
+	private static void measure(String name, Run run, MapModel map) {
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+		System.gc();
+		final long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+		final long start = System.nanoTime();
+		run.run(map);
+		final long time = System.nanoTime() - start;
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		System.out.println(String.format("%-30s %6d ms %8d KB allocated", name, time / 1_000_000, allocated / 1024));
+	}
+
+	private static MapModel createMap(int nodeCount) {
+		final MapModel map = new MapModel(null, null, null);
+		final NodeModel root = new NodeModel("root", map);
+		map.setRoot(root);
+		int created = 1;
+		while (created < nodeCount) {
+			final NodeModel branch = new NodeModel("branch " + created, map);
+			root.insert(branch);
+			created++;
+			for (int i = 0; i < 100 && created < nodeCount; i++, created++) {
+				branch.insert(new NodeModel("leaf " + created, map));
+			}
+		}
+		return map;
+	}
+}
@@ -0,0 +1,146 @@
+package org.freeplane.features.map;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.freeplane.features.note.NoteModel;
+import org.freeplane.features.text.DetailModel;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Reports the heap used by node texts, details and notes per 100k nodes
+ * of a map read again and again into new map models, with and without sharing equal texts.
+ * Texts are copied for each node like the map reader does.
+ *
+ * Usage: NodeTextMemoryReport [map file] [node count]
+ */
+public class NodeTextMemoryReport {
+	private static class NodeContent {
+		String text;
+		String xmlText;
+		String detailsXml;
+		String noteXml;
+	}
+
+	private interface MapFactory {
+		MapModel create();
+	}
+
+	public static void main(String[] args) throws Exception {
+		final File mapFile = new File(args.length > 0 ? args[0] : "freeplane/doc/freeplaneUserGuide.mm");
+		final int nodeCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		final List<NodeContent> contents = readContents(mapFile);
+		System.out.println(mapFile.getName() + ": " + contents.size() + " nodes, read into maps until " + nodeCount + " nodes are created");
+		for (int i = 0; i < 3; i++) {
+			report("separate texts", contents, nodeCount, () -> new MapModel(null, null, null));
+			report("shared texts", contents, nodeCount, () -> {
+				final MapModel map = new MapModel(null, null, null);
+				NodeTextStore.attachTo(map);
+				return map;
+			});
+		}
+	}
+
+	private static void report(String name, List<NodeContent> contents, int nodeCount, MapFactory mapFactory) {
+		final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+		collectGarbage();
+		final long usedBefore = memoryBean.getHeapMemoryUsage().getUsed();
+		final List<NodeModel> nodes = new ArrayList<NodeModel>(nodeCount);
+		final List<MapModel> maps = new ArrayList<MapModel>();
+		while (nodes.size() < nodeCount) {
+			final MapModel map = mapFactory.create();
+			maps.add(map);
+			for (NodeContent content : contents) {
+				nodes.add(createNode(map, content));
+			}
+		}
+		for (MapModel map : maps) {
+			NodeTextStore.detachFrom(map);
+		}
+		collectGarbage();
+		final long used = memoryBean.getHeapMemoryUsage().getUsed() - usedBefore;
+		System.out.println(String.format("%-16s %8d KB per 100k nodes", name, used * 100_000 / nodes.size() / 1024));
+		if (nodes.isEmpty() || maps.isEmpty())
+			throw new IllegalStateException();
+	}
+
+	private static NodeModel createNode(MapModel map, NodeContent content) {
+		final NodeModel node = new NodeModel(map);
+		if (content.xmlText != null)
+			node.setXmlText(copy(content.xmlText));
+		else
+			node.setText(copy(content.text));
+		if (content.detailsXml != null) {
+			final DetailModel details = new DetailModel(false);
+			details.setXml(NodeTextStore.intern(map, copy(content.detailsXml)));
+			node.addExtension(details);
+		}
+		if (content.noteXml != null) {
+			final NoteModel note = new NoteModel();
+			note.setXml(NodeTextStore.intern(map, copy(content.noteXml)));
+			node.addExtension(note);
+		}
+		return node;
+	}
+
+	private static String copy(String text) {
+		return new String(text.toCharArray());
+	}
+
+	private static void collectGarbage() {
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+	}
+
+	private static List<NodeContent> readContents(File mapFile) throws Exception {
+		final Element root = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(mapFile).getDocumentElement();
+		final Transformer transformer = TransformerFactory.newInstance().newTransformer();
+		transformer.setOutputProperty(OutputKeys.METHOD, "xml");
+		transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+		final List<NodeContent> contents = new ArrayList<NodeContent>();
+		final NodeList nodeElements = root.getElementsByTagName("node");
+		for (int i = 0; i < nodeElements.getLength(); i++) {
+			final Element nodeElement = (Element) nodeElements.item(i);
+			final NodeContent content = new NodeContent();
+			content.text = nodeElement.getAttribute("TEXT");
+			for (Node child = nodeElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+				if (child instanceof Element && ((Element) child).getTagName().equals("richcontent")) {
+					final Element richContent = (Element) child;
+					final String xml = childrenToXml(transformer, richContent);
+					final String type = richContent.getAttribute("TYPE");
+					if (type.equals("NODE"))
+						content.xmlText = xml;
+					else if (type.equals("DETAILS"))
+						content.detailsXml = xml;
+					else if (type.equals("NOTE"))
+						content.noteXml = xml;
+				}
+			}
+			contents.add(content);
+		}
+		return contents;
+	}
+
+	private static String childrenToXml(Transformer transformer, Element element) throws Exception {
+		final StringWriter writer = new StringWriter();
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child instanceof Element)
+				transformer.transform(new DOMSource(child), new StreamResult(writer));
+		}
+		return writer.toString().trim();
+	}
+}
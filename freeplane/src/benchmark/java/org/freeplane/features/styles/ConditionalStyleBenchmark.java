@@ -0,0 +1,121 @@
+package org.freeplane.features.styles;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.regex.Pattern;
+
+import org.freeplane.features.filter.condition.ASelectableCondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.ConditionalStyleModel.Item;
+
+/**
+ * Compares time and allocated memory of simulated repaints looking up the conditional styles of all nodes
+ * with kept condition results against checking all conditions on each lookup as done before.
+ *
+ * Usage: ConditionalStyleBenchmark [node count] [conditional style count] [repaints]
+ */
+public class ConditionalStyleBenchmark {
+	private static final int LOOKUPS_PER_REPAINT = 8;
+
+	private interface Lookup {
+		Collection<IStyle> getStyles(ConditionalStyleModel model, NodeModel node);
+	}
+
+	private static class TextMatchesCondition extends ASelectableCondition {
+		final private Pattern pattern;
+
+		private TextMatchesCondition(final String regex) {
+			this.pattern = Pattern.compile(regex);
+		}
+
+		@Override
+		public boolean checkNode(final NodeModel node) {
+			return pattern.matcher(node.getText()).find();
+		}
+
+		@Override
+		public boolean checksNodeContentOnly() {
+			return true;
+		}
+
+		@Override
+		protected String createDescription() {
+			return pattern.pattern();
+		}
+
+		@Override
+		protected String getName() {
+			return "text_matches";
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int nodeCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+		final int styleCount = args.length > 1 ? Integer.parseInt(args[1]) : 25;
+		final int repaints = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+		final MapModel map = createMap(nodeCount);
+		final ConditionalStyleModel model = new ConditionalStyleModel();
+		for (int i = 0; i < styleCount; i++) {
+			model.addCondition(true, new TextMatchesCondition("node .*" + i + "$"), new StyleString("style " + i), false);
+		}
+		System.out.println("map with " + nodeCount + " nodes and " + styleCount + " conditional styles");
+		for (int i = 0; i < repaints; i++) {
+			measure("repaint, kept results", ConditionalStyleModel::getStyles, model, map);
+			measure("repaint, checking conditions", ConditionalStyleBenchmark::checkConditions, model, map);
+		}
+	}
+
+	private static Collection<IStyle> checkConditions(final ConditionalStyleModel model, final NodeModel node) {
+		final Collection<IStyle> matchingStyles = new LinkedHashSet<IStyle>();
+		for (final Item item : model.getStyles()) {
+			final ASelectableCondition condition = item.getCondition();
+			if (item.isActive() && (condition == null || condition.checkNode(node))) {
+				matchingStyles.add(item.getStyle());
+				if (item.isLast()) {
+					break;
+				}
+			}
+		}
+		return matchingStyles;
+	}
+
+	private static void measure(String name, Lookup lookup, ConditionalStyleModel model, MapModel map) {
+		final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final long threadId = Thread.currentThread().getId();
+		System.gc();
+		final long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+		final long start = System.nanoTime();
+		int styles = repaint(lookup, model, map.getRootNode());
+		final long time = System.nanoTime() - start;
+		final long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		System.out.println(String.format("%-30s %6d ms %8d KB allocated, %d styles", name, time / 1_000_000,
+		    allocated / 1024, styles));
+	}
+
+	private static int repaint(Lookup lookup, ConditionalStyleModel model, NodeModel node) {
+		int styles = 0;
+		for (int i = 0; i < LOOKUPS_PER_REPAINT; i++)
+			styles += lookup.getStyles(model, node).size();
+		for (NodeModel child : node.getChildren())
+			styles += repaint(lookup, model, child);
+		return styles;
+	}
+
+	private static MapModel createMap(int nodeCount) {
+		final MapModel map = new MapModel(null, null, null);
+		final NodeModel root = new NodeModel("root", map);
+		map.setRoot(root);
+		int created = 1;
+		while (created < nodeCount) {
+			final NodeModel branch = new NodeModel("branch " + created, map);
+			root.insert(branch);
+			created++;
+			for (int i = 0; i < 100 && created < nodeCount; i++, created++) {
+				branch.insert(new NodeModel("leaf node " + created, map));
+			}
+		}
+		return map;
+	}
+}
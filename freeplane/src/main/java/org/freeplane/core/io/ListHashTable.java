@@ -19,12 +19,14 @@
  */
 package org.freeplane.core.io;
 
+import java.util.Collections;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 public class ListHashTable<K, V> {
 	/**
@@ -71,6 +73,10 @@ public class ListHashTable<K, V> {
 		return elementsForTag.listIterator();
 	}
 
+	public Set<K> keys() {
+		return Collections.unmodifiableSet(table.keySet());
+	}
+
 	public List<V> list(final K tag) {
 		return table.get(tag);
 	}
@@ -0,0 +1,8 @@
+package org.freeplane.core.io.xml;
+
+/**
+ * Receives the raw content of an element whose content {@link XMLParser} was told not to parse.
+ */
+interface IElementContentReceiver {
+	void setElementContent(String content);
+}
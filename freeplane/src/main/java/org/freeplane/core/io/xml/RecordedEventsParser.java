@@ -0,0 +1,105 @@
+package org.freeplane.core.io.xml;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.n3.nanoxml.IXMLBuilder;
+import org.freeplane.n3.nanoxml.XMLException;
+import org.freeplane.n3.nanoxml.XMLParseException;
+
+/**
+ * Feeds events recorded by {@link XmlEventRecorder} to a builder as if they came from {@link XMLParser}.
+ * <p>
+ * Element content recorded unparsed is parsed on replay unless the builder asks for it as text.
+ */
+class RecordedEventsParser extends XMLParser {
+	private static final String CONTENT_WRAPPER = "freeplane-content";
+
+	final private ReadManager readManager;
+	final private List<Object> events;
+	private boolean skipNextElementContent;
+
+	RecordedEventsParser(final ReadManager readManager, final List<Object> events) {
+		this.readManager = readManager;
+		this.events = events;
+	}
+
+	@Override
+	void notParseNextElementContent() {
+		skipNextElementContent = true;
+	}
+
+	@Override
+	public Object parse() throws XMLException {
+		try {
+			replay(events);
+			return getBuilder().getResult();
+		}
+		catch (final XMLException e) {
+			throw e;
+		}
+		catch (final Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void replay(final List<Object> events) throws Exception {
+		final IXMLBuilder builder = getBuilder();
+		final int eventCount = events.size();
+		for (int i = 0; i < eventCount; i++) {
+			final Object event = events.get(i);
+			if (event instanceof XmlEventRecorder.StartElement) {
+				final XmlEventRecorder.StartElement start = (XmlEventRecorder.StartElement) event;
+				builder.startElement(start.name, start.nsPrefix, start.nsURI, start.systemID, start.lineNr);
+			}
+			else if (event instanceof XmlEventRecorder.Attribute) {
+				final XmlEventRecorder.Attribute attribute = (XmlEventRecorder.Attribute) event;
+				builder.addAttribute(attribute.key, attribute.nsPrefix, attribute.nsURI, attribute.value,
+				    attribute.type);
+			}
+			else if (event instanceof XmlEventRecorder.AttributesProcessed) {
+				final XmlEventRecorder.AttributesProcessed processed = (XmlEventRecorder.AttributesProcessed) event;
+				builder.elementAttributesProcessed(processed.name, processed.nsPrefix, processed.nsURI);
+				final Object next = i + 1 < eventCount ? events.get(i + 1) : null;
+				if (next instanceof XmlEventRecorder.RawContent) {
+					i++;
+					final XmlEventRecorder.RawContent rawContent = (XmlEventRecorder.RawContent) next;
+					if (skipNextElementContent) {
+						((IElementContentReceiver) builder).setElementContent(rawContent.content);
+					}
+					else {
+						replay(parseRawContent(rawContent));
+					}
+				}
+				else if (skipNextElementContent && !(next instanceof XmlEventRecorder.EndElement)) {
+					throw new XMLParseException(null, -1, "Content of element " + processed.name
+					        + " was not recorded");
+				}
+				skipNextElementContent = false;
+			}
+			else if (event instanceof XmlEventRecorder.PCData) {
+				final XmlEventRecorder.PCData pcData = (XmlEventRecorder.PCData) event;
+				builder.addPCData(new StringReader(pcData.content), pcData.systemID, pcData.lineNr);
+			}
+			else if (event instanceof XmlEventRecorder.EndElement) {
+				final XmlEventRecorder.EndElement end = (XmlEventRecorder.EndElement) event;
+				skipNextElementContent = false;
+				builder.endElement(end.name, end.nsPrefix, end.nsURI);
+			}
+			else if (event instanceof XmlEventRecorder.ProcessingInstruction) {
+				final XmlEventRecorder.ProcessingInstruction instruction = (XmlEventRecorder.ProcessingInstruction) event;
+				builder.newProcessingInstruction(instruction.target, new StringReader(instruction.data));
+			}
+			else if (event instanceof XmlEventRecorder.StartBuilding) {
+				final XmlEventRecorder.StartBuilding start = (XmlEventRecorder.StartBuilding) event;
+				builder.startBuilding(start.systemID, start.lineNr);
+			}
+		}
+	}
+
+	private List<Object> parseRawContent(final XmlEventRecorder.RawContent rawContent) throws XMLException {
+		final String wrappedContent = "<" + CONTENT_WRAPPER + ">" + rawContent.content + "</" + CONTENT_WRAPPER + ">";
+		return XmlEventRecorder.record(readManager, new StringReader(wrappedContent), rawContent.lineNr - 1, true);
+	}
+}
@@ -0,0 +1,344 @@
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.freeplane.core.io.IAttributeHandler;
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.n3.nanoxml.IXMLBuilder;
+import org.freeplane.n3.nanoxml.NonValidator;
+import org.freeplane.n3.nanoxml.StdXMLReader;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.freeplane.n3.nanoxml.XMLException;
+import org.freeplane.n3.nanoxml.XMLParseException;
+
+/**
+ * Reads a tree by calling {@link IElementHandler}s and {@link IAttributeHandler}s directly from the parser events.
+ * <p>
+ * Unlike {@link TreeXmlReader} it does not build an {@link XMLElement} for every parsed element.
+ * An element gets its DOM representation only if somebody needs it:
+ * it has attributes or children which no handler consumes,
+ * its handler is an {@link IElementDOMHandler} or an {@link IElementContentHandler},
+ * or the element is passed to {@link IElementHandler#createElement(Object, String, XMLElement)}.
+ * Such lazily created elements are linked to the elements of their ancestors
+ * so that handlers see the same parent chain they get from {@link TreeXmlReader}.
+ * Elements without handler are kept as DOM exactly like {@link TreeXmlReader} does.
+ */
+public class StreamingTreeXmlReader implements IXMLBuilder, IElementContentReceiver {
+	private static class ElementFrame {
+		final ElementFrame parentFrame;
+		final String fullName;
+		final String nsURI;
+		final String systemID;
+		final int lineNr;
+		final Object parentElement;
+		Object element;
+		IElementHandler elementHandler;
+		Hashtable<String, IAttributeHandler> attributeHandlers;
+		private XMLElement dom;
+		private boolean linkedToParentDom;
+
+		ElementFrame(final ElementFrame parentFrame, final Object parentElement, final String fullName,
+		             final String nsURI, final String systemID, final int lineNr) {
+			this.parentFrame = parentFrame;
+			this.parentElement = parentElement;
+			this.fullName = fullName;
+			this.nsURI = nsURI;
+			this.systemID = systemID;
+			this.lineNr = lineNr;
+		}
+
+		boolean hasDom() {
+			return dom != null;
+		}
+
+		XMLElement dom() {
+			if (dom == null) {
+				dom = new XMLElement(fullName, nsURI, systemID, lineNr);
+				if (parentFrame != null) {
+					parentFrame.dom().addChild(dom);
+					linkedToParentDom = true;
+				}
+			}
+			return dom;
+		}
+
+		void unlinkFromParentDom() {
+			if (!linkedToParentDom) {
+				return;
+			}
+			final XMLElement parentDom = parentFrame.dom();
+			for (int i = parentDom.getChildrenCount() - 1; i >= 0; i--) {
+				if (parentDom.getChildAtIndex(i) == dom) {
+					parentDom.removeChildAtIndex(i);
+					break;
+				}
+			}
+			linkedToParentDom = false;
+		}
+	}
+
+	final private ReadManager parseManager;
+	final private Map<String, Hashtable<String, IAttributeHandler>> attributeHandlersByTag;
+	private ElementFrame currentFrame;
+	private Object rootParentElement;
+	private XMLElement unknownElement;
+	private String elementContentAsString;
+	private XMLParser parser;
+	private char[] pcDataBuffer;
+
+	public StreamingTreeXmlReader(final ReadManager parseManager) {
+		super();
+		this.parseManager = parseManager;
+		attributeHandlersByTag = new HashMap<String, Hashtable<String, IAttributeHandler>>();
+	}
+
+	private Hashtable<String, IAttributeHandler> getAttributeHandlers(final String tag) {
+		if (attributeHandlersByTag.containsKey(tag)) {
+			return attributeHandlersByTag.get(tag);
+		}
+		final Hashtable<String, IAttributeHandler> handlers = parseManager.getAttributeHandlers().get(tag);
+		attributeHandlersByTag.put(tag, handlers);
+		return handlers;
+	}
+
+	private boolean applyAttribute(final ElementFrame frame, final String key, final String value) {
+		final IAttributeHandler attributeHandler = frame.attributeHandlers.get(key);
+		if (attributeHandler == null) {
+			return false;
+		}
+		try {
+			attributeHandler.setAttribute(frame.element, value);
+			return true;
+		}
+		catch (Exception e) {
+			LogUtils.severe("Can not process attribute " + key + " = '" + value + "'", e);
+			return false;
+		}
+	}
+
+	@Override
+	public void addAttribute(final String key, final String nsPrefix, final String nsURI, final String value,
+	                         final String type) throws Exception {
+		if (unknownElement == null && currentFrame.element != null && currentFrame.attributeHandlers != null
+		        && applyAttribute(currentFrame, key, value)) {
+			return;
+		}
+		final XMLElement target = unknownElement != null ? unknownElement : currentFrame.dom();
+		final String fullName = nsPrefix != null ? nsPrefix + ':' + key : key;
+		if (target.hasAttribute(fullName)) {
+			throw new XMLParseException(target.getSystemID(), target.getLineNr(), "Duplicate attribute: " + key);
+		}
+		if (nsPrefix != null) {
+			target.setAttribute(fullName, nsURI, value);
+		}
+		else {
+			target.setAttribute(fullName, value);
+		}
+	}
+
+	@Override
+	public void addPCData(final Reader reader, final String systemID, final int lineNr) throws IOException {
+		final XMLElement target;
+		if (unknownElement != null) {
+			target = unknownElement;
+		}
+		else if (currentFrame != null) {
+			target = currentFrame.dom();
+		}
+		else {
+			return;
+		}
+		if (pcDataBuffer == null) {
+			pcDataBuffer = new char[2048];
+		}
+		final StringBuilder content = new StringBuilder();
+		for (;;) {
+			final int size = reader.read(pcDataBuffer);
+			if (size < 0) {
+				break;
+			}
+			content.append(pcDataBuffer, 0, size);
+		}
+		final XMLElement pcData = new XMLElement(null, systemID, lineNr);
+		pcData.setContent(content.toString());
+		target.addChild(pcData);
+	}
+
+	@Override
+	public void elementAttributesProcessed(final String name, final String nsPrefix, final String nsURI)
+	        throws Exception {
+		if (unknownElement != null || currentFrame.elementHandler != null) {
+			return;
+		}
+		final ElementFrame frame = currentFrame;
+		final XMLElement attributes = frame.dom();
+		final Iterator<IElementHandler> iterator = parseManager.getElementHandlers().iterator(name);
+		while (iterator.hasNext() && frame.element == null) {
+			frame.elementHandler = iterator.next();
+			frame.element = createElement(frame.elementHandler, frame.parentElement, name, attributes);
+		}
+		if (frame.element == null) {
+			frame.elementHandler = null;
+			unknownElement = attributes;
+			return;
+		}
+		if (frame.elementHandler instanceof IElementContentHandler
+		        && ((IElementContentHandler) frame.elementHandler).containsXml(attributes)) {
+			parser.notParseNextElementContent();
+		}
+		frame.attributeHandlers = getAttributeHandlers(name);
+		if (frame.attributeHandlers == null) {
+			return;
+		}
+		final Enumeration<String> attributeNames = attributes.enumerateAttributeNames();
+		while (attributeNames.hasMoreElements()) {
+			final String atName = attributeNames.nextElement();
+			if (applyAttribute(frame, atName, attributes.getAttribute(atName, null))) {
+				attributes.removeAttribute(atName);
+			}
+		}
+	}
+
+	private Object createElement(final IElementHandler handler, final Object parent, final String tag,
+	                             final XMLElement attributes) {
+		try {
+			return handler.createElement(parent, tag, attributes);
+		}
+		catch (Exception e) {
+			LogUtils.severe("Can not process element" + tag, e);
+			return null;
+		}
+	}
+
+	@Override
+	public void endElement(final String name, final String nsPrefix, final String nsURI) throws Exception {
+		if (unknownElement != null) {
+			mergeSingleContentChild(unknownElement);
+			if (unknownElement != currentFrame.dom) {
+				unknownElement = unknownElement.getParent();
+				return;
+			}
+			unknownElement = null;
+			popFrame();
+			return;
+		}
+		final ElementFrame frame = currentFrame;
+		if (frame.hasDom()) {
+			mergeSingleContentChild(frame.dom());
+		}
+		try {
+			if (frame.elementHandler instanceof IElementContentHandler) {
+				final IElementContentHandler contentHandler = (IElementContentHandler) frame.elementHandler;
+				final XMLElement dom = frame.dom();
+				contentHandler.endElement(frame.parentElement, name, frame.element, dom,
+				    contentHandler.containsXml(dom) ? elementContentAsString : dom.getContent());
+			}
+			else if (frame.elementHandler instanceof IElementDOMHandler) {
+				((IElementDOMHandler) frame.elementHandler).endElement(frame.parentElement, name, frame.element,
+				    frame.dom());
+			}
+		}
+		catch (Exception e) {
+			LogUtils.severe("Can not process element" + name, e);
+		}
+		frame.unlinkFromParentDom();
+		elementContentAsString = null;
+		popFrame();
+	}
+
+	private void mergeSingleContentChild(final XMLElement element) {
+		if (element.getChildrenCount() == 1) {
+			final XMLElement child = element.getChildAtIndex(0);
+			if (child.getName() == null) {
+				element.setContent(child.getContent());
+				element.removeChildAtIndex(0);
+			}
+		}
+	}
+
+	private void popFrame() {
+		currentFrame = currentFrame.parentFrame;
+	}
+
+	@Override
+	public Object getResult() throws Exception {
+		return null;
+	}
+
+	public void load(final Reader reader) throws XMLException {
+		final XMLParser parser = new XMLParser();
+		parser.setReader(new StdXMLReader(reader));
+		parser.setValidator(new NonValidator());
+		load(parser);
+	}
+
+	public void load(final Object rootParentElement, final Reader reader) throws XMLException {
+		this.rootParentElement = rootParentElement;
+		load(reader);
+	}
+
+	void load(final XMLParser parser) throws XMLException {
+		this.parser = parser;
+		parser.setBuilder(this);
+		parser.parse();
+	}
+
+	void load(final Object rootParentElement, final XMLParser parser) throws XMLException {
+		this.rootParentElement = rootParentElement;
+		load(parser);
+	}
+
+	@Override
+	public void newProcessingInstruction(final String target, final Reader reader) throws Exception {
+	}
+
+	@Override
+	public void setElementContent(final String content) {
+		elementContentAsString = content;
+	}
+
+	@Override
+	public void startBuilding(final String systemID, final int lineNr) throws Exception {
+		currentFrame = null;
+		unknownElement = null;
+		elementContentAsString = null;
+	}
+
+	@Override
+	public void startElement(final String name, final String nsPrefix, final String nsURI, final String systemID,
+	                         final int lineNr) throws Exception {
+		final String fullName = nsPrefix != null ? nsPrefix + ':' + name : name;
+		if (unknownElement != null) {
+			final XMLElement child = new XMLElement(fullName, nsURI, systemID, lineNr);
+			unknownElement.addChild(child);
+			unknownElement = child;
+			return;
+		}
+		final Object parentElement = currentFrame != null ? currentFrame.element : rootParentElement;
+		final ElementFrame frame = new ElementFrame(currentFrame, parentElement, fullName, nsURI, systemID, lineNr);
+		currentFrame = frame;
+		final List<IElementHandler> handlers = parseManager.getElementHandlers().list(name);
+		if (handlers != null && handlers.size() == 1) {
+			final IElementHandler handler = handlers.get(0);
+			frame.element = createElement(handler, parentElement, name, null);
+			if (frame.element != null) {
+				frame.elementHandler = handler;
+				frame.attributeHandlers = getAttributeHandlers(name);
+				if (handler instanceof IElementContentHandler) {
+					parser.notParseNextElementContent();
+				}
+			}
+		}
+	}
+}
@@ -45,7 +45,7 @@ import org.freeplane.n3.nanoxml.StdXMLReader;
 import org.freeplane.n3.nanoxml.XMLElement;
 import org.freeplane.n3.nanoxml.XMLException;
 
-public class TreeXmlReader implements IXMLBuilder {
+public class TreeXmlReader implements IXMLBuilder, IElementContentReceiver {
 	public static boolean xmlToBoolean(final String string) {
 		if (string == null) {
 			return false;
@@ -249,11 +249,16 @@ public class TreeXmlReader implements IXMLBuilder {
 	 * @see freeplane.persistence.Reader#load()
 	 */
 	public void load(final Reader reader) throws XMLException {
-		parser = new XMLParser();
+		final XMLParser parser = new XMLParser();
 		final IXMLReader nanoxmlReader = new StdXMLReader(reader);
 		parser.setReader(nanoxmlReader);
-		parser.setBuilder(this);
 		parser.setValidator(new NonValidator());
+		load(parser);
+	}
+
+	void load(final XMLParser parser) throws XMLException {
+		this.parser = parser;
+		parser.setBuilder(this);
 		parser.parse();
 	}
 
@@ -274,6 +279,7 @@ public class TreeXmlReader implements IXMLBuilder {
 
 	/**
 	 */
+	@Override
 	public void setElementContent(final String content) {
 		elementContentAsString = content;
 	}
@@ -333,4 +339,9 @@ public class TreeXmlReader implements IXMLBuilder {
 	    this.currentElement = currentElement;
 	    load(pReader);
     }
+
+	void load(Object currentElement, XMLParser parser) throws XMLException {
+	    this.currentElement = currentElement;
+	    load(parser);
+	}
 }
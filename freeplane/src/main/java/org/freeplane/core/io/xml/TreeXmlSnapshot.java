@@ -0,0 +1,311 @@
+package org.freeplane.core.io.xml;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.n3.nanoxml.XMLException;
+
+/**
+ * Parsed form of a map document which can be stored in a compact binary format and loaded without parsing xml again.
+ * <p>
+ * The snapshot keeps the parser events, not the loaded model.
+ * Loading it calls the element and attribute handlers registered in the {@link ReadManager}
+ * exactly like loading the xml does, so that every extension including those contributed by plugins
+ * is restored by its own handlers.
+ * A snapshot can only be loaded if the content handlers registered in the {@link ReadManager}
+ * are the same as at the time it was recorded, because they determine which element content is kept unparsed.
+ */
+public class TreeXmlSnapshot {
+	private static final int MAGIC = 0x46505853;
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int END_OF_EVENTS = 0;
+	private static final int START_BUILDING = 1;
+	private static final int START_ELEMENT = 2;
+	private static final int ATTRIBUTE = 3;
+	private static final int ATTRIBUTES_PROCESSED = 4;
+	private static final int PCDATA = 5;
+	private static final int RAW_CONTENT = 6;
+	private static final int END_ELEMENT = 7;
+	private static final int PROCESSING_INSTRUCTION = 8;
+
+	public static TreeXmlSnapshot record(final ReadManager readManager, final Reader reader) throws XMLException {
+		return new TreeXmlSnapshot(XmlEventRecorder.record(readManager, reader, 0, false),
+		    contentHandlerSignature(readManager));
+	}
+
+	/**
+	 * Returns null if the snapshot was written in another format version
+	 * or for other content handlers than those registered in the given {@link ReadManager}.
+	 *
+	 * @throws IOException if the snapshot data are damaged
+	 */
+	public static TreeXmlSnapshot read(final InputStream input, final ReadManager readManager) throws IOException {
+		final CRC32 checksum = new CRC32();
+		final DataInputStream in = new DataInputStream(new CheckedInputStream(input, checksum));
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+			return null;
+		}
+		final int contentHandlerSignature = contentHandlerSignature(readManager);
+		if (in.readInt() != contentHandlerSignature) {
+			return null;
+		}
+		final List<Object> events = new ArrayList<Object>();
+		final EventReader eventReader = new EventReader(in);
+		for (;;) {
+			final int kind = in.readByte();
+			if (kind == END_OF_EVENTS) {
+				break;
+			}
+			events.add(eventReader.readEvent(kind));
+		}
+		final long expectedChecksum = checksum.getValue();
+		if (in.readLong() != expectedChecksum) {
+			throw new IOException("Snapshot checksum mismatch");
+		}
+		return new TreeXmlSnapshot(events, contentHandlerSignature);
+	}
+
+	private static int contentHandlerSignature(final ReadManager readManager) {
+		final TreeSet<String> contentHandlers = new TreeSet<String>();
+		for (final String tag : readManager.getElementHandlers().keys()) {
+			final List<IElementHandler> handlers = readManager.getElementHandlers().list(tag);
+			for (final IElementHandler handler : handlers) {
+				if (handler instanceof IElementContentHandler) {
+					contentHandlers.add(tag + ':' + handler.getClass().getName() + ':' + handlers.size());
+				}
+			}
+		}
+		return contentHandlers.toString().hashCode();
+	}
+
+	final private List<Object> events;
+	final private int contentHandlerSignature;
+
+	private TreeXmlSnapshot(final List<Object> events, final int contentHandlerSignature) {
+		this.events = events;
+		this.contentHandlerSignature = contentHandlerSignature;
+	}
+
+	public void load(final ReadManager readManager, final Object rootParentElement,
+	                 final boolean buildOnlyRequiredDom) throws XMLException {
+		final RecordedEventsParser parser = new RecordedEventsParser(readManager, events);
+		if (buildOnlyRequiredDom) {
+			new StreamingTreeXmlReader(readManager).load(rootParentElement, parser);
+		}
+		else {
+			new TreeXmlReader(readManager).load(rootParentElement, parser);
+		}
+	}
+
+	public void write(final OutputStream output) throws IOException {
+		final CRC32 checksum = new CRC32();
+		final DataOutputStream out = new DataOutputStream(new CheckedOutputStream(output, checksum));
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT_VERSION);
+		out.writeInt(contentHandlerSignature);
+		final EventWriter eventWriter = new EventWriter(out);
+		for (final Object event : events) {
+			eventWriter.writeEvent(event);
+		}
+		out.writeByte(END_OF_EVENTS);
+		out.flush();
+		out.writeLong(checksum.getValue());
+		out.flush();
+	}
+
+	private static class EventWriter {
+		final private DataOutputStream out;
+		final private Map<String, Integer> stringIndices = new HashMap<String, Integer>();
+
+		EventWriter(final DataOutputStream out) {
+			this.out = out;
+		}
+
+		void writeEvent(final Object event) throws IOException {
+			if (event instanceof XmlEventRecorder.StartElement) {
+				final XmlEventRecorder.StartElement start = (XmlEventRecorder.StartElement) event;
+				out.writeByte(START_ELEMENT);
+				writeSharedString(start.name);
+				writeSharedString(start.nsPrefix);
+				writeSharedString(start.nsURI);
+				writeSharedString(start.systemID);
+				writeInt(start.lineNr);
+			}
+			else if (event instanceof XmlEventRecorder.Attribute) {
+				final XmlEventRecorder.Attribute attribute = (XmlEventRecorder.Attribute) event;
+				out.writeByte(ATTRIBUTE);
+				writeSharedString(attribute.key);
+				writeSharedString(attribute.nsPrefix);
+				writeSharedString(attribute.nsURI);
+				writeSharedString(attribute.value);
+				writeSharedString(attribute.type);
+			}
+			else if (event instanceof XmlEventRecorder.AttributesProcessed) {
+				final XmlEventRecorder.AttributesProcessed processed = (XmlEventRecorder.AttributesProcessed) event;
+				out.writeByte(ATTRIBUTES_PROCESSED);
+				writeSharedString(processed.name);
+				writeSharedString(processed.nsPrefix);
+				writeSharedString(processed.nsURI);
+			}
+			else if (event instanceof XmlEventRecorder.PCData) {
+				final XmlEventRecorder.PCData pcData = (XmlEventRecorder.PCData) event;
+				out.writeByte(PCDATA);
+				writeString(pcData.content);
+				writeSharedString(pcData.systemID);
+				writeInt(pcData.lineNr);
+			}
+			else if (event instanceof XmlEventRecorder.RawContent) {
+				final XmlEventRecorder.RawContent rawContent = (XmlEventRecorder.RawContent) event;
+				out.writeByte(RAW_CONTENT);
+				writeString(rawContent.content);
+				writeInt(rawContent.lineNr);
+			}
+			else if (event instanceof XmlEventRecorder.EndElement) {
+				final XmlEventRecorder.EndElement end = (XmlEventRecorder.EndElement) event;
+				out.writeByte(END_ELEMENT);
+				writeSharedString(end.name);
+				writeSharedString(end.nsPrefix);
+				writeSharedString(end.nsURI);
+			}
+			else if (event instanceof XmlEventRecorder.ProcessingInstruction) {
+				final XmlEventRecorder.ProcessingInstruction instruction = (XmlEventRecorder.ProcessingInstruction) event;
+				out.writeByte(PROCESSING_INSTRUCTION);
+				writeSharedString(instruction.target);
+				writeString(instruction.data);
+			}
+			else if (event instanceof XmlEventRecorder.StartBuilding) {
+				final XmlEventRecorder.StartBuilding start = (XmlEventRecorder.StartBuilding) event;
+				out.writeByte(START_BUILDING);
+				writeSharedString(start.systemID);
+				writeInt(start.lineNr);
+			}
+			else {
+				throw new IllegalArgumentException("Unknown event " + event);
+			}
+		}
+
+		/** Writes 0 for null, the index + 1 of a string written before or the next index followed by the string. */
+		private void writeSharedString(final String string) throws IOException {
+			if (string == null) {
+				writeInt(0);
+				return;
+			}
+			final Integer index = stringIndices.get(string);
+			if (index != null) {
+				writeInt(index);
+				return;
+			}
+			final int newIndex = stringIndices.size() + 1;
+			stringIndices.put(string, newIndex);
+			writeInt(newIndex);
+			writeString(string);
+		}
+
+		private void writeString(final String string) throws IOException {
+			final int length = string.length();
+			writeInt(length);
+			for (int i = 0; i < length; i++) {
+				writeInt(string.charAt(i));
+			}
+		}
+
+		private void writeInt(int value) throws IOException {
+			while ((value & ~0x7F) != 0) {
+				out.writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte(value);
+		}
+	}
+
+	private static class EventReader {
+		final private DataInputStream in;
+		final private List<String> strings = new ArrayList<String>();
+		private char[] buffer = new char[256];
+
+		EventReader(final DataInputStream in) {
+			this.in = in;
+		}
+
+		Object readEvent(final int kind) throws IOException {
+			switch (kind) {
+				case START_ELEMENT:
+					return new XmlEventRecorder.StartElement(readSharedString(), readSharedString(), readSharedString(),
+					    readSharedString(), readInt());
+				case ATTRIBUTE:
+					return new XmlEventRecorder.Attribute(readSharedString(), readSharedString(), readSharedString(),
+					    readSharedString(), readSharedString());
+				case ATTRIBUTES_PROCESSED:
+					return new XmlEventRecorder.AttributesProcessed(readSharedString(), readSharedString(),
+					    readSharedString());
+				case PCDATA:
+					return new XmlEventRecorder.PCData(readString(), readSharedString(), readInt());
+				case RAW_CONTENT:
+					return new XmlEventRecorder.RawContent(readString(), readInt());
+				case END_ELEMENT:
+					return new XmlEventRecorder.EndElement(readSharedString(), readSharedString(), readSharedString());
+				case PROCESSING_INSTRUCTION:
+					return new XmlEventRecorder.ProcessingInstruction(readSharedString(), readString());
+				case START_BUILDING:
+					return new XmlEventRecorder.StartBuilding(readSharedString(), readInt());
+				default:
+					throw new IOException("Unknown snapshot event " + kind);
+			}
+		}
+
+		private String readSharedString() throws IOException {
+			final int index = readInt();
+			if (index == 0) {
+				return null;
+			}
+			if (index <= strings.size()) {
+				return strings.get(index - 1);
+			}
+			if (index != strings.size() + 1) {
+				throw new IOException("Invalid string index " + index);
+			}
+			final String string = readString();
+			strings.add(string);
+			return string;
+		}
+
+		private String readString() throws IOException {
+			final int length = readInt();
+			if (buffer.length < length) {
+				buffer = new char[Math.max(length, buffer.length * 2)];
+			}
+			for (int i = 0; i < length; i++) {
+				buffer[i] = (char) readInt();
+			}
+			return new String(buffer, 0, length);
+		}
+
+		private int readInt() throws IOException {
+			int value = 0;
+			for (int shift = 0; shift < 32; shift += 7) {
+				final int b = in.readByte();
+				value |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Invalid number");
+		}
+	}
+}
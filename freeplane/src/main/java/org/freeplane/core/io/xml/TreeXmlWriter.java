@@ -170,6 +170,14 @@ public class TreeXmlWriter implements ITreeWriter {
 		xmlwriter.write(content);
 	}
 
+	/** Writes the start tag of the current element unless it has already been written. */
+	public void addElementStart() throws IOException {
+		if (elementStarted == false && xmlElement != null) {
+			xmlwriter.write(xmlElement, true, 0, true, false);
+			elementStarted = true;
+		}
+	}
+
 	public void addExtensionAttributes(final Object map, final Collection<IExtension> extensions) {
 		final Iterator<IExtension> extensionIterator = extensions.iterator();
 		while (extensionIterator.hasNext()) {
@@ -55,7 +55,7 @@ class XMLParser extends StdXMLParser implements IXMLParser {
 	        throws IOException, XMLParseException, Exception {
 		if (skipNextElementContent) {
 			boolean inComment = false;
-			final TreeXmlReader builder = (TreeXmlReader) getBuilder();
+			final IElementContentReceiver builder = (IElementContentReceiver) getBuilder();
 			final StringBuilder waitingBuf = new StringBuilder();
 			int level = 1;
 			for (;;) {
@@ -0,0 +1,286 @@
+package org.freeplane.core.io.xml;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.n3.nanoxml.IXMLBuilder;
+import org.freeplane.n3.nanoxml.NonValidator;
+import org.freeplane.n3.nanoxml.StdXMLReader;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.freeplane.n3.nanoxml.XMLException;
+
+/**
+ * Records parser events so that {@link RecordedEventsParser} can replay them later.
+ * <p>
+ * Recording does not call any element or attribute handler.
+ * Element content is kept unparsed wherever a reader using the same {@link ReadManager} could ask for it:
+ * if the element has a single {@link IElementContentHandler}
+ * or one of its content handlers {@link IElementContentHandler#containsXml(XMLElement) contains xml}.
+ */
+class XmlEventRecorder implements IXMLBuilder, IElementContentReceiver {
+	static class StartBuilding {
+		final String systemID;
+		final int lineNr;
+
+		StartBuilding(final String systemID, final int lineNr) {
+			this.systemID = systemID;
+			this.lineNr = lineNr;
+		}
+	}
+
+	static class StartElement {
+		final String name;
+		final String nsPrefix;
+		final String nsURI;
+		final String systemID;
+		final int lineNr;
+
+		StartElement(final String name, final String nsPrefix, final String nsURI, final String systemID,
+		             final int lineNr) {
+			this.name = name;
+			this.nsPrefix = nsPrefix;
+			this.nsURI = nsURI;
+			this.systemID = systemID;
+			this.lineNr = lineNr;
+		}
+	}
+
+	static class Attribute {
+		final String key;
+		final String nsPrefix;
+		final String nsURI;
+		final String value;
+		final String type;
+
+		Attribute(final String key, final String nsPrefix, final String nsURI, final String value, final String type) {
+			this.key = key;
+			this.nsPrefix = nsPrefix;
+			this.nsURI = nsURI;
+			this.value = value;
+			this.type = type;
+		}
+	}
+
+	static class AttributesProcessed {
+		final String name;
+		final String nsPrefix;
+		final String nsURI;
+
+		AttributesProcessed(final String name, final String nsPrefix, final String nsURI) {
+			this.name = name;
+			this.nsPrefix = nsPrefix;
+			this.nsURI = nsURI;
+		}
+	}
+
+	static class PCData {
+		final String content;
+		final String systemID;
+		final int lineNr;
+
+		PCData(final String content, final String systemID, final int lineNr) {
+			this.content = content;
+			this.systemID = systemID;
+			this.lineNr = lineNr;
+		}
+	}
+
+	static class RawContent {
+		final String content;
+		final int lineNr;
+
+		RawContent(final String content, final int lineNr) {
+			this.content = content;
+			this.lineNr = lineNr;
+		}
+	}
+
+	static class EndElement {
+		final String name;
+		final String nsPrefix;
+		final String nsURI;
+
+		EndElement(final String name, final String nsPrefix, final String nsURI) {
+			this.name = name;
+			this.nsPrefix = nsPrefix;
+			this.nsURI = nsURI;
+		}
+	}
+
+	static class ProcessingInstruction {
+		final String target;
+		final String data;
+
+		ProcessingInstruction(final String target, final String data) {
+			this.target = target;
+			this.data = data;
+		}
+	}
+
+	static List<Object> record(final ReadManager readManager, final Reader reader, final int lineOffset,
+	                           final boolean skipOutermostElement) throws XMLException {
+		final XMLParser parser = new XMLParser();
+		parser.setReader(new StdXMLReader(reader));
+		parser.setValidator(new NonValidator());
+		final XmlEventRecorder recorder = new XmlEventRecorder(readManager, parser, lineOffset, skipOutermostElement);
+		parser.setBuilder(recorder);
+		parser.parse();
+		return recorder.events;
+	}
+
+	final private ReadManager readManager;
+	final private XMLParser parser;
+	final private int lineOffset;
+	final private boolean skipOutermostElement;
+	final private List<Object> events = new ArrayList<Object>();
+	private int depth;
+	private int currentElementIndex;
+	private String systemID;
+
+	private XmlEventRecorder(final ReadManager readManager, final XMLParser parser, final int lineOffset,
+	                         final boolean skipOutermostElement) {
+		this.readManager = readManager;
+		this.parser = parser;
+		this.lineOffset = lineOffset;
+		this.skipOutermostElement = skipOutermostElement;
+	}
+
+	private boolean isRecorded() {
+		return !skipOutermostElement || depth > 1;
+	}
+
+	private String shared(final String systemID) {
+		if (systemID != null && systemID.equals(this.systemID)) {
+			return this.systemID;
+		}
+		this.systemID = systemID;
+		return systemID;
+	}
+
+	@Override
+	public void startBuilding(final String systemID, final int lineNr) throws Exception {
+		if (!skipOutermostElement) {
+			events.add(new StartBuilding(shared(systemID), lineNr + lineOffset));
+		}
+	}
+
+	@Override
+	public void newProcessingInstruction(final String target, final Reader reader) throws Exception {
+		if (isRecorded()) {
+			events.add(new ProcessingInstruction(target, readAll(reader)));
+		}
+	}
+
+	@Override
+	public void startElement(final String name, final String nsPrefix, final String nsURI, final String systemID,
+	                         final int lineNr) throws Exception {
+		depth++;
+		if (isRecorded()) {
+			currentElementIndex = events.size();
+			events.add(new StartElement(name, nsPrefix, nsURI, shared(systemID), lineNr + lineOffset));
+		}
+	}
+
+	@Override
+	public void addAttribute(final String key, final String nsPrefix, final String nsURI, final String value,
+	                         final String type) throws Exception {
+		if (isRecorded()) {
+			events.add(new Attribute(key, nsPrefix, nsURI, value, type));
+		}
+	}
+
+	@Override
+	public void elementAttributesProcessed(final String name, final String nsPrefix, final String nsURI)
+	        throws Exception {
+		if (!isRecorded()) {
+			return;
+		}
+		events.add(new AttributesProcessed(name, nsPrefix, nsURI));
+		if (mayRequestRawContent(name)) {
+			parser.notParseNextElementContent();
+		}
+	}
+
+	private boolean mayRequestRawContent(final String name) {
+		final List<IElementHandler> handlers = readManager.getElementHandlers().list(name);
+		if (handlers == null) {
+			return false;
+		}
+		XMLElement attributes = null;
+		for (final IElementHandler handler : handlers) {
+			if (!(handler instanceof IElementContentHandler)) {
+				continue;
+			}
+			if (handlers.size() == 1) {
+				return true;
+			}
+			if (attributes == null) {
+				attributes = currentAttributes();
+			}
+			if (((IElementContentHandler) handler).containsXml(attributes)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private XMLElement currentAttributes() {
+		final StartElement start = (StartElement) events.get(currentElementIndex);
+		final XMLElement element = new XMLElement(start.name, start.nsURI, start.systemID, start.lineNr);
+		for (int i = currentElementIndex + 1; i < events.size(); i++) {
+			final Object event = events.get(i);
+			if (event instanceof Attribute) {
+				final Attribute attribute = (Attribute) event;
+				if (attribute.nsPrefix != null) {
+					element.setAttribute(attribute.nsPrefix + ':' + attribute.key, attribute.nsURI, attribute.value);
+				}
+				else {
+					element.setAttribute(attribute.key, attribute.value);
+				}
+			}
+		}
+		return element;
+	}
+
+	@Override
+	public void setElementContent(final String content) {
+		final StartElement start = (StartElement) events.get(currentElementIndex);
+		events.add(new RawContent(content, start.lineNr));
+	}
+
+	@Override
+	public void addPCData(final Reader reader, final String systemID, final int lineNr) throws Exception {
+		if (isRecorded()) {
+			events.add(new PCData(readAll(reader), shared(systemID), lineNr + lineOffset));
+		}
+	}
+
+	@Override
+	public void endElement(final String name, final String nsPrefix, final String nsURI) throws Exception {
+		if (isRecorded()) {
+			events.add(new EndElement(name, nsPrefix, nsURI));
+		}
+		depth--;
+	}
+
+	@Override
+	public Object getResult() throws Exception {
+		return null;
+	}
+
+	private static String readAll(final Reader reader) throws Exception {
+		final StringBuilder content = new StringBuilder();
+		final char[] buffer = new char[1024];
+		for (;;) {
+			final int size = reader.read(buffer);
+			if (size < 0) {
+				return content.toString();
+			}
+			content.append(buffer, 0, size);
+		}
+	}
+}
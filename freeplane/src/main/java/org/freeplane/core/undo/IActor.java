@@ -20,6 +20,17 @@
 package org.freeplane.core.undo;
 
 public interface IActor {
+	/** Size assumed for actors keeping only a few references and small values. */
+	int DEFAULT_ESTIMATED_SIZE = 100;
+
+	/** Returns the approximate size of a text or other value kept by an actor in bytes. */
+	static long estimateSize(final Object value) {
+		if (value instanceof CharSequence) {
+			return 40 + 2L * ((CharSequence) value).length();
+		}
+		return value == null ? 0 : DEFAULT_ESTIMATED_SIZE;
+	}
+
 	void act();
 
 	String getDescription();
@@ -29,4 +40,12 @@ public interface IActor {
 	default boolean isReadonly() {
 		return false;
 	}
+
+	/**
+	 * Returns the approximate memory kept alive only by the actor in bytes, which limits the size of the undo history.
+	 * Values still referenced by the map, e.g. inserted nodes or new texts, are not counted.
+	 */
+	default long getEstimatedSize() {
+		return DEFAULT_ESTIMATED_SIZE;
+	}
 }
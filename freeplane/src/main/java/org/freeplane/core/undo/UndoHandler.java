@@ -28,6 +28,7 @@ import java.util.ListIterator;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.features.map.IMapSelection;
 import org.freeplane.features.map.MapModel;
@@ -54,12 +55,13 @@ public class UndoHandler implements IUndoHandler {
 	private static class ActorList extends LinkedList<CompoundActor> {
 		private static final long serialVersionUID = 1L;
 		int commitDelay = COMMIT_DELAY;
+		long estimatedSize = 0;
 	}
 
-	/**
-	 *
-	 */
-	private static final int MAX_ENTRIES = 100;
+	private static final String UNDO_LEVELS_PROPERTY = "undo_levels";
+	private static final int DEFAULT_UNDO_LEVELS = 100;
+	private static final String UNDO_MEMORY_LIMIT_PROPERTY = "undo_memory_limit_mb";
+	private static final int DEFAULT_UNDO_MEMORY_LIMIT = 64;
 	private static final long TIME_TO_BEGIN_NEW_ACTION = 100;
 	private boolean actionFrameStarted;
 	private ListIterator<CompoundActor> actorIterator;
@@ -112,6 +114,7 @@ public class UndoHandler implements IUndoHandler {
 			else {
 				if (actorList.size() > 0) {
 					actorList.clear();
+					actorList.estimatedSize = 0;
 					actorIterator = actorList.listIterator();
 				}
 				return;
@@ -120,8 +123,11 @@ public class UndoHandler implements IUndoHandler {
 		if ((actorList.size() > 0)
 		        && (actionFrameStarted || currentTime - timeOfLastAdd < UndoHandler.TIME_TO_BEGIN_NEW_ACTION)) {
 			CompoundActor compoundActor = actorIterator.previous();
+			final long estimatedSizeBefore = compoundActor.getEstimatedSize();
 			compoundActor.add(actor);
+			actorList.estimatedSize += compoundActor.getEstimatedSize() - estimatedSizeBefore;
 			actorIterator.next();
+			removeOldestActors();
 		}
 		else {
 			CompoundActor compoundActor = new CompoundActor();
@@ -133,17 +139,33 @@ public class UndoHandler implements IUndoHandler {
 			}
 			compoundActor.add(actor);
 			actorIterator.add(compoundActor);
-			final int maxEntries = UndoHandler.MAX_ENTRIES;
-			while (actorList.size() > maxEntries) {
-				actorList.removeFirst();
-				actorIterator = actorList.listIterator(actorList.size());
-			}
+			actorList.estimatedSize += compoundActor.getEstimatedSize();
+			removeOldestActors();
 		}
 		startActionFrame();
 		timeOfLastAdd = currentTime;
 		fireStateChanged();
 	}
 
+	/**
+	 * Keeps the configured number of undo levels. Outside of transactions the oldest levels are also removed
+	 * while the estimated memory of all levels exceeds the configured limit, but the latest level is always kept.
+	 */
+	private void removeOldestActors() {
+		final ResourceController resourceController = ResourceController.getResourceController();
+		final int maxEntries = Math.max(1, resourceController.getIntProperty(UNDO_LEVELS_PROPERTY, DEFAULT_UNDO_LEVELS));
+		final long maxSize = transactionList.isEmpty()
+		        ? resourceController.getIntProperty(UNDO_MEMORY_LIMIT_PROPERTY, DEFAULT_UNDO_MEMORY_LIMIT) * 1024L * 1024L
+		        : Long.MAX_VALUE;
+		if (actorList.size() <= maxEntries && (actorList.size() <= 1 || actorList.estimatedSize <= maxSize)) {
+			return;
+		}
+		while (actorList.size() > maxEntries || actorList.size() > 1 && actorList.estimatedSize > maxSize) {
+			actorList.estimatedSize -= actorList.removeFirst().getEstimatedSize();
+		}
+		actorIterator = actorList.listIterator(actorList.size());
+	}
+
 	private void fireStateChanged() {
 		for (final ChangeListener listener : listeners) {
 			listener.stateChanged(event);
@@ -253,7 +275,7 @@ public class UndoHandler implements IUndoHandler {
 
 	public void resetRedo() {
 		while (canRedo()) {
-			actorIterator.next();
+			actorList.estimatedSize -= actorIterator.next().getEstimatedSize();
 			actorIterator.remove();
 		}
 		fireStateChanged();
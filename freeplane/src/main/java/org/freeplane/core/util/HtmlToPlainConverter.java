@@ -0,0 +1,396 @@
+package org.freeplane.core.util;
+
+/**
+ * Converts html to plain text in a single pass over the html.
+ * <p>
+ * The result is the same as replacing line breaking tags by new lines and list items by indented stars,
+ * removing all other tags, trimming and decoding the entities one after another,
+ * which {@link HtmlUtils#htmlToPlain(String, boolean, boolean)} did before.
+ * New lines of paragraphs, divs and table rows swallow following white space and less important line breaks,
+ * spaces before closing tags and after other opening tags are removed.
+ * Entities are decoded in place after the pass, only if the text contains any.
+ * Results may still differ for unescaped '&lt;' followed by tags, which html written by Freeplane does not contain.
+ */
+class HtmlToPlainConverter {
+	private static final int BR = 0;
+	private static final int P = 1;
+	private static final int DIV = 2;
+	private static final int TR = 3;
+	private static final int DT = 4;
+	private static final int DD = 5;
+	private static final int TD = 6;
+	private static final int LIST = 7;
+	private static final int LI = 8;
+	private static final int CLOSING_TAG = 9;
+	private static final int OTHER_TAG = 10;
+	private static final long NOT_A_NUMBER = Long.MIN_VALUE;
+	private static final String[] NAMED_ENTITIES = { "&lt;", "&gt;", "&quot;", "&nbsp;", "&amp;" };
+	private static final char[] NAMED_ENTITY_CHARACTERS = { '<', '>', '"', ' ', '&' };
+
+	static String convert(final String html, final boolean removeNewLines) {
+		return new HtmlToPlainConverter(html, removeNewLines).convert();
+	}
+
+	final private String html;
+	final private boolean removeNewLines;
+	final private StringBuilder plain;
+	/** line breaks of lower rank and white space following a paragraph, div or table row are removed */
+	private int swallowingLineBreakRank = 0;
+	/** spaces following an opening tag other than line breaks and list items are removed */
+	private boolean swallowingSpaces = false;
+	/** number of trailing spaces removed by a following closing tag */
+	private int spacesBeforeClosingTag = 0;
+	private boolean requiresDecoding = false;
+	private int lastDecodedNamedEntity;
+	private int protectedSpaceEnd;
+
+	private HtmlToPlainConverter(final String html, final boolean removeNewLines) {
+		this.html = html;
+		this.removeNewLines = removeNewLines;
+		this.plain = new StringBuilder(html.length());
+	}
+
+	private String convert() {
+		final int length = html.length();
+		boolean afterGreaterThan = false;
+		boolean inWhiteSpace = false;
+		for (int i = 0; i < length; i++) {
+			final char c = html.charAt(i);
+			if (c == '<') {
+				final int tagType = tagType(i);
+				final int tagEnd = findTagEnd(i, tagType);
+				if (tagEnd >= 0) {
+					appendTag(tagType);
+					i = tagEnd;
+					afterGreaterThan = true;
+					inWhiteSpace = false;
+					continue;
+				}
+			}
+			if (afterGreaterThan && (c == '\n' || c == '\t')) {
+				continue;
+			}
+			afterGreaterThan = c == '>';
+			if (removeNewLines && (c == ' ' || c == '\n' || c == '\t')) {
+				if (!inWhiteSpace) {
+					inWhiteSpace = true;
+					appendText(' ');
+				}
+				continue;
+			}
+			inWhiteSpace = false;
+			appendText(c);
+		}
+		int end = plain.length();
+		while (end > 0 && plain.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		plain.setLength(end);
+		if (requiresDecoding) {
+			decode();
+		}
+		return plain.toString();
+	}
+
+	/**
+	 * Returns the index of the '&gt;' closing the tag, or -1 if the '&lt;' is text,
+	 * because no '&gt;' follows or a tag removed by an earlier replacement starts before.
+	 */
+	private int findTagEnd(final int tagStart, final int type) {
+		final int nameStart = tagStart + 1;
+		final boolean emptyName = nameStart < html.length() && html.charAt(nameStart) == '>';
+		final int tagEnd = html.indexOf('>', emptyName ? nameStart + 1 : nameStart);
+		if (tagEnd < 0) {
+			return -1;
+		}
+		for (int innerTagStart = html.indexOf('<', nameStart); innerTagStart >= 0 && innerTagStart < tagEnd;
+		        innerTagStart = html.indexOf('<', innerTagStart + 1)) {
+			if (tagType(innerTagStart) < type) {
+				return -1;
+			}
+		}
+		return tagEnd;
+	}
+
+	private int tagType(final int tagStart) {
+		final int nameStart = tagStart + 1;
+		if (startsWith(nameStart, "br")) {
+			return BR;
+		}
+		if (startsWith(nameStart, "p")) {
+			return P;
+		}
+		if (startsWith(nameStart, "div")) {
+			return DIV;
+		}
+		if (startsWith(nameStart, "tr")) {
+			return TR;
+		}
+		if (startsWith(nameStart, "dt")) {
+			return DT;
+		}
+		if (startsWith(nameStart, "dd")) {
+			return DD;
+		}
+		if (startsWith(nameStart, "td")) {
+			return TD;
+		}
+		if ((startsWith(nameStart, "u") || startsWith(nameStart, "o")) && startsWith(nameStart + 1, "l")) {
+			return LIST;
+		}
+		if (startsWith(nameStart, "li")) {
+			return LI;
+		}
+		if (startsWith(nameStart, "/")) {
+			return CLOSING_TAG;
+		}
+		return OTHER_TAG;
+	}
+
+	/** compares ignoring the case of ascii letters only, like patterns without unicode case */
+	private boolean startsWith(final int start, final String lowerCasePrefix) {
+		final int prefixLength = lowerCasePrefix.length();
+		if (start + prefixLength > html.length()) {
+			return false;
+		}
+		for (int i = 0; i < prefixLength; i++) {
+			final char c = html.charAt(start + i);
+			final char expected = lowerCasePrefix.charAt(i);
+			if (c != expected && !(c >= 'A' && c <= 'Z' && c + ('a' - 'A') == expected)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void appendTag(final int type) {
+		switch (type) {
+			case BR:
+			case P:
+			case DIV:
+			case TR:
+				if (swallowingLineBreakRank <= type) {
+					swallowingSpaces = false;
+					append('\n');
+				}
+				swallowingLineBreakRank = Math.max(swallowingLineBreakRank, type);
+				return;
+			case TD:
+				swallowingLineBreakRank = 0;
+				appendSpace();
+				return;
+			case DT:
+			case LIST:
+				appendMarkup("\n");
+				return;
+			case DD:
+				appendMarkup("\n   ");
+				return;
+			case LI:
+				appendMarkup("\n   * ");
+				return;
+			case CLOSING_TAG:
+				swallowingLineBreakRank = 0;
+				plain.setLength(plain.length() - spacesBeforeClosingTag);
+				spacesBeforeClosingTag = 0;
+				return;
+			default:
+				swallowingLineBreakRank = 0;
+				spacesBeforeClosingTag = 0;
+				swallowingSpaces = true;
+				return;
+		}
+	}
+
+	private void appendMarkup(final String text) {
+		swallowingLineBreakRank = 0;
+		swallowingSpaces = false;
+		for (int i = 0; i < text.length(); i++) {
+			append(text.charAt(i));
+		}
+	}
+
+	private void appendText(final char c) {
+		if (isWhiteSpace(c)) {
+			if (swallowingLineBreakRank > 0) {
+				return;
+			}
+		}
+		else {
+			swallowingLineBreakRank = 0;
+		}
+		if (c == ' ') {
+			appendSpace();
+		}
+		else {
+			swallowingSpaces = false;
+			append(c);
+		}
+	}
+
+	private void appendSpace() {
+		if (!swallowingSpaces) {
+			append(' ');
+		}
+	}
+
+	private static boolean isWhiteSpace(final char c) {
+		return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B';
+	}
+
+	private void append(final char c) {
+		final int length = plain.length();
+		if (length == 0 && c <= ' ') {
+			return;
+		}
+		if (c == ' ') {
+			spacesBeforeClosingTag++;
+		}
+		else {
+			spacesBeforeClosingTag = 0;
+			if (c == '&' || c == '\u00a0') {
+				requiresDecoding = true;
+			}
+			else if (c == '\n' && length > 0) {
+				final char previous = plain.charAt(length - 1);
+				requiresDecoding |= previous == ' ' || previous == '\t';
+			}
+		}
+		plain.append(c);
+	}
+
+	/**
+	 * Decodes numeric entities, then named entities, removes spaces before new lines and replaces no-break spaces,
+	 * overwriting the converted text. Numeric entities are read from '&amp;' to the next ';'.
+	 */
+	private void decode() {
+		final int length = plain.length();
+		int written = 0;
+		lastDecodedNamedEntity = -1;
+		protectedSpaceEnd = 0;
+		int semicolon = plain.indexOf(";");
+		for (int read = 0; read < length;) {
+			final char c = plain.charAt(read);
+			if (c == '&' && semicolon >= 0 && semicolon < read) {
+				semicolon = plain.indexOf(";", read + 1);
+			}
+			final int entityEnd = c == '&' ? semicolon : -1;
+			if (entityEnd < 0) {
+				if (c == '&') {
+					if (read < length - 1) {
+						while (read < length) {
+							written = write(written, plain.charAt(read++));
+						}
+					}
+					break;
+				}
+				written = write(written, c);
+				read++;
+				continue;
+			}
+			final long code = parseNumericEntity(read + 1, entityEnd);
+			if (code != NOT_A_NUMBER) {
+				final char decoded = (char) code;
+				if (decoded >= ' ' || decoded == '\t' || decoded == '\r' || decoded == '\n') {
+					written = write(written, decoded);
+				}
+				else {
+					written = write(written, ' ');
+				}
+			}
+			else {
+				for (int i = read; i <= entityEnd; i++) {
+					written = write(written, plain.charAt(i));
+				}
+			}
+			read = entityEnd + 1;
+		}
+		plain.setLength(written);
+	}
+
+	private long parseNumericEntity(final int start, final int end) {
+		if (end - start < 2 || plain.charAt(start) != '#') {
+			return NOT_A_NUMBER;
+		}
+		if (plain.charAt(start + 1) == 'x') {
+			return parseInt(start + 2, end, 16);
+		}
+		return parseInt(start + 1, end, 10);
+	}
+
+	/** parses like {@link Integer#parseInt(String, int)} without creating a string */
+	private long parseInt(final int start, final int end, final int radix) {
+		if (start >= end) {
+			return NOT_A_NUMBER;
+		}
+		int i = start;
+		final char first = plain.charAt(i);
+		final boolean negative = first == '-';
+		if (first < '0') {
+			if (!negative && first != '+' || end - start == 1) {
+				return NOT_A_NUMBER;
+			}
+			i++;
+		}
+		final long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+		long value = 0;
+		for (; i < end; i++) {
+			final int digit = Character.digit(plain.charAt(i), radix);
+			if (digit < 0) {
+				return NOT_A_NUMBER;
+			}
+			value = value * radix + digit;
+			if (value > limit) {
+				return NOT_A_NUMBER;
+			}
+		}
+		return negative ? -value : value;
+	}
+
+	private int write(int position, final char c) {
+		if (c == '\u00a0') {
+			plain.setCharAt(position++, ' ');
+			protectedSpaceEnd = position;
+			return position;
+		}
+		if (c == '\n') {
+			while (position > protectedSpaceEnd && isSpaceOrTab(plain.charAt(position - 1))) {
+				position--;
+			}
+			lastDecodedNamedEntity = Math.min(lastDecodedNamedEntity, position - 1);
+		}
+		plain.setCharAt(position++, c);
+		if (c == ';') {
+			return decodeNamedEntity(position);
+		}
+		return position;
+	}
+
+	private static boolean isSpaceOrTab(final char c) {
+		return c == ' ' || c == '\t';
+	}
+
+	private int decodeNamedEntity(final int end) {
+		for (int i = 0; i < NAMED_ENTITIES.length; i++) {
+			final String entity = NAMED_ENTITIES[i];
+			final int start = end - entity.length();
+			if (start > lastDecodedNamedEntity && endsWith(start, entity)) {
+				plain.setCharAt(start, NAMED_ENTITY_CHARACTERS[i]);
+				lastDecodedNamedEntity = start;
+				return start + 1;
+			}
+		}
+		return end;
+	}
+
+	private boolean endsWith(final int start, final String lowerCaseEntity) {
+		for (int i = 0; i < lowerCaseEntity.length(); i++) {
+			final char c = plain.charAt(start + i);
+			final char expected = lowerCaseEntity.charAt(i);
+			if (c != expected && !(c >= 'A' && c <= 'Z' && c + ('a' - 'A') == expected)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
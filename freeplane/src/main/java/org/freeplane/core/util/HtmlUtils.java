@@ -42,6 +42,8 @@ import javax.swing.text.Element;
 import javax.swing.text.html.HTML;
 import javax.swing.text.html.HTMLDocument;
 
+import org.freeplane.core.util.collection.LruCache;
+
 /**
  * Utilities for conversion from/to HTML and XML used in Freeplane: In scripts available
  * as "global variable" <code>htmlUtils</code>.
@@ -87,12 +89,14 @@ public class HtmlUtils {
 
 	private static final Pattern FIND_TAGS_PATTERN = Pattern.compile("([^<]*)(<[^>]+>)");
 	private static final Pattern HTML_PATTERN = Pattern.compile("(?s)^\\s*<\\s*html[^>]*>.*", Pattern.CASE_INSENSITIVE);
-	private static Pattern[] PATTERNS;
 	private static HtmlUtils sInstance = new HtmlUtils();
 	private static final Pattern SLASHED_TAGS_PATTERN = Pattern.compile("<((" + "br|area|base|basefont|"
 	        + "bgsound|button|col|colgroup|embed|hr" + "|img|input|isindex|keygen|link|meta"
 	        + "|object|plaintext|spacer|wbr" + ")(\\s[^>]*)?)/>");
 	private static final Pattern TAGS_PATTERN = Pattern.compile("(?s)<[^><]*>");
+	/** Html converted from xhtml kept by its source, up to about 8 MB of characters for all maps. */
+	private static final long MAXIMUM_CONVERTED_HTML_LENGTH = 4_000_000;
+	private static final LruCache<String, String> convertedHtml = new LruCache<>(MAXIMUM_CONVERTED_HTML_LENGTH, String::length);
 
 	public static HtmlUtils getInstance() {
 		return HtmlUtils.sInstance;
@@ -135,61 +139,7 @@ public class HtmlUtils {
 		if (strictHTMLOnly && !HtmlUtils.isHtml(text)) {
 			return text;
 		}
-		if (PATTERNS == null) {
-			PATTERNS = new Pattern[] {
-					Pattern.compile("(?ims)>[\n\t]+"),
-					Pattern.compile("(?ims)[\n\t ]+"),
-			        Pattern.compile("(?ims)<br[^>]*>"),
-			        Pattern.compile("(?ims)<p[^>]*>\\s*"),
-			        Pattern.compile("(?ims)<div[^>]*>\\s*"),
-			        Pattern.compile("(?ims)<tr[^>]*>\\s*"),
-			        Pattern.compile("(?ims)<dt[^>]*>"),
-			        Pattern.compile("(?ims)<dd[^>]*>"),
-			        Pattern.compile("(?ims)<td[^>]*>"),
-			        Pattern.compile("(?ims)<[uo]l[^>]*>"),
-			        Pattern.compile("(?ims)<li[^>]*>"),
-			        Pattern.compile("(?ims) *</[^>]*>"),
-			        Pattern.compile("(?ims)<[^/][^>]*> *"),
-			        Pattern.compile("^\n+"),
-			        Pattern.compile("(?ims)&lt;"),
-			        Pattern.compile("(?ims)&gt;"),
-			        Pattern.compile("(?ims)&quot;"),
-			        Pattern.compile("(?ims)&nbsp;"),
-			        Pattern.compile("(?ims)&amp;"),
-			        Pattern.compile("(?ims)[ \t]+\n") };
-		}
-		String intermediate = text;
-		int i = 0;
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(">");
-		if (removeNewLines)
-			intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
-		else
-			i++;
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n   ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n   * ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
-		if (removeNewLines)
-			intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("");
-		else
-			i++;
-		intermediate = intermediate.trim();
-		intermediate = HtmlUtils.unescapeHTMLUnicodeEntity(intermediate);
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("<");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(">");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\"");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll(" ");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("&");
-		intermediate = PATTERNS[i++].matcher(intermediate).replaceAll("\n");
-		intermediate = intermediate.replace('\u00a0', ' ');
-		return intermediate;
+		return HtmlToPlainConverter.convert(text, removeNewLines);
 	}
 
 	@Deprecated
@@ -612,6 +562,19 @@ public class HtmlUtils {
 		return HtmlUtils.SLASHED_TAGS_PATTERN.matcher(xhtmlText).replaceAll("<$1>");
 	}
 
+	/**
+	 * Like {@link #toHtml(String)}, but keeps recently converted texts in a cache shared by all callers,
+	 * so that models keeping only xhtml do not convert it on each access.
+	 */
+	public static String toCachedHtml(final String xhtmlText) {
+		String html = convertedHtml.get(xhtmlText);
+		if (html == null) {
+			html = toHtml(xhtmlText);
+			convertedHtml.put(xhtmlText, html);
+		}
+		return html;
+	}
+
 
 	public static String objectToHtml(Object object) {
 		if(object == null)
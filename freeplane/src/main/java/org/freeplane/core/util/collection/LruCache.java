@@ -0,0 +1,58 @@
+package org.freeplane.core.util.collection;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Thread safe cache keeping the least recently used values up to a maximum total weight,
+ * e.g. the number of characters of cached strings. Values heavier than the maximum weight are not kept.
+ */
+public class LruCache<K, V> {
+	private final LinkedHashMap<K, V> values = new LinkedHashMap<K, V>(16, 0.75f, true);
+	private final ToIntFunction<? super V> weigher;
+	private final long maximumWeight;
+	private long weight = 0;
+
+	public LruCache(final long maximumWeight, final ToIntFunction<? super V> weigher) {
+		this.maximumWeight = maximumWeight;
+		this.weigher = weigher;
+	}
+
+	/** Creates a cache keeping up to the given number of values. */
+	public LruCache(final int maximumSize) {
+		this(maximumSize, value -> 1);
+	}
+
+	public synchronized V get(final K key) {
+		return values.get(key);
+	}
+
+	public synchronized void put(final K key, final V value) {
+		final int valueWeight = weigher.applyAsInt(value);
+		final V oldValue = valueWeight <= maximumWeight ? values.put(key, value) : values.remove(key);
+		if (oldValue != null) {
+			weight -= weigher.applyAsInt(oldValue);
+		}
+		if (valueWeight > maximumWeight) {
+			return;
+		}
+		weight += valueWeight;
+		final Iterator<Map.Entry<K, V>> iterator = values.entrySet().iterator();
+		while (weight > maximumWeight && iterator.hasNext()) {
+			final Map.Entry<K, V> eldest = iterator.next();
+			weight -= weigher.applyAsInt(eldest.getValue());
+			iterator.remove();
+		}
+	}
+
+	public synchronized void clear() {
+		values.clear();
+		weight = 0;
+	}
+
+	public synchronized int size() {
+		return values.size();
+	}
+}
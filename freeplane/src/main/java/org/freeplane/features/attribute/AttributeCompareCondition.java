@@ -126,4 +126,9 @@ public class AttributeCompareCondition extends CompareConditionAdapter {
     protected String getName() {
 	    return NAME;
     }
+
+	@Override
+	public boolean checksNodeContentOnly() {
+		return true;
+	}
 }
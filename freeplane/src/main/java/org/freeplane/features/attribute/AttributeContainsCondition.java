@@ -117,4 +117,9 @@ public class AttributeContainsCondition extends StringConditionAdapter {
     protected String conditionValue() {
         return comparedValue;
     }
+
+	@Override
+	public boolean checksNodeContentOnly() {
+		return true;
+	}
 }
@@ -81,4 +81,9 @@ public class AttributeExistsCondition extends ASelectableCondition {
     protected String getName() {
 	    return NAME;
     }
+
+	@Override
+	public boolean checksNodeContentOnly() {
+		return true;
+	}
 }
@@ -115,4 +115,8 @@ public class AttributeMatchesCondition extends ASelectableCondition {
         return (searchPattern.flags() & Pattern.CASE_INSENSITIVE) == 0;
     }
 
+	@Override
+	public boolean checksNodeContentOnly() {
+		return true;
+	}
 }
@@ -79,4 +79,9 @@ public class AttributeNotExistsCondition extends ASelectableCondition {
     protected String getName() {
 	    return NAME;
     }
+
+	@Override
+	public boolean checksNodeContentOnly() {
+		return true;
+	}
 }
@@ -21,6 +21,7 @@ package org.freeplane.features.edge;
 
 import java.awt.Color;
 import java.util.Collection;
+import java.util.function.BiFunction;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.io.ReadManager;
@@ -41,6 +42,7 @@ import org.freeplane.features.styles.IStyle;
 import org.freeplane.features.styles.LogicalStyleController;
 import org.freeplane.features.styles.LogicalStyleController.StyleOption;
 import org.freeplane.features.styles.MapStyleModel;
+import org.freeplane.features.styles.ResolvedStyles;
 
 /**
  * @author Dimitry Polivaev
@@ -61,6 +63,11 @@ public class EdgeController implements IExtension {
 		Controller.getCurrentModeController().addExtension(EdgeController.class, edgeController);
 	}
 
+	private static final ResolvedStyles.Property<ObjectRule<Color, Rules>> COLOR_RULE = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<EdgeStyle> STYLE = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Integer> WIDTH = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<DashVariant> DASH = new ResolvedStyles.Property<>();
+
 	final private ExclusivePropertyChain<ObjectRule<Color, Rules>, NodeModel> colorHandlers;
 // 	private final ModeController modeController;
 	final private ExclusivePropertyChain<EdgeStyle, NodeModel> styleHandlers;
@@ -184,6 +191,11 @@ public class EdgeController implements IExtension {
 		return dashHandlers.addGetter(key, getter);
 	}
 
+	private <V> V getResolvedProperty(final NodeModel node, final StyleOption option,
+	                                  final ResolvedStyles.Property<V> property, final BiFunction<NodeModel, StyleOption, V> resolver) {
+		return LogicalStyleController.getController(modeController).getResolvedProperty(node, option, property, resolver);
+	}
+
 	public Color getColor(final NodeModel node, StyleOption option) {
 		return getColor(node, true, option);
 	}
@@ -201,7 +213,7 @@ public class EdgeController implements IExtension {
     }
 
 	public ObjectRule<Color, Rules> getColorRule(final NodeModel node, StyleOption option) {
-		final ObjectRule<Color, Rules> color = colorHandlers.getProperty(node, option);
+		final ObjectRule<Color, Rules> color = getResolvedProperty(node, option, COLOR_RULE, colorHandlers::getProperty);
 		return color;
 	}
 
@@ -210,7 +222,7 @@ public class EdgeController implements IExtension {
 	}
 
 	public EdgeStyle getStyle(final NodeModel node, StyleOption option, final boolean resolveParent) {
-	    final EdgeStyle style = styleHandlers.getProperty(node, option);
+	    final EdgeStyle style = getResolvedProperty(node, option, STYLE, styleHandlers::getProperty);
 		if(style == null && resolveParent)
 			return getStyle(node.getParentNode(), option);
 		return style;
@@ -221,7 +233,7 @@ public class EdgeController implements IExtension {
 	}
 
 	public Integer getWidth(final NodeModel node, StyleOption option, final boolean resolveParent) {
-	    final Integer width = widthHandlers.getProperty(node, option);
+	    final Integer width = getResolvedProperty(node, option, WIDTH, widthHandlers::getProperty);
 		if(width == null && resolveParent)
 			return getWidth(node.getParentNode(), option);
 		return width;
@@ -232,7 +244,7 @@ public class EdgeController implements IExtension {
 	}
 
 	public DashVariant getDash(NodeModel node, StyleOption option, final boolean resolveParent) {
-	    final DashVariant dash = dashHandlers.getProperty(node, option);
+	    final DashVariant dash = getResolvedProperty(node, option, DASH, dashHandlers::getProperty);
 		if(dash == null && resolveParent)
 			return getDash(node.getParentNode(), option);
 		return dash;
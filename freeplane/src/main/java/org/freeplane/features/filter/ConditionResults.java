@@ -0,0 +1,93 @@
+package org.freeplane.features.filter;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeCache;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Results of conditions which check only the content of the node, kept for the nodes of a map,
+ * so that calculating all results of a filter again evaluates its condition only for nodes changed in the meantime
+ * and costs one lookup for each other node.
+ * Reapplying a filter updates its results only for changed nodes, see {@link FilterResultChanges}.
+ * <p>
+ * Results are removed as described in {@link NodeCache}, but kept on changes of the map structure.
+ * Only results of the recently applied conditions are kept.
+ */
+public class ConditionResults extends NodeCache {
+	private static final int MAXIMUM_CONDITION_COUNT = 4;
+
+	/** Results of one condition. */
+	static class Table {
+		final private ICondition condition;
+		final private Map<NodeModel, Boolean> results = new WeakHashMap<NodeModel, Boolean>();
+
+		private Table(final ICondition condition) {
+			this.condition = condition;
+		}
+
+		boolean checkNode(final NodeModel node) {
+			synchronized (results) {
+				final Boolean result = results.get(node);
+				if (result != null) {
+					return result;
+				}
+			}
+			final boolean result = condition.checkNode(node);
+			synchronized (results) {
+				results.put(node, result);
+			}
+			return result;
+		}
+	}
+
+	static Table getTable(final MapModel map, final ICondition condition) {
+		return of(map, ConditionResults.class, ConditionResults::new).getTable(condition);
+	}
+
+	final private LinkedList<Table> tables = new LinkedList<Table>();
+
+	private ConditionResults() {
+	}
+
+	private synchronized Table getTable(final ICondition condition) {
+		clearIfInvalidated();
+		for (final Iterator<Table> iterator = tables.iterator(); iterator.hasNext();) {
+			final Table table = iterator.next();
+			if (table.condition == condition) {
+				iterator.remove();
+				tables.addFirst(table);
+				return table;
+			}
+		}
+		final Table table = new Table(condition);
+		tables.addFirst(table);
+		if (tables.size() > MAXIMUM_CONDITION_COUNT) {
+			tables.removeLast();
+		}
+		return table;
+	}
+
+	@Override
+	protected void structureChanged(final NodeModel parent, final NodeModel child) {
+	}
+
+	@Override
+	protected synchronized void removeNode(final NodeModel node) {
+		for (final Table table : tables) {
+			synchronized (table.results) {
+				table.results.remove(node);
+			}
+		}
+	}
+
+	@Override
+	protected synchronized void clear() {
+		tables.clear();
+	}
+}
@@ -19,8 +19,10 @@
  */
 package org.freeplane.features.filter;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
-import java.util.WeakHashMap;
 
 import javax.swing.Icon;
 
@@ -31,6 +33,7 @@ import org.freeplane.features.filter.hidden.NodeVisibility;
 import org.freeplane.features.filter.hidden.NodeVisibilityConfiguration;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeOrdinals;
 import org.freeplane.features.mode.Controller;
 
 /**
@@ -43,13 +46,74 @@ public class Filter implements IExtension {
 		return new Filter(null, false, resourceController.getBooleanProperty("filter.showAncestors"), resourceController.getBooleanProperty("filter.showDescendants"), false, null);
 	}
 
-	static class FilterInfoAccessor {
-	    private final WeakHashMap<NodeModel, FilterInfo> filterInfos = new WeakHashMap<>();
+	/**
+	 * Filter results of the nodes of one map stored by node ordinals.
+	 * It references the nodes and the map only weakly, so that filters kept in the filter history
+	 * do not prevent removed nodes and closed maps from being garbage collected.
+	 * Results of deleted nodes are cleared when their ordinals are released.
+	 * Nodes of other maps are reported as not checked.
+	 */
+	static class FilterInfoAccessor implements NodeOrdinals.Data {
+		private static final byte[] NO_INFOS = new byte[0];
+		private WeakReference<MapModel> mapReference;
+		private byte[] filterInfos = NO_INFOS;
+		/** {@link FilterResultChanges} count when the results were calculated, negative if they can not be updated */
+		private int changeCount = -1;
+		/** node whose result has been reset after the calculation */
+		private WeakReference<NodeModel> resetNode;
+
+		FilterInfo getFilterInfo(final NodeModel node) {
+			return FilterInfo.valueOf(getInfo(node));
+		}
+
+		/** Stored value 0 stands for the initial value which is never the result of adding flags. */
+		int getInfo(final NodeModel node) {
+			final int ordinal = ordinal(node);
+			final int info = ordinal >= 0 && ordinal < filterInfos.length ? filterInfos[ordinal] : 0;
+			return info != 0 ? info : FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE;
+		}
 
-	    FilterInfo getFilterInfo(NodeModel node) {
-	        return filterInfos.computeIfAbsent(node, x -> new FilterInfo());
-	    }
+		void setInfo(final NodeModel node, final int info) {
+			final int ordinal = ordinal(node);
+			if (ordinal < 0) {
+				return;
+			}
+			if (ordinal >= filterInfos.length) {
+				final int mapNodeCount = node.getMap().getNodeOrdinalCount();
+				filterInfos = Arrays.copyOf(filterInfos, Math.max(mapNodeCount, 2 * filterInfos.length));
+			}
+			filterInfos[ordinal] = (byte) (info == FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE ? 0 : info);
+		}
+
+		void addInfo(final NodeModel node, final int flag) {
+			setInfo(node, FilterInfo.add(getInfo(node), flag));
+		}
 
+		@Override
+		public void clear(final int ordinal) {
+			if (ordinal < filterInfos.length) {
+				filterInfos[ordinal] = 0;
+			}
+		}
+
+		boolean belongsTo(final MapModel map) {
+			return mapReference != null && mapReference.get() == map;
+		}
+
+		private int ordinal(final NodeModel node) {
+			final MapModel map = node.getMap();
+			if (map == null) {
+				return -1;
+			}
+			if (mapReference == null) {
+				mapReference = new WeakReference<>(map);
+				map.getNodeOrdinals().addData(this);
+			}
+			else if (mapReference.get() != map) {
+				return -1;
+			}
+			return node.getOrdinal();
+		}
 	}
 
 	static public Filter createFilter(final ICondition condition, final boolean areAncestorsShown,
@@ -58,7 +122,9 @@ public class Filter implements IExtension {
 	}
 
 	final private ICondition condition;
+	final private boolean keepsConditionResults;
 	final int options;
+	private ConditionResults.Table conditionResults;
 
 	private FilterInfoAccessor accessor;
     private final boolean hidesMatchingNodes;
@@ -69,6 +135,7 @@ public class Filter implements IExtension {
 	              final boolean areDescendantsShown, final boolean appliesToVisibleNodesOnly, Filter baseFilter) {
 		super();
 		this.condition = condition;
+		this.keepsConditionResults = condition != null && condition.checksNodeContentOnly();
         this.hidesMatchingNodes = hidesMatchingNodes;
         this.appliesToVisibleNodesOnly = appliesToVisibleNodesOnly;
 		this.accessor = new FilterInfoAccessor();
@@ -85,7 +152,7 @@ public class Filter implements IExtension {
 	}
 
 	void addFilterResult(final NodeModel node, final int flag) {
-		getFilterInfo(node).add(flag);
+		accessor.addInfo(node, flag);
 	}
 
 	protected boolean appliesToVisibleNodesOnly() {
@@ -109,23 +176,179 @@ public class Filter implements IExtension {
 	public void calculateFilterResults(final MapModel map) {
 	    this.accessor = new FilterInfoAccessor();
 		final NodeModel root = map.getRootNode();
-		resetFilter(root);
-		boolean rootSatisfiesFilter = checkNode(root);
-		if (filterChildren(root, rootSatisfiesFilter, false)) {
-			addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		if (canUpdateFilterResults()) {
+			accessor.changeCount = FilterResultChanges.of(map).getChangeCount();
+		}
+		useConditionResults(map);
+		try {
+			clearFilterResult(root);
+			boolean rootSatisfiesFilter = checkNode(root);
+			if (filterChildren(root, rootSatisfiesFilter, false)) {
+				addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+			}
+		}
+		finally {
+			conditionResults = null;
 		}
 	}
 
 	public void calculateFilterResults(final NodeModel root) {
 	    this.accessor = new FilterInfoAccessor();
-	    if(applyFilter(root, false, false, false))
-	    	addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		useConditionResults(root.getMap());
+		try {
+			if(applyFilter(root, false, false, false))
+				addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		}
+		finally {
+			conditionResults = null;
+		}
+	}
+
+	/**
+	 * Calculates the results like {@link #calculateFilterResults(MapModel)}.
+	 * If the old filter has the same condition checking only node content, its results are used
+	 * and calculated again only for the nodes changed since their calculation,
+	 * propagating the changes to their ancestors and descendants.
+	 */
+	public void calculateFilterResults(final MapModel map, final Filter oldFilter) {
+		if (oldFilter != null && canUpdateFilterResults() && oldFilter.canUpdateFilterResults()
+		        && canUseFilterResultsFrom(oldFilter)) {
+			accessor = oldFilter.accessor;
+			if (updateFilterResults(map)) {
+				return;
+			}
+		}
+		calculateFilterResults(map);
+	}
+
+	private boolean canUpdateFilterResults() {
+		return keepsConditionResults && !appliesToVisibleNodesOnly;
+	}
+
+	/** Returns false without changing the results if they can not be updated. */
+	private boolean updateFilterResults(final MapModel map) {
+		if (accessor.changeCount < 0 || !accessor.belongsTo(map)) {
+			return false;
+		}
+		final NodeModel root = map.getRootNode();
+		final FilterResultChanges filterResultChanges = FilterResultChanges.of(map);
+		final int changeCount = filterResultChanges.getChangeCount();
+		final List<FilterResultChanges.Change> changes = filterResultChanges.getChangesSince(accessor.changeCount);
+		if (changes == null) {
+			return false;
+		}
+		for (final FilterResultChanges.Change change : changes) {
+			if (change.kind == FilterResultChanges.Kind.NODE && change.getNode() == root) {
+				return false;
+			}
+		}
+		useConditionResults(map);
+		try {
+			final boolean rootSatisfiesFilter = checkNode(root);
+			final NodeModel resetNode = accessor.resetNode != null ? accessor.resetNode.get() : null;
+			accessor.resetNode = null;
+			if (resetNode != null && isInMap(resetNode, root)) {
+				calculateFilterResult(resetNode, rootSatisfiesFilter);
+			}
+			for (final FilterResultChanges.Change change : changes) {
+				final NodeModel node = change.getNode();
+				if (node != null && isInMap(node, root)) {
+					updateFilterResults(node, change.kind, rootSatisfiesFilter);
+				}
+			}
+			accessor.changeCount = changeCount;
+		}
+		finally {
+			conditionResults = null;
+		}
+		return true;
+	}
+
+	private static boolean isInMap(final NodeModel node, final NodeModel root) {
+		return node == root || node.isDescendantOf(root);
+	}
+
+	private void updateFilterResults(final NodeModel node, final FilterResultChanges.Kind kind,
+	                                 final boolean rootSatisfiesFilter) {
+		if (kind == FilterResultChanges.Kind.CHILDREN) {
+			updateAncestorResults(node);
+		}
+		else if (kind == FilterResultChanges.Kind.BRANCH || hasMatchChanged(node)) {
+			applyFilter(node, hasMatchingAncestor(node, rootSatisfiesFilter), false, false);
+			updateAncestorResults(node.getParentNode());
+		}
+	}
+
+	private boolean hasMatchChanged(final NodeModel node) {
+		final int info = accessor.getInfo(node);
+		final boolean wasChecked = (info & FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE) == 0;
+		final boolean wasMatched = (info & FilterInfo.FILTER_SHOW_AS_MATCHED) != 0;
+		return !wasChecked || wasMatched != checkCondition(node);
+	}
+
+	/** Calculates the result of the node from its condition and the results of its parents and children. */
+	private void calculateFilterResult(final NodeModel node, final boolean rootSatisfiesFilter) {
+		clearFilterResult(node);
+		if (!node.isRoot()) {
+			if (hasMatchingAncestor(node, rootSatisfiesFilter)) {
+				addFilterResult(node, FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+			}
+			addFilterResult(node, checkCondition(node) ? FilterInfo.FILTER_SHOW_AS_MATCHED : FilterInfo.FILTER_SHOW_AS_HIDDEN);
+		}
+		if (hasMatchingDescendant(node)) {
+			addFilterResult(node, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		}
+	}
+
+	/** Updates the ancestor flags from the node up to the first ancestor whose flag does not change. */
+	private void updateAncestorResults(final NodeModel node) {
+		for (NodeModel ancestor = node; ancestor != null; ancestor = ancestor.getParentNode()) {
+			final int info = accessor.getInfo(ancestor);
+			final int updatedInfo = hasMatchingDescendant(ancestor)
+			        ? FilterInfo.add(info, FilterInfo.FILTER_SHOW_AS_ANCESTOR)
+			        : info & ~FilterInfo.FILTER_SHOW_AS_ANCESTOR;
+			if (updatedInfo == info) {
+				break;
+			}
+			accessor.setInfo(ancestor, updatedInfo);
+		}
+	}
+
+	/** The root is never marked as matched, whether it satisfies the filter is passed by the caller instead. */
+	private boolean hasMatchingAncestor(final NodeModel node, final boolean rootSatisfiesFilter) {
+		for (NodeModel ancestor = node.getParentNode(); ancestor != null; ancestor = ancestor.getParentNode()) {
+			if (ancestor.isRoot()) {
+				return rootSatisfiesFilter;
+			}
+			if ((accessor.getInfo(ancestor) & FilterInfo.FILTER_SHOW_AS_MATCHED) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean hasMatchingDescendant(final NodeModel node) {
+		for (final NodeModel child : node.getChildren()) {
+			if ((accessor.getInfo(child) & (FilterInfo.FILTER_SHOW_AS_MATCHED | FilterInfo.FILTER_SHOW_AS_ANCESTOR)) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Conditions checking only node content are evaluated again only for nodes changed since their last evaluation. */
+	private void useConditionResults(final MapModel map) {
+		conditionResults = keepsConditionResults && map != null ? ConditionResults.getTable(map, condition) : null;
+	}
+
+	private boolean checkCondition(final NodeModel node) {
+		return conditionResults != null ? conditionResults.checkNode(node) : condition.checkNode(node);
 	}
 
 	private boolean applyFilter(final NodeModel node,
 	                            final boolean hasMatchingAncestor, final boolean hasHiddenAncestor,
 	                            boolean hasMatchingDescendant) {
-		final boolean conditionSatisfied =  (condition == null || condition.checkNode(node));
+		final boolean conditionSatisfied =  (condition == null || checkCondition(node));
 		final boolean matchesCombinedFilter;
 		if(appliesToVisibleNodesOnly()) {
 		    matchesCombinedFilter = conditionSatisfied  && baseFilter.isVisible(node);
@@ -133,7 +356,7 @@ public class Filter implements IExtension {
 		else {
 		    matchesCombinedFilter = conditionSatisfied;
 		}
-		resetFilter(node);
+		clearFilterResult(node);
 		if (hasMatchingAncestor) {
 			addFilterResult(node, FilterInfo.FILTER_SHOW_AS_DESCENDANT);
 		}
@@ -176,7 +399,7 @@ public class Filter implements IExtension {
 	}
 
 	private boolean checkNode(final NodeModel node) {
-		return condition == null || ! shouldRemainInvisible(node) && condition.checkNode(node);
+		return condition == null || ! shouldRemainInvisible(node) && checkCondition(node);
 	}
 
 	private boolean shouldRemainInvisible(final NodeModel node) {
@@ -219,25 +442,33 @@ public class Filter implements IExtension {
 		if (condition == null || node.isRoot()) {
 			return true;
 		}
-		FilterInfo filterInfo = getFilterInfo(node);
-        return filterInfo.isNotChecked() || filterInfo.matches(this.options) != hidesMatchingNodes;
+		final int filterInfo = accessor.getInfo(node);
+        return (filterInfo & FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE) != 0
+                || ((filterInfo & this.options) != 0) != hidesMatchingNodes;
 	}
 
+	/** Makes the node visible until the results are calculated again. */
 	void resetFilter(final NodeModel node) {
-		getFilterInfo(node).reset();
+		clearFilterResult(node);
+		accessor.resetNode = new WeakReference<>(node);
+	}
+
+	private void clearFilterResult(final NodeModel node) {
+		accessor.setInfo(node, FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
+	/** Returns the filter result of the node, a shared instance which does not change with the result. */
 	public FilterInfo getFilterInfo(final NodeModel node) {
 		return accessor.getFilterInfo(node);
 	}
 
     public void showAsMatched(NodeModel node) {
-        FilterInfo filterInfo = getFilterInfo(node);
-        if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_MATCHED)) {
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_MATCHED);
-            if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR))
+        final int filterInfo = accessor.getInfo(node);
+        if((filterInfo & FilterInfo.FILTER_SHOW_AS_MATCHED) == 0) {
+            addFilterResult(node, FilterInfo.FILTER_SHOW_AS_MATCHED);
+            if((filterInfo & FilterInfo.FILTER_SHOW_AS_ANCESTOR) == 0)
                 showAncestors(node);
-            if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_DESCENDANT))
+            if((filterInfo & FilterInfo.FILTER_SHOW_AS_DESCENDANT) == 0)
                 showDescendants(node);
         }
     }
@@ -246,17 +477,15 @@ public class Filter implements IExtension {
         NodeModel parent = node.getParentNode();
         if(parent == null)
             return;
-        FilterInfo filterInfo = getFilterInfo(parent);
-        if(! filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR)) {
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+        if((accessor.getInfo(parent) & FilterInfo.FILTER_SHOW_AS_ANCESTOR) == 0) {
+            addFilterResult(parent, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
             showAncestors(parent);
         }
     }
 
     private void showDescendants(NodeModel node) {
         for (NodeModel child : node.getChildren()) {
-            FilterInfo filterInfo = getFilterInfo(child);
-            filterInfo.add(FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+            addFilterResult(child, FilterInfo.FILTER_SHOW_AS_DESCENDANT);
             showDescendants(child);
         }
     }
@@ -430,7 +430,7 @@ public class FilterController implements IExtension, IMapViewChangeListener {
         else {
             Filter oldFilter = map.putExtension(Filter.class, filter);
             if (oldFilter == null || force || !filter.canUseFilterResultsFrom(oldFilter)) {
-                filter.calculateFilterResults(map);
+                filter.calculateFilterResults(map, oldFilter);
         		NodeModel selectionRoot = selection.getSelectionRoot();
 				if(! selectionRoot.isRoot())
         			filter.resetFilter(selectionRoot);
@@ -448,7 +448,7 @@ public class FilterController implements IExtension, IMapViewChangeListener {
             	selection.setFilter(filter);
             	MapModel map = selection.getSelected().getMap();
                 if (force || !filter.canUseFilterResultsFrom(oldFilter)) {
-            		filter.calculateFilterResults(map);
+            		filter.calculateFilterResults(map, oldFilter);
             		NodeModel selectionRoot = selection.getSelectionRoot();
 					if(! selectionRoot.isRoot())
             			filter.resetFilter(selectionRoot);
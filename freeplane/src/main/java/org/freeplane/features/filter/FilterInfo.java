@@ -28,24 +28,35 @@ public class FilterInfo {
 	static final int FILTER_SHOW_AS_ANCESTOR = 4;
 	static final int FILTER_SHOW_AS_DESCENDANT = 8;
 	static final int FILTER_SHOW_AS_HIDDEN = 16;
-	
-	static public final FilterInfo TRANSPARENT = new FilterInfo(FILTER_SHOW_AS_MATCHED);
-	
-	private int info;
+	private static final FilterInfo[] INSTANCES = new FilterInfo[2 * FILTER_SHOW_AS_HIDDEN];
+	static {
+		for (int info = 0; info < INSTANCES.length; info++) {
+			INSTANCES[info] = new FilterInfo(info);
+		}
+	}
+
+	static public final FilterInfo TRANSPARENT = valueOf(FILTER_SHOW_AS_MATCHED);
+
+	final private int info;
 
     public FilterInfo() {
         this(FILTER_SHOW_AS_INITIAL_VALUE);
     }
-    
+
     private FilterInfo(int info) {
         this.info = info;
     }
 
-	void add(final int flag) {
+	/** Returns the shared instance for the combination of flags. */
+	static FilterInfo valueOf(final int info) {
+		return INSTANCES[info];
+	}
+
+	static int add(final int info, final int flag) {
 		if ((flag & (FILTER_SHOW_AS_MATCHED | FILTER_SHOW_AS_HIDDEN)) != 0) {
-			info &= ~FILTER_SHOW_AS_INITIAL_VALUE;
+			return (info & ~FILTER_SHOW_AS_INITIAL_VALUE) | flag;
 		}
-		info |= flag;
+		return info | flag;
 	}
 
 	/**
@@ -60,10 +71,6 @@ public class FilterInfo {
 		return (info & FILTER_SHOW_AS_MATCHED) != 0;
 	}
 
-	public void reset() {
-		info = FILTER_SHOW_AS_INITIAL_VALUE;
-	}
-
 	boolean matches(final int filterOptions) {
 		return (filterOptions & info) != 0;
 	}
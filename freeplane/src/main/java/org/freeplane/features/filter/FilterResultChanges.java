@@ -0,0 +1,98 @@
+package org.freeplane.features.filter;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeCache;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Changes of the nodes of a map in the order they were made,
+ * so that filter results calculated before can be updated only for the changed nodes.
+ * <p>
+ * Filter results remember the change count at their calculation and request the changes made since then.
+ * Changes are forgotten on the events removing all values described in {@link NodeCache}
+ * and when more than {@link #MAXIMUM_CHANGE_COUNT} changes are recorded,
+ * so that results calculated before have to be calculated again.
+ */
+class FilterResultChanges extends NodeCache {
+	static final int MAXIMUM_CHANGE_COUNT = 1024;
+
+	enum Kind {
+		/** the content of the node has changed */
+		NODE,
+		/** the branch has been inserted or moved */
+		BRANCH,
+		/** a child of the node has been inserted, removed or moved */
+		CHILDREN
+	}
+
+	static class Change {
+		final private WeakReference<NodeModel> node;
+		final Kind kind;
+
+		private Change(final NodeModel node, final Kind kind) {
+			this.node = new WeakReference<>(node);
+			this.kind = kind;
+		}
+
+		/** Returns null if the node has been garbage collected meanwhile. */
+		NodeModel getNode() {
+			return node.get();
+		}
+	}
+
+	static FilterResultChanges of(final MapModel map) {
+		return of(map, FilterResultChanges.class, FilterResultChanges::new);
+	}
+
+	final private List<Change> changes = new ArrayList<>();
+	private int changeCount = 0;
+	private int firstKnownChange = 0;
+
+	private FilterResultChanges() {
+	}
+
+	synchronized int getChangeCount() {
+		clearIfInvalidated();
+		return changeCount;
+	}
+
+	/** Returns the changes made since the change count was returned, or null if they are no longer known. */
+	synchronized List<Change> getChangesSince(final int changeCount) {
+		clearIfInvalidated();
+		if (changeCount < firstKnownChange || changeCount > this.changeCount) {
+			return null;
+		}
+		return new ArrayList<>(changes.subList(changeCount - firstKnownChange, changes.size()));
+	}
+
+	private void add(final NodeModel node, final Kind kind) {
+		clearIfInvalidated();
+		if (changes.size() >= MAXIMUM_CHANGE_COUNT) {
+			clear();
+		}
+		changes.add(new Change(node, kind));
+		changeCount++;
+	}
+
+	@Override
+	protected synchronized void removeNode(final NodeModel node) {
+		add(node, Kind.NODE);
+	}
+
+	@Override
+	protected synchronized void structureChanged(final NodeModel parent, final NodeModel child) {
+		add(child, Kind.BRANCH);
+		add(parent, Kind.CHILDREN);
+	}
+
+	@Override
+	protected synchronized void clear() {
+		changes.clear();
+		changeCount++;
+		firstKnownChange = changeCount;
+	}
+}
@@ -36,6 +36,11 @@ import java.util.Stack;
  * 
  * Some properties are explained in the unit test, {@link org.freeplane.features.filter.EditDistanceStringMatchingStrategiesTest}.
  * 
+ * The distance of search terms up to 64 characters is computed with the bit-parallel algorithm
+ * of Myers extended to transpositions by Hyyro, longer search terms only keep the last three
+ * columns of the matrix. Both use buffers of the calling thread, so {@link #matches} does not allocate memory
+ * and can be called concurrently. Only {@link #computeAlignments} computes the complete matrix.
+ * 
  * TODO: use unicode code points instead of chars !!
  * (but neither simplyhtml nor freeplane are currently codepoint-safe...)
  * 
@@ -43,6 +48,77 @@ import java.util.Stack;
  *
  */
 public class PseudoDamerauLevenshtein implements EditDistanceStringMatchingStrategy {
+	private static final int MAX_BIT_PARALLEL_TERM_LENGTH = Long.SIZE;
+	private static final int ASCII_TABLE_SIZE = 256;
+	private static final char WILDCARD = '-';
+
+	/** per thread buffers for the computation of distances */
+	private static class Buffers {
+		/** match masks of the search term characters below ASCII_TABLE_SIZE */
+		final long[] asciiMasks = new long[ASCII_TABLE_SIZE];
+		/** other search term characters and their match masks */
+		final char[] otherCharacters = new char[MAX_BIT_PARALLEL_TERM_LENGTH];
+		final long[] otherMasks = new long[MAX_BIT_PARALLEL_TERM_LENGTH];
+		int otherCharacterCount;
+		int[] previousColumn = new int[0];
+		int[] column = new int[0];
+		int[] nextColumn = new int[0];
+
+		long mask(final char c) {
+			if (c < ASCII_TABLE_SIZE)
+				return asciiMasks[c];
+			for (int i = 0; i < otherCharacterCount; i++) {
+				if (otherCharacters[i] == c)
+					return otherMasks[i];
+			}
+			return 0;
+		}
+
+		void initializeMasks(final String searchTerm) {
+			for (int i = 0; i < searchTerm.length(); i++) {
+				final char c = searchTerm.charAt(i);
+				final long bit = 1L << i;
+				if (c < ASCII_TABLE_SIZE)
+					asciiMasks[c] |= bit;
+				else
+					addOtherMask(c, bit);
+			}
+			asciiMasks[WILDCARD] = -1L;
+		}
+
+		private void addOtherMask(final char c, final long bit) {
+			for (int i = 0; i < otherCharacterCount; i++) {
+				if (otherCharacters[i] == c) {
+					otherMasks[i] |= bit;
+					return;
+				}
+			}
+			otherCharacters[otherCharacterCount] = c;
+			otherMasks[otherCharacterCount] = bit;
+			otherCharacterCount++;
+		}
+
+		void clearMasks(final String searchTerm) {
+			for (int i = 0; i < searchTerm.length(); i++) {
+				final char c = searchTerm.charAt(i);
+				if (c < ASCII_TABLE_SIZE)
+					asciiMasks[c] = 0;
+			}
+			asciiMasks[WILDCARD] = 0;
+			otherCharacterCount = 0;
+		}
+
+		void ensureColumnLength(final int length) {
+			if (column.length < length) {
+				previousColumn = new int[length];
+				column = new int[length];
+				nextColumn = new int[length];
+			}
+		}
+	}
+
+	private static final ThreadLocal<Buffers> buffers = ThreadLocal.withInitial(Buffers::new);
+
 	private int[][] matrix;
 	private String searchTerm;
 	private String searchText;
@@ -212,6 +288,94 @@ public class PseudoDamerauLevenshtein implements EditDistanceStringMatchingStrat
 	}
 	
 	public int distance() {
+		return distance(searchTerm, searchText, type);
+	}
+
+	/** Computes the distance like {@link #computeMatrix()} without keeping the matrix. */
+	static int distance(final String searchTerm, final String searchText, final Type type) {
+		if (searchTerm.isEmpty())
+			return type == Type.Global ? searchText.length() : 0;
+		if (searchTerm.length() <= MAX_BIT_PARALLEL_TERM_LENGTH)
+			return bitParallelDistance(searchTerm, searchText, type);
+		else
+			return columnwiseDistance(searchTerm, searchText, type);
+	}
+
+	/**
+	 * Bit i of the vectors stands for row i+1 of the matrix in the current column:
+	 * positive and negative vertical deltas (pv, mv), horizontal deltas (ph, mh),
+	 * zero diagonal deltas (d0) and search term characters matching the text character (pm).
+	 * Transpositions (tr) make a diagonal delta zero if the diagonal delta of the previous row and column is positive
+	 * and both characters match crosswise.
+	 */
+	private static int bitParallelDistance(final String searchTerm, final String searchText, final Type type) {
+		final Buffers buffers = PseudoDamerauLevenshtein.buffers.get();
+		buffers.initializeMasks(searchTerm);
+		try {
+			final long lastRowBit = 1L << (searchTerm.length() - 1);
+			final long firstRowHorizontalDelta = type == Type.Global ? 1 : 0;
+			long pv = -1L;
+			long mv = 0;
+			long d0 = 0;
+			long previousPm = 0;
+			int score = searchTerm.length();
+			int minScore = score;
+			for (int j = 0; j < searchText.length(); j++) {
+				final long pm = buffers.mask(searchText.charAt(j));
+				final long tr = (((~d0) & pm) << 1) & previousPm;
+				d0 = (((pm & pv) + pv) ^ pv) | pm | mv | tr;
+				long ph = mv | ~(d0 | pv);
+				long mh = d0 & pv;
+				if ((ph & lastRowBit) != 0)
+					score++;
+				else if ((mh & lastRowBit) != 0)
+					score--;
+				ph = (ph << 1) | firstRowHorizontalDelta;
+				mh <<= 1;
+				pv = mh | ~(d0 | ph);
+				mv = ph & d0;
+				previousPm = pm;
+				minScore = Math.min(minScore, score);
+			}
+			return type == Type.Global ? score : minScore;
+		}
+		finally {
+			buffers.clearMasks(searchTerm);
+		}
+	}
+
+	private static int columnwiseDistance(final String searchTerm, final String searchText, final Type type) {
+		final int rowCount = searchTerm.length() + 1;
+		final Buffers buffers = PseudoDamerauLevenshtein.buffers.get();
+		buffers.ensureColumnLength(rowCount);
+		int[] previousColumn = buffers.previousColumn;
+		int[] column = buffers.column;
+		int[] nextColumn = buffers.nextColumn;
+		for (int i = 0; i < rowCount; i++)
+			column[i] = i;
+		int minLastRow = column[rowCount - 1];
+		for (int j = 1; j <= searchText.length(); j++) {
+			final char textChar = searchText.charAt(j - 1);
+			nextColumn[0] = type == Type.Global ? j : 0;
+			for (int i = 1; i < rowCount; i++) {
+				final char termChar = searchTerm.charAt(i - 1);
+				final int costTryMatch = column[i - 1] + (termChar == textChar || textChar == WILDCARD ? 0 : 1);
+				int cost = Math.min(costTryMatch, Math.min(nextColumn[i - 1] + 1, column[i] + 1));
+				if (i >= 2 && j >= 2 && searchTerm.charAt(i - 2) == textChar && termChar == searchText.charAt(j - 2))
+					cost = Math.min(cost, previousColumn[i - 2] + 1);
+				nextColumn[i] = cost;
+			}
+			minLastRow = Math.min(minLastRow, nextColumn[rowCount - 1]);
+			final int[] reusedColumn = previousColumn;
+			previousColumn = column;
+			column = nextColumn;
+			nextColumn = reusedColumn;
+		}
+		return type == Type.Global ? column[rowCount - 1] : minLastRow;
+	}
+
+	/** Computes the complete matrix needed for the alignments and returns the distance. */
+	int computeMatrix() {
 		
 		matrix = new int[searchTerm.length()+1][searchText.length()+1]; // [row][col]
 		
@@ -282,7 +446,7 @@ public class PseudoDamerauLevenshtein implements EditDistanceStringMatchingStrat
 		alignmentsInProgress = new Stack<Alignment>();
 		alignmentsDone = new ArrayList<Alignment>();
 		
-		int dist = distance(); // this computes the Dynamic Programming matrix according to Levenshtein
+		int dist = computeMatrix(); // this computes the Dynamic Programming matrix according to Levenshtein
 		
 		if (type == Type.Global && getMatchProb(dist) > minProb)
 		{
@@ -498,6 +662,11 @@ public class PseudoDamerauLevenshtein implements EditDistanceStringMatchingStrat
 	}
 
 	private float getMatchProb(final int distance)
+	{
+		return getMatchProb(distance, searchTerm, searchText, type);
+	}
+
+	private static float getMatchProb(final int distance, final String searchTerm, final String searchText, final Type type)
 	{
 		if (type == Type.SemiGlobal)
 		{
@@ -513,7 +682,6 @@ public class PseudoDamerauLevenshtein implements EditDistanceStringMatchingStrat
 	{
 		//LogUtils.severe("minMatchProb=" +StringMatchingStrategy.APPROXIMATE_MATCHING_MINPROB);
 		int dist = distance();
-		matrix = null;
 		//LogUtils.severe(String.format("DLevDist(%s,%s) = %d\n", searchTerm, searchText, dist));
 		return getMatchProb(dist);
 	}
@@ -535,12 +703,17 @@ public class PseudoDamerauLevenshtein implements EditDistanceStringMatchingStrat
  		this.type = subStringMatch ? Type.SemiGlobal : Type.Global;
 	}
 
+	/** Does not change the search term and text given to {@link #init}, so that the shared instance can match concurrently. */
 	public boolean matches(String searchTerm, String searchText,
 			boolean subStringMatch) 
 	{
-		init(searchTerm, searchText, subStringMatch);
-		
-		return matchProb() > StringMatchingStrategy.APPROXIMATE_MATCHING_MINPROB; 
+		if (searchTerm == null || searchText == null)
+		{
+			throw new IllegalArgumentException("Null searchText/searchTerm!");
+		}
+		final Type type = subStringMatch ? Type.SemiGlobal : Type.Global;
+		final int dist = distance(searchTerm, searchText, type);
+		return getMatchProb(dist, searchTerm, searchText, type) > StringMatchingStrategy.APPROXIMATE_MATCHING_MINPROB; 
 	}
 
 	/*
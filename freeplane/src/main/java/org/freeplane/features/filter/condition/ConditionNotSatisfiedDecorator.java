@@ -41,6 +41,16 @@ public class ConditionNotSatisfiedDecorator extends DecoratedCondition implement
 	public boolean checkNode(final NodeModel node) {
 		return !originalCondition.checkNode(node);
 	}
+
+	@Override
+	public boolean checksNodeContentOnly() {
+		return originalCondition.checksNodeContentOnly();
+	}
+
+	@Override
+	public boolean checksNodeContentAndPositionOnly() {
+		return originalCondition.checksNodeContentAndPositionOnly();
+	}
 	
 	
 
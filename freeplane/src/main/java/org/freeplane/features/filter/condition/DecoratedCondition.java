@@ -114,6 +114,11 @@ abstract public class DecoratedCondition extends ASelectableCondition implements
     public boolean checksDescendants() {
         return originalCondition.checksDescendants();
     }
+
+    @Override
+    public boolean checksNodeContentOnly() {
+        return false;
+    }
 	
 	
 
@@ -25,4 +25,14 @@ public interface ICombinedCondition extends ICondition{
         return split().stream().anyMatch(ICondition::checksDescendants);
     }
 
+	@Override
+	default boolean checksNodeContentOnly() {
+        return split().stream().allMatch(ICondition::checksNodeContentOnly);
+    }
+
+	@Override
+	default boolean checksNodeContentAndPositionOnly() {
+        return split().stream().allMatch(ICondition::checksNodeContentAndPositionOnly);
+    }
+
 }
@@ -39,4 +39,14 @@ public interface ICondition {
     default boolean checksDescendants() {
         return false;
     }
+
+    /** Returns true if the result can only change together with the node, so that it can be kept until the node changes. */
+    default boolean checksNodeContentOnly() {
+        return false;
+    }
+
+    /** Returns true if the result can only change together with the node or the structure of its map. */
+    default boolean checksNodeContentAndPositionOnly() {
+        return checksNodeContentOnly();
+    }
 }
@@ -65,4 +65,9 @@ public class LinkTransformer extends AbstractContentTransformer {
 		else
 			return content;
     }
+
+	@Override
+	public boolean canKeepResult(Object content) {
+		return ! (( content instanceof Hyperlink ||  content instanceof URI) && content.toString().startsWith("#"));
+	}
 }
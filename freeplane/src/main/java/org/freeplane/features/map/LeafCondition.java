@@ -23,4 +23,9 @@ public class LeafCondition extends ASelectableCondition {
     protected String createDescription() {
 	    return TextUtils.getText(NodeLevelConditionController.FILTER_LEAF);
     }
+
+	@Override
+	public boolean checksNodeContentAndPositionOnly() {
+		return true;
+	}
 }
@@ -35,6 +35,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -51,6 +52,7 @@ import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.ui.AFreeplaneAction;
 import org.freeplane.core.ui.menubuilders.generic.UserRole;
 import org.freeplane.core.undo.IActor;
+import org.freeplane.core.undo.IUndoHandler;
 import org.freeplane.core.util.DelayedRunner;
 import org.freeplane.features.clipboard.ClipboardControllers;
 import org.freeplane.features.explorer.MapExplorerController;
@@ -310,6 +312,7 @@ implements IExtension, NodeChangeAnnouncer{
 
 // 	final private Controller controller;
 	final private List<IMapChangeListener> mapChangeListeners;
+	final private NodeCache.Invalidator nodeCacheInvalidator;
 	private boolean areMapChangeListenersSorted;
 	final private List<IMapLifeCycleListener> mapLifeCycleListeners;
 	final private MapReader mapReader;
@@ -349,6 +352,10 @@ implements IExtension, NodeChangeAnnouncer{
 		writeManager.addExtensionElementWriter(UnknownElements.class, unknownElementWriter);
 		mapChangeListeners = new LinkedList<IMapChangeListener>();
 		nodeChangeListeners = new LinkedList<INodeChangeListener>();
+		nodeCacheInvalidator = new NodeCache.Invalidator();
+		addNodeChangeListener(nodeCacheInvalidator);
+		addMapChangeListener(nodeCacheInvalidator);
+		ResourceController.getResourceController().addPropertyChangeListener(nodeCacheInvalidator);
 		actionEnablerOnChange = new ActionEnablerOnChange(modeController);
 		actionSelectorOnChange = new ActionSelectorOnChange(modeController);
 		addNodeSelectionListener(actionEnablerOnChange);
@@ -453,6 +460,7 @@ implements IExtension, NodeChangeAnnouncer{
 
 	protected void setFoldingState(final NodeModel node, final boolean folded) {
 		node.setFolded(folded);
+		nodeCacheInvalidator.foldingChanged(node);
 	}
 
 	public boolean showNextChild(final NodeModel node) {
@@ -916,22 +924,17 @@ implements IExtension, NodeChangeAnnouncer{
 			setSaved(map, false);
 		if (nodeChangeEvent.updatesModificationTime() && !map.isUndoActionRunning()) {
 			final HistoryInformationModel historyInformation = node.getHistoryInformation();
-			if (historyInformation != null) {
+			if (historyInformation != null && nodeChangeBatch != null) {
+				nodeChangeBatch.addModifiedNode(node, historyInformation.getLastModifiedAt());
+			}
+			else if (historyInformation != null) {
 				final IActor historyActor = new IActor() {
 					private final Date lastModifiedAt = historyInformation.getLastModifiedAt();
 					private final Date now = new Date();
 
 					@Override
 					public void undo() {
-						setDate(historyInformation, lastModifiedAt);
-					}
-
-					private void setDate(final HistoryInformationModel historyInformation, final Date lastModifiedAt) {
-						final Date oldLastModifiedAt = historyInformation.getLastModifiedAt();
-						historyInformation.setLastModifiedAt(lastModifiedAt);
-						final NodeChangeEvent nodeChangeEvent = new NodeChangeEvent(node,
-						    HistoryInformationModel.class, oldLastModifiedAt, lastModifiedAt, false, false);
-						fireNodeChanged(node, nodeChangeEvent);
+						setModificationTime(node, historyInformation, lastModifiedAt);
 					}
 
 					@Override
@@ -941,20 +944,130 @@ implements IExtension, NodeChangeAnnouncer{
 
 					@Override
 					public void act() {
-						setDate(historyInformation, now);
+						setModificationTime(node, historyInformation, now);
 					}
 				};
 				Controller.getCurrentModeController().execute(historyActor, map);
 			}
 		}
-		fireNodeChanged(node, nodeChangeEvent);
+		notifyNodeChanged(nodeChangeEvent);
+	}
+
+	private void setModificationTime(final NodeModel node, final HistoryInformationModel historyInformation,
+	                                 final Date lastModifiedAt) {
+		final Date oldLastModifiedAt = historyInformation.getLastModifiedAt();
+		historyInformation.setLastModifiedAt(lastModifiedAt);
+		final NodeChangeEvent nodeChangeEvent = new NodeChangeEvent(node,
+		    HistoryInformationModel.class, oldLastModifiedAt, lastModifiedAt, false, false);
+		notifyNodeChanged(nodeChangeEvent);
 	}
 
+	private void notifyNodeChanged(final NodeChangeEvent nodeChangeEvent) {
+		if (nodeChangeBatch != null)
+			nodeChangeBatch.addEvent(nodeChangeEvent);
+		else
+			fireNodeChanged(nodeChangeEvent.getNode(), nodeChangeEvent);
+	}
+
+	/** Sets the modification times of all nodes of a node change batch as one undoable action. */
+	private class ModificationTimesActor implements IActor {
+		final private NodeModel[] nodes;
+		final private Date[] lastModifiedAt;
+		final private Date now = new Date();
+
+		private ModificationTimesActor(final Map<NodeModel, Date> modificationTimes) {
+			nodes = modificationTimes.keySet().toArray(new NodeModel[modificationTimes.size()]);
+			lastModifiedAt = modificationTimes.values().toArray(new Date[modificationTimes.size()]);
+		}
+
+		@Override
+		public void act() {
+			for (final NodeModel node : nodes) {
+				setModificationTime(node, now);
+			}
+		}
+
+		@Override
+		public void undo() {
+			for (int i = 0; i < nodes.length; i++) {
+				setModificationTime(nodes[i], lastModifiedAt[i]);
+			}
+		}
+
+		private void setModificationTime(final NodeModel node, final Date date) {
+			final HistoryInformationModel historyInformation = node.getHistoryInformation();
+			if (historyInformation != null) {
+				MapController.this.setModificationTime(node, historyInformation, date);
+			}
+		}
+
+		@Override
+		public String getDescription() {
+			return null;
+		}
+
+		@Override
+		public long getEstimatedSize() {
+			return DEFAULT_ESTIMATED_SIZE + 40L * nodes.length;
+		}
+	}
+
+	/**
+	 * Starts collecting node changes until the matching {@link #commitNodeChangeBatch()}, e.g. around scripts
+	 * changing many nodes. Batches can be nested, the outermost commit completes the batch.
+	 * <p>
+	 * Maps are marked as modified immediately, but node change listeners are only notified on commit,
+	 * once for each changed node and property. Modification times of all changed nodes of a map
+	 * are updated on commit by a single undoable action. All undoable actions of the current map
+	 * executed during the batch are undone as one transaction.
+	 * <p>
+	 * Insertions, deletions and moves of nodes and map changes are notified immediately,
+	 * so that their listeners are notified before the node change listeners,
+	 * which can be notified on commit about nodes already deleted from the map.
+	 */
+	public void startNodeChangeBatch() {
+		if (nodeChangeBatch == null) {
+			nodeChangeBatch = new NodeChangeBatch();
+			final MapModel map = Controller.getCurrentController().getMap();
+			nodeChangeBatchUndoHandler = map != null ? map.getExtension(IUndoHandler.class) : null;
+			if (nodeChangeBatchUndoHandler != null)
+				nodeChangeBatchUndoHandler.startTransaction();
+		}
+		else
+			nodeChangeBatch.start();
+	}
+
+	/** @see #startNodeChangeBatch() */
+	public void commitNodeChangeBatch() {
+		final NodeChangeBatch batch = nodeChangeBatch;
+		if (batch == null)
+			throw new IllegalStateException("No node change batch started");
+		if (!batch.commit())
+			return;
+		final IUndoHandler undoHandler = nodeChangeBatchUndoHandler;
+		try {
+			for (final Entry<MapModel, Map<NodeModel, Date>> modificationTimes : batch.getModificationTimes().entrySet()) {
+				Controller.getCurrentModeController().execute(new ModificationTimesActor(modificationTimes.getValue()),
+				    modificationTimes.getKey());
+			}
+		}
+		finally {
+			nodeChangeBatch = null;
+			nodeChangeBatchUndoHandler = null;
+			if (undoHandler != null)
+				undoHandler.commit();
+		}
+		for (final NodeChangeEvent nodeChangeEvent : batch.getEvents()) {
+			fireNodeChanged(nodeChangeEvent.getNode(), nodeChangeEvent);
+		}
+	}
 
 	// nodes may only be refreshed by their own ModeController, so we have to store that too
 	private final ActionEnablerOnChange actionEnablerOnChange;
 	private final ActionSelectorOnChange actionSelectorOnChange;
 	private final Refresher refresher;
+	private NodeChangeBatch nodeChangeBatch;
+	private IUndoHandler nodeChangeBatchUndoHandler;
 
 	static class NodeRefreshKey{
 		final NodeModel node;
@@ -53,6 +53,7 @@ public class MapModel {
 	private URL url;
 	private NodeChangeAnnouncer nodeChangeAnnouncer;
     private final INodeDuplicator nodeDuplicator;
+	final private NodeOrdinals nodeOrdinals = new NodeOrdinals();
 
 	public MapModel(INodeDuplicator nodeDuplicator, IconRegistry iconRegistry, NodeChangeAnnouncer nodeChangeAnnouncer) {
 		this.nodeDuplicator = nodeDuplicator;
@@ -72,6 +73,15 @@ public class MapModel {
 		this.nodeChangeAnnouncer = mapController;
 	}
 
+	public NodeOrdinals getNodeOrdinals() {
+		return nodeOrdinals;
+	}
+
+	/** Returns the number of node ordinals assigned so far, all of them are less than it. */
+	public int getNodeOrdinalCount() {
+		return nodeOrdinals.getCount();
+	}
+
 	public void createNewRoot() {
 		root = new NodeModel(TextUtils.getText("new_mindmap"), this);
 		root.attach();
@@ -291,6 +301,7 @@ public class MapModel {
 		if (id != null) {
 			nodes.put(id, null);
 		}
+		nodeOrdinals.release(node);
 	}
 
 
@@ -20,6 +20,7 @@
 package org.freeplane.features.map;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.util.HashMap;
 import java.util.Map;
@@ -27,7 +28,10 @@ import java.util.Map;
 import org.freeplane.core.io.IElementDOMHandler;
 import org.freeplane.core.io.ReadManager;
 import org.freeplane.core.io.UnknownElements;
+import org.freeplane.core.io.xml.StreamingTreeXmlReader;
 import org.freeplane.core.io.xml.TreeXmlReader;
+import org.freeplane.core.io.xml.TreeXmlSnapshot;
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.features.map.MapWriter.Hint;
 import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.n3.nanoxml.XMLElement;
@@ -56,14 +60,19 @@ public class MapReader implements IElementDOMHandler {
 
 		public NodeModel create(final Reader pReader) throws XMLException {
 			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
-			final TreeXmlReader reader = new TreeXmlReader(readManager);
+			final boolean attachedTextStore = NodeTextStore.attachTo(createdMap);
 			try {
 				nodeTreeCreator = this;
-				reader.load(createdMap, pReader);
+				if (ResourceController.getResourceController().getBooleanProperty(USE_STREAMING_READER_PROPERTY))
+					new StreamingTreeXmlReader(readManager).load(createdMap, pReader);
+				else
+					new TreeXmlReader(readManager).load(createdMap, pReader);
 				final NodeModel node = nodeBuilder.getMapChild();
 				return node;
 			}
 			finally {
+				if (attachedTextStore)
+					NodeTextStore.detachFrom(createdMap);
 				nodeBuilder.reset();
 				nodeTreeCreator = oldNodeTreeCreator;
 			}
@@ -81,6 +90,34 @@ public class MapReader implements IElementDOMHandler {
 			}
 		}
 
+		NodeModel create(final TreeXmlSnapshot snapshot) throws XMLException {
+			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
+			final boolean attachedTextStore = NodeTextStore.attachTo(createdMap);
+			try {
+				nodeTreeCreator = this;
+				snapshot.load(readManager, createdMap,
+				    ResourceController.getResourceController().getBooleanProperty(USE_STREAMING_READER_PROPERTY));
+				return nodeBuilder.getMapChild();
+			}
+			finally {
+				if (attachedTextStore)
+					NodeTextStore.detachFrom(createdMap);
+				nodeBuilder.reset();
+				nodeTreeCreator = oldNodeTreeCreator;
+			}
+		}
+
+		NodeModel createNodeTreeFromSnapshot(final MapModel map, final TreeXmlSnapshot snapshot) throws XMLException {
+			synchronized(this) {
+				start(map);
+				final NodeModel node = create(snapshot);
+				if (node == null)
+					throw new RuntimeException("corrupted map, no root node found");
+				finish(node);
+				return node;
+			}
+		}
+
 		public void finish(final NodeModel node) {
 			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
 			try {
@@ -137,6 +174,7 @@ public class MapReader implements IElementDOMHandler {
 		}
 	}
 
+	public static final String USE_STREAMING_READER_PROPERTY = "load_maps_with_streaming_reader";
 	private final NodeBuilder nodeBuilder;
 	final private ReadManager readManager;
 	private NodeTreeCreator nodeTreeCreator;
@@ -175,6 +213,28 @@ public class MapReader implements IElementDOMHandler {
 		}
 	}
 
+	public NodeModel createNodeTreeFromSnapshot(final MapModel map, final TreeXmlSnapshot snapshot, final Mode mode)
+	        throws XMLException {
+		final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
+		try {
+			final Map<Object, Object> hints = new HashMap<Object, Object>(1);
+			hints.put(Hint.MODE, mode);
+			nodeTreeCreator = new NodeTreeCreator(hints);
+			return nodeTreeCreator.createNodeTreeFromSnapshot(map, snapshot);
+		}
+		finally {
+			nodeTreeCreator = oldNodeTreeCreator;
+		}
+	}
+
+	public TreeXmlSnapshot recordSnapshot(final Reader reader) throws XMLException {
+		return TreeXmlSnapshot.record(readManager, reader);
+	}
+
+	public TreeXmlSnapshot readSnapshot(final InputStream input) throws IOException {
+		return TreeXmlSnapshot.read(input, readManager);
+	}
+
 	@Override
 	public void endElement(final Object parent, final String tag, final Object element, final XMLElement dom) {
 		final MapModel map = (MapModel) element;
@@ -57,6 +57,7 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 	};
 
 	private NodeWriter currentNodeWriter;
+	private NodeXmlCache.Recorder nodeXmlRecorder;
 	final private MapController mapController;
 	private boolean saveInvisible;
 	final WriteManager writeManager;
@@ -85,25 +86,49 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 		final MapModel map = (MapModel) node;
 		writer.addExtensionNodes(map, Arrays.asList(map.getExtensions().values().toArray(new IExtension[] {})));
 		final NodeModel rootNode = map.getRootNode();
-		writeNode(writer, rootNode, saveInvisible, true);
+		writeNode(writer, rootNode, saveInvisible, true, nodeXmlRecorder);
 	}
 
 	public void writeMapAsXml(final MapModel map, final Writer fileout, final Mode mode, final boolean saveInvisible,
 	                          final boolean forceFormat) throws IOException {
-		final TreeXmlWriter xmlWriter = createTreeWriter(fileout);
+		final NodeXmlCache.Recorder recorder = Mode.FILE.equals(mode) && saveInvisible && !forceFormat
+		        && ResourceController.getResourceController().getBooleanProperty(
+		            NodeXmlCache.SAVE_INCREMENTALLY_PROPERTY) ? NodeXmlCache.getCache(map).new Recorder(fileout) : null;
+		writeMapAsXml(map, fileout, mode, saveInvisible, forceFormat, recorder);
+	}
+
+	/**
+	 * Writes the map for saving it to a file, serializing only nodes changed since the previous call
+	 * even if saving incrementally is disabled.
+	 * The xml of unchanged nodes is passed to the writer as whole strings, which the writer may keep without copying.
+	 */
+	public void writeMapAsXmlIncrementally(final MapModel map, final Writer fileout) throws IOException {
+		writeMapAsXml(map, fileout, Mode.FILE, true, false, NodeXmlCache.getCache(map).new Recorder(fileout));
+	}
+
+	private void writeMapAsXml(final MapModel map, final Writer fileout, final Mode mode, final boolean saveInvisible,
+	                           final boolean forceFormat, final NodeXmlCache.Recorder recorder) throws IOException {
+		final TreeXmlWriter xmlWriter = createTreeWriter(recorder != null ? recorder : fileout);
 		xmlWriter.setHint(Hint.MODE, mode);
 		if (forceFormat) {
 			xmlWriter.setHint(WriterHint.FORCE_FORMATTING);
 		}
 		final XMLElement xmlMap = new XMLElement("map");
 		setSaveInvisible(saveInvisible);
-		xmlWriter.addElement(map, xmlMap);
+		final NodeXmlCache.Recorder oldRecorder = nodeXmlRecorder;
+		nodeXmlRecorder = recorder;
+		try {
+			xmlWriter.addElement(map, xmlMap);
+		}
+		finally {
+			nodeXmlRecorder = oldRecorder;
+		}
 		xmlWriter.flush();
 		fileout.close();
 	}
 
 	private void writeNode(final ITreeWriter xmlWriter, final NodeModel node, final boolean writeInvisible,
-	                       final boolean writeChildren) throws IOException {
+	                       final boolean writeChildren, final NodeXmlCache.Recorder recorder) throws IOException {
 		final NodeWriter oldNodeWriter = currentNodeWriter;
 		final Object mode = xmlWriter.getHint(Hint.MODE);
 		final String nodeTag;
@@ -117,9 +142,10 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 			oldNodeWriter.unregisterFrom(writeManager);
 		LinkBuilder currentLinkBuilder = new LinkBuilder(mapController.getModeController().getExtension(LinkController.class));
 		currentNodeWriter = new NodeWriter(mapController, currentLinkBuilder, nodeTag, writeChildren, writeInvisible);
+		currentNodeWriter.setNodeXmlRecorder(recorder);
 		try {
 			currentNodeWriter.registerBy(writeManager);
-			xmlWriter.addElement(node, nodeTag);
+			currentNodeWriter.writeNode(xmlWriter, node);
 		}
 		finally {
 			
@@ -137,7 +163,7 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 		if (forceFormat) {
 			xmlWriter.setHint(WriterHint.FORCE_FORMATTING);
 		}
-		writeNode(xmlWriter, node, writeInvisible, writeChildren);
+		writeNode(xmlWriter, node, writeInvisible, writeChildren, null);
 		xmlWriter.flush();
 	}
 
@@ -0,0 +1,155 @@
+package org.freeplane.features.map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.IFreeplanePropertyListener;
+import org.freeplane.features.filter.Filter;
+import org.freeplane.features.styles.StyleMapModel;
+
+/**
+ * Values calculated for the nodes of a map and kept as map extension.
+ * <p>
+ * A single {@link Invalidator} registered by the map controller removes the values
+ * of a node on each change of the node,
+ * of all nodes of a map on each change of the map except filter changes
+ * and, unless {@link #structureChanged(NodeModel, NodeModel)} is overridden, on each change of the map structure,
+ * and of all maps on changes of style maps and preferences.
+ */
+public abstract class NodeCache implements IExtension {
+	private static final AtomicInteger generation = new AtomicInteger();
+	private static final Set<Class<? extends NodeCache>> cacheClasses = new CopyOnWriteArraySet<>();
+
+	public static class Invalidator implements INodeChangeListener, IMapChangeListener, IFreeplanePropertyListener {
+		@Override
+		public void nodeChanged(final NodeChangeEvent event) {
+			final NodeModel node = event.getNode();
+			final MapModel map = node.getMap();
+			if (map instanceof StyleMapModel) {
+				invalidateAll();
+			}
+			else if (map != null) {
+				for (final NodeCache cache : caches(map)) {
+					cache.nodeChanged(node);
+				}
+			}
+		}
+
+		@Override
+		public void mapChanged(final MapChangeEvent event) {
+			if (event.getProperty() == Filter.class) {
+				return;
+			}
+			final MapModel map = event.getMap();
+			if (map == null || map instanceof StyleMapModel) {
+				invalidateAll();
+			}
+			else {
+				for (final NodeCache cache : caches(map)) {
+					cache.clear();
+				}
+			}
+		}
+
+		@Override
+		public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+			structureChanged(nodeDeletionEvent.parent, nodeDeletionEvent.node);
+		}
+
+		@Override
+		public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+			structureChanged(parent, child);
+		}
+
+		@Override
+		public void onNodeMoved(final NodeMoveEvent nodeMoveEvent) {
+			structureChanged(nodeMoveEvent.oldParent, nodeMoveEvent.child);
+			structureChanged(nodeMoveEvent.newParent, nodeMoveEvent.child);
+		}
+
+		/** Passes folding changes, which are not notified to node change listeners. */
+		public void foldingChanged(final NodeModel node) {
+			for (final NodeCache cache : caches(node.getMap())) {
+				cache.foldingChanged(node);
+			}
+		}
+
+		@Override
+		public void propertyChanged(final String propertyName, final String newValue, final String oldValue) {
+			invalidateAll();
+		}
+
+		private void structureChanged(final NodeModel parent, final NodeModel child) {
+			for (final NodeCache cache : caches(parent.getMap())) {
+				cache.structureChanged(parent, child);
+			}
+		}
+	}
+
+	/** Removes the values of all maps, e.g. after content transformers are added or removed. */
+	public static void invalidateAll() {
+		generation.incrementAndGet();
+	}
+
+	/** Returns the cache of the map, adding a new one created by the factory if the map has none. */
+	protected static <C extends NodeCache> C of(final MapModel map, final Class<C> cacheClass, final Supplier<C> factory) {
+		C cache = map.getExtension(cacheClass);
+		if (cache == null) {
+			synchronized (NodeCache.class) {
+				cache = map.getExtension(cacheClass);
+				if (cache == null) {
+					cacheClasses.add(cacheClass);
+					cache = factory.get();
+					map.addExtension(cacheClass, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
+	private static Iterable<NodeCache> caches(final MapModel map) {
+		final List<NodeCache> caches = new ArrayList<>(cacheClasses.size());
+		if (map != null) {
+			for (final Class<? extends NodeCache> cacheClass : cacheClasses) {
+				final NodeCache cache = map.getExtension(cacheClass);
+				if (cache != null) {
+					caches.add(cache);
+				}
+			}
+		}
+		return caches;
+	}
+
+	private int cacheGeneration = generation.get();
+
+	/** Clears the cache if {@link #invalidateAll()} was called since it was last used, to be called holding the cache lock. */
+	protected void clearIfInvalidated() {
+		final int currentGeneration = generation.get();
+		if (cacheGeneration != currentGeneration) {
+			clear();
+			cacheGeneration = currentGeneration;
+		}
+	}
+
+	protected void nodeChanged(final NodeModel node) {
+		removeNode(node);
+	}
+
+	/** Called after the node has been folded or unfolded, by default it keeps the values. */
+	protected void foldingChanged(final NodeModel node) {
+	}
+
+	/** Called after the child has been inserted, removed or moved, by default it clears the cache. */
+	protected void structureChanged(final NodeModel parent, final NodeModel child) {
+		clear();
+	}
+
+	protected abstract void removeNode(NodeModel node);
+
+	protected abstract void clear();
+}
@@ -0,0 +1,58 @@
+package org.freeplane.features.map;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.freeplane.features.map.MapController.NodeRefreshKey;
+
+/**
+ * Node changes collected between {@link MapController#startNodeChangeBatch()} and the outermost
+ * {@link MapController#commitNodeChangeBatch()}.
+ * <p>
+ * Keeps one event for each node and property, carrying the first old and the last new value,
+ * and the modification time of each changed node before the batch.
+ */
+class NodeChangeBatch {
+	final private Map<NodeRefreshKey, NodeChangeEvent> events = new LinkedHashMap<NodeRefreshKey, NodeChangeEvent>();
+	final private Map<MapModel, Map<NodeModel, Date>> modificationTimes = new LinkedHashMap<MapModel, Map<NodeModel, Date>>();
+	private int level = 1;
+
+	void start() {
+		level++;
+	}
+
+	/** Returns true if the outermost batch is committed. */
+	boolean commit() {
+		return --level == 0;
+	}
+
+	void addEvent(final NodeChangeEvent event) {
+		final NodeModel node = event.getNode();
+		final NodeRefreshKey key = new NodeRefreshKey(node, event.getProperty());
+		final NodeChangeEvent firstEvent = events.get(key);
+		if (firstEvent == null) {
+			events.put(key, event);
+		}
+		else {
+			events.put(key, new NodeChangeEvent(node, event.getProperty(), firstEvent.getOldValue(), event.getNewValue(),
+			    firstEvent.setsDirtyFlag() || event.setsDirtyFlag(),
+			    firstEvent.updatesModificationTime() || event.updatesModificationTime()));
+		}
+	}
+
+	void addModifiedNode(final NodeModel node, final Date lastModifiedAt) {
+		modificationTimes.computeIfAbsent(node.getMap(), x -> new LinkedHashMap<NodeModel, Date>())
+		    .putIfAbsent(node, lastModifiedAt);
+	}
+
+	Collection<NodeChangeEvent> getEvents() {
+		return events.values();
+	}
+
+	/** Returns the modification times of the changed nodes before the batch for each map. */
+	Map<MapModel, Map<NodeModel, Date>> getModificationTimes() {
+		return modificationTimes;
+	}
+}
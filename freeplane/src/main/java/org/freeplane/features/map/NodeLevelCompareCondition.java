@@ -80,4 +80,9 @@ class NodeLevelCompareCondition extends CompareConditionAdapter {
     protected String getName() {
 	    return NAME;
     }
+
+	@Override
+	public boolean checksNodeContentAndPositionOnly() {
+		return true;
+	}
 }
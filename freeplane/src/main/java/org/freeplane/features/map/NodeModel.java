@@ -80,6 +80,8 @@ public class NodeModel{
 
 	private SharedNodeData sharedData;
 	private Clones[] clones;
+	/** assigned by {@link NodeOrdinals} */
+	volatile int ordinal = -1;
 
 	void setClones(Clones clones) {
 		this.clones[clones.getCloneType().ordinal()] = clones;
@@ -352,11 +354,8 @@ public class NodeModel{
 	}
 
 	public String getText() {
-		String string = "";
-		if (getUserObject() != null) {
-			string = getUserObject().toString();
-		}
-		return string;
+		final Object userObject = getUserObject();
+		return userObject != null ? userObject.toString() : "";
 	}
 
 	public Collection<INodeView> getViewers() {
@@ -570,12 +569,24 @@ public class NodeModel{
 	/**
 	 */
 	public void setMap(final MapModel map) {
+		if (this.map != map && this.map != null) {
+			this.map.getNodeOrdinals().release(this);
+		}
 		this.map = map;
 		for (final NodeModel child : children) {
 			child.setMap(map);
 		}
 	}
 
+	/**
+	 * Returns a number identifying the node within its map, see {@link NodeOrdinals}.
+	 * Numbers are assigned on the first request and released when the node is deleted.
+	 */
+	public int getOrdinal() {
+		final int ordinal = this.ordinal;
+		return ordinal >= 0 ? ordinal : map.getNodeOrdinals().assign(this);
+	}
+
 	public void setParent(final NodeModel newParent) {
 		if(parent == null && newParent != null && newParent.isAttached())
 			attach();
@@ -613,15 +624,15 @@ public class NodeModel{
 	}
 
 	public final void setText(final String text) {
-		sharedData.setText(text);
+		sharedData.setText(NodeTextStore.intern(map, text));
 	}
 
 	public final void setUserObject(final Object data) {
-		sharedData.setUserObject(data);
+		sharedData.setUserObject(data instanceof String ? NodeTextStore.intern(map, (String) data) : data);
 	}
 
 	public final void setXmlText(final String pXmlText) {
-		sharedData.setXmlText(pXmlText);
+		sharedData.setXmlText(NodeTextStore.intern(map, pXmlText));
 	}
 
 	@Override
@@ -0,0 +1,59 @@
+package org.freeplane.features.map;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Numbers identifying the nodes of one map, used as indices of arrays keeping data of the map nodes.
+ * <p>
+ * Numbers are assigned on the first request. Numbers of nodes deleted from the map are released
+ * and assigned to other nodes again, so that the arrays do not grow beyond the largest node count of the map.
+ * Before a number is assigned again, the registered {@link Data} clear what they keep for it.
+ */
+public class NodeOrdinals {
+	/** Data kept in arrays indexed by node ordinals. */
+	public interface Data {
+		/** Removes the data kept for the ordinal which has been released. */
+		void clear(int ordinal);
+	}
+
+	private static final int[] NO_ORDINALS = new int[0];
+	final private Set<Data> data = Collections.newSetFromMap(new WeakHashMap<Data, Boolean>());
+	private int[] releasedOrdinals = NO_ORDINALS;
+	private int releasedOrdinalCount = 0;
+	private int count = 0;
+
+	synchronized int assign(final NodeModel node) {
+		if (node.ordinal < 0) {
+			node.ordinal = releasedOrdinalCount > 0 ? releasedOrdinals[--releasedOrdinalCount] : count++;
+		}
+		return node.ordinal;
+	}
+
+	synchronized void release(final NodeModel node) {
+		final int ordinal = node.ordinal;
+		if (ordinal < 0) {
+			return;
+		}
+		node.ordinal = -1;
+		for (final Data nodeData : data) {
+			nodeData.clear(ordinal);
+		}
+		if (releasedOrdinalCount == releasedOrdinals.length) {
+			releasedOrdinals = Arrays.copyOf(releasedOrdinals, Math.max(16, 2 * releasedOrdinalCount));
+		}
+		releasedOrdinals[releasedOrdinalCount++] = ordinal;
+	}
+
+	/** Registers data to be cleared for released ordinals, it is referenced only weakly. */
+	public synchronized void addData(final Data nodeData) {
+		data.add(nodeData);
+	}
+
+	/** Returns the number of node ordinals assigned so far, all of them are less than it. */
+	public synchronized int getCount() {
+		return count;
+	}
+}
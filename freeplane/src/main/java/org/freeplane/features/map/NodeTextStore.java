@@ -0,0 +1,48 @@
+package org.freeplane.features.map;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.freeplane.core.extension.IExtension;
+
+/**
+ * Shares equal node texts, details and notes of a map while the map is read,
+ * so that texts repeated in many nodes are kept in memory only once.
+ * <p>
+ * The store is only attached to the map during reading: the nodes keep sharing the texts afterwards,
+ * while keeping the store for the whole map life would cost more memory for each distinct text
+ * than sharing saves for a typical map.
+ */
+public class NodeTextStore implements IExtension {
+	final private ConcurrentHashMap<String, String> texts = new ConcurrentHashMap<String, String>();
+
+	/** Returns an equal text already read into the map, or the given text if there is no such text or the map is not being read. */
+	public static String intern(final MapModel map, final String text) {
+		if (map == null || text == null) {
+			return text;
+		}
+		final NodeTextStore store = map.getExtension(NodeTextStore.class);
+		return store != null ? store.intern(text) : text;
+	}
+
+	/** Returns true if a new store has been attached to the map. */
+	static boolean attachTo(final MapModel map) {
+		if (map == null || map.containsExtension(NodeTextStore.class)) {
+			return false;
+		}
+		map.addExtension(new NodeTextStore());
+		return true;
+	}
+
+	static void detachFrom(final MapModel map) {
+		map.removeExtension(NodeTextStore.class);
+	}
+
+	String intern(final String text) {
+		final String sharedText = texts.putIfAbsent(text, text);
+		return sharedText != null ? sharedText : text;
+	}
+
+	int size() {
+		return texts.size();
+	}
+}
@@ -49,6 +49,7 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 	final private boolean writeInvisible;
 	private XMLElement xmlNode;
 	final private String nodeTag;
+	private NodeXmlCache.Recorder nodeXmlRecorder;
 
 	public static boolean shouldWriteSharedContent(ITreeWriter writer){
 		if (! Boolean.TRUE.equals(writer.getHint(WriterHint.ALREADY_WRITTEN)))
@@ -75,11 +76,15 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 		        || saveFolding.equals(NodeBuilder.RESOURCES_SAVE_FOLDING_IF_MAP_IS_CHANGED);
 	}
 
-	private void saveChildren(final ITreeWriter writer, final NodeModel node) throws IOException {
+	void setNodeXmlRecorder(final NodeXmlCache.Recorder nodeXmlRecorder) {
+		this.nodeXmlRecorder = nodeXmlRecorder;
+	}
+
+	void saveChildren(final ITreeWriter writer, final NodeModel node) throws IOException {
 		for (final NodeModel child: node.getChildren()) {
 		if (writeInvisible || child.hasVisibleContent(FilterController.getFilter(node.getMap()))) {
 				writer.setHint(WriterHint.ALREADY_WRITTEN, isAlreadyWritten(child));
-				writer.addElement(child, nodeTag);
+				writeNode(writer, child);
 			}
 			else {
 				saveChildren(writer, child);
@@ -87,6 +92,15 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 		}
 	}
 
+	void writeNode(final ITreeWriter writer, final NodeModel node) throws IOException {
+		if (nodeXmlRecorder != null) {
+			nodeXmlRecorder.writeNode(this, (TreeXmlWriter) writer, node, nodeTag);
+		}
+		else {
+			writer.addElement(node, nodeTag);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
@@ -0,0 +1,227 @@
+package org.freeplane.features.map;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.freeplane.core.io.xml.TreeXmlWriter;
+import org.freeplane.features.link.NodeLinks;
+
+/**
+ * Keeps the xml written for the nodes of a map by its last save,
+ * so that the next save only serializes nodes changed since then.
+ * <p>
+ * Subtrees whose xml is not longer than {@link #MAXIMUM_BLOCK_LENGTH} are kept as one block by their root,
+ * so that saving copies them at once without walking their nodes.
+ * Nodes with bigger subtrees keep only their own xml as the text before the first child and after the last child.
+ * Each character of the saved map is kept once, so that the cache needs as much memory as the map text,
+ * which is why it is only used if enabled by {@link #SAVE_INCREMENTALLY_PROPERTY}.
+ * <p>
+ * A change of a node including its folding removes its xml and the block containing it,
+ * structure changes also remove the parents,
+ * and the whole cache is removed as described in {@link NodeCache}.
+ * Nodes whose xml depends on other nodes, that is clones, nodes with links or connectors
+ * and encrypted nodes, are neither kept nor contained in blocks.
+ */
+class NodeXmlCache extends NodeCache {
+	static final String SAVE_INCREMENTALLY_PROPERTY = "save_maps_incrementally";
+	static final int MAXIMUM_BLOCK_LENGTH = 8 * 1024;
+
+	static NodeXmlCache getCache(final MapModel map) {
+		final NodeXmlCache cache = of(map, NodeXmlCache.class, NodeXmlCache::new);
+		synchronized (cache) {
+			cache.clearIfInvalidated();
+		}
+		return cache;
+	}
+
+	private static boolean canCache(final NodeModel node) {
+		return !node.isCloneNode() && node.getExtension(NodeLinks.class) == null
+		        && EncryptionModel.getModel(node) == null;
+	}
+
+	/** Xml of a node, either of its whole subtree or of the node without its children. */
+	private static class Fragment {
+		final String head;
+		/** null for blocks containing the whole subtree */
+		final String tail;
+
+		Fragment(final String head, final String tail) {
+			this.head = head;
+			this.tail = tail;
+		}
+
+		boolean isBlock() {
+			return tail == null;
+		}
+	}
+
+	private static class Frame {
+		final StringBuilder text = new StringBuilder();
+		String head;
+		int tailStart = 0;
+		boolean keepsChildrenApart = false;
+	}
+
+	final private Map<NodeModel, Fragment> fragments = new WeakHashMap<NodeModel, Fragment>();
+
+	private NodeXmlCache() {
+	}
+
+	@Override
+	protected synchronized void removeNode(final NodeModel node) {
+		fragments.remove(node);
+		for (NodeModel ancestor = node.getParentNode(); ancestor != null; ancestor = ancestor.getParentNode()) {
+			final Fragment fragment = fragments.get(ancestor);
+			if (fragment != null) {
+				if (fragment.isBlock()) {
+					fragments.remove(ancestor);
+				}
+				break;
+			}
+		}
+	}
+
+	@Override
+	protected void foldingChanged(final NodeModel node) {
+		removeNode(node);
+	}
+
+	@Override
+	protected void structureChanged(final NodeModel parent, final NodeModel child) {
+		if (child.isCloneNode()) {
+			clear();
+		}
+		else {
+			removeNode(parent);
+			removeNode(child);
+		}
+	}
+
+	@Override
+	protected synchronized void clear() {
+		fragments.clear();
+	}
+
+	private synchronized Fragment get(final NodeModel node) {
+		return fragments.get(node);
+	}
+
+	/** Keeps the xml of the written node and returns it if the whole subtree is kept as a block. */
+	private synchronized String keep(final NodeModel node, final Frame frame) {
+		if (frame.head == null) {
+			final String block = frame.text.toString();
+			fragments.put(node, new Fragment(block, null));
+			return block;
+		}
+		if (!frame.keepsChildrenApart && frame.head.length() + frame.text.length() <= MAXIMUM_BLOCK_LENGTH) {
+			final String block = frame.head + frame.text;
+			for (final NodeModel child : node.getChildren()) {
+				fragments.remove(child);
+			}
+			fragments.put(node, new Fragment(block, null));
+			return block;
+		}
+		fragments.put(node, new Fragment(frame.head, frame.text.substring(frame.tailStart)));
+		return null;
+	}
+
+	/**
+	 * Passes the written xml to the map file and records the xml of each written node.
+	 * It must be the writer of the {@link TreeXmlWriter} which writes the nodes.
+	 */
+	class Recorder extends Writer {
+		final private Writer out;
+		private Frame frame;
+
+		Recorder(final Writer out) {
+			this.out = out;
+		}
+
+		void writeNode(final NodeWriter nodeWriter, final TreeXmlWriter writer, final NodeModel node,
+		               final String nodeTag) throws IOException {
+			writer.addElementStart();
+			final Frame parentFrame = frame;
+			if (parentFrame != null && parentFrame.head == null) {
+				parentFrame.head = parentFrame.text.toString();
+				parentFrame.text.setLength(0);
+			}
+			final boolean canCache = canCache(node);
+			final Fragment fragment = canCache ? get(node) : null;
+			final String block;
+			try {
+				if (fragment != null) {
+					frame = null;
+					out.write(fragment.head);
+					if (!fragment.isBlock()) {
+						if (!node.getChildren().isEmpty()) {
+							nodeWriter.saveChildren(writer, node);
+						}
+						out.write(fragment.tail);
+					}
+					block = fragment.isBlock() ? fragment.head : null;
+				}
+				else {
+					final Frame nodeFrame = new Frame();
+					frame = nodeFrame;
+					writer.addElement(node, nodeTag);
+					block = canCache ? keep(node, nodeFrame) : null;
+				}
+			}
+			finally {
+				frame = parentFrame;
+			}
+			if (parentFrame != null) {
+				addChild(parentFrame, block);
+			}
+		}
+
+		/** Adds the block of a written child to the parent text, unless the parent can not become a block. */
+		private void addChild(final Frame parentFrame, final String childBlock) {
+			if (parentFrame.keepsChildrenApart || childBlock == null || parentFrame.head.length()
+			        + parentFrame.text.length() + childBlock.length() > MAXIMUM_BLOCK_LENGTH) {
+				parentFrame.keepsChildrenApart = true;
+				parentFrame.text.setLength(0);
+			}
+			else {
+				parentFrame.text.append(childBlock);
+			}
+			parentFrame.tailStart = parentFrame.text.length();
+		}
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) throws IOException {
+			out.write(cbuf, off, len);
+			if (frame != null) {
+				frame.text.append(cbuf, off, len);
+			}
+		}
+
+		@Override
+		public void write(final String str, final int off, final int len) throws IOException {
+			out.write(str, off, len);
+			if (frame != null) {
+				frame.text.append(str, off, off + len);
+			}
+		}
+
+		@Override
+		public void write(final int c) throws IOException {
+			out.write(c);
+			if (frame != null) {
+				frame.text.append((char) c);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+}
@@ -53,4 +53,9 @@ public class PeriodicLevelCondition extends ASelectableCondition {
 				conditions[k++] = new PeriodicLevelCondition(i, j);
 		return conditions;
 	}
+
+	@Override
+	public boolean checksNodeContentAndPositionOnly() {
+		return true;
+	}
 }
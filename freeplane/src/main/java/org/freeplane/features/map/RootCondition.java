@@ -23,4 +23,9 @@ public class RootCondition extends ASelectableCondition {
     protected String createDescription() {
 	    return TextUtils.getText(NodeLevelConditionController.FILTER_ROOT);
     }
+
+	@Override
+	public boolean checksNodeContentAndPositionOnly() {
+		return true;
+	}
 }
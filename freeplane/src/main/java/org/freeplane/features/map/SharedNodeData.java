@@ -31,6 +31,7 @@ public class SharedNodeData {
 	final private ExtensionContainer extensionContainer;
 	private HistoryInformationModel historyInformation;
 	final private NodeIconSetModel icons;
+	/** null if it is derived from {@link #xmlText} */
 	private Object userObject;
 	private String xmlText;
 	private boolean folded;
@@ -58,6 +59,11 @@ public class SharedNodeData {
 	}
 
 	public Object getUserObject() {
+		final Object userObject = this.userObject;
+		final String xmlText = this.xmlText;
+		if (userObject == null && xmlText != null) {
+			return HtmlUtils.toCachedHtml(xmlText);
+		}
 		return userObject;
 	}
 
@@ -75,9 +81,14 @@ public class SharedNodeData {
 		return xmlText;
 	}
 
+	/**
+	 * Keeps only the xml text, the html user object equals it unless the xml contains slashed tags.
+	 * Otherwise the user object is converted on access and kept only by a bounded cache shared by all nodes,
+	 * so that each node keeps a single copy of its text.
+	 */
 	public void setXmlText(String content) {
 		xmlText = XmlUtils.replaceAscii0BySpace(content);
-		userObject = HtmlUtils.toHtml(xmlText);
+		userObject = xmlText.contains("/>") ? null : xmlText;
 	}
 
 	public void setText(String text) {
@@ -123,6 +123,7 @@ public class MMapController extends MapController {
     public static final int NEW_SIBLING_BEFORE = 4;
     public static final int NEW_SIBLING_BEHIND = 3;
     public static final String RESOURCES_CONVERT_TO_CURRENT_VERSION = "convert_to_current_version";
+    private static final int ESTIMATED_NODE_SIZE = 500;
 
     public MMapController(ModeController modeController) {
         super(modeController);
@@ -446,9 +447,15 @@ public class MMapController extends MapController {
     public void convertClonesToIndependentNodes(final NodeModel node){
         final MLinkController linkController = (MLinkController) MLinkController.getController();
         if(node.isCloneTreeRoot()){
-            linkController.deleteMapLinksForClone(node);
-            convertCloneToNode(node);
-            linkController.insertMapLinksForClone(node);
+            startNodeChangeBatch();
+            try {
+                linkController.deleteMapLinksForClone(node);
+                convertCloneToNode(node);
+                linkController.insertMapLinksForClone(node);
+            }
+            finally {
+                commitNodeChangeBatch();
+            }
         }
     }
 
@@ -527,10 +534,24 @@ public class MMapController extends MapController {
             public void undo() {
                 (Controller.getCurrentModeController().getMapController()).insertNodeIntoWithoutUndo(node, parentNode, index);
             }
+
+            @Override
+            public long getEstimatedSize() {
+                return estimateSubtreeSize(node);
+            }
         };
         Controller.getCurrentModeController().execute(actor, parentNode.getMap());
     }
 
+    /** Approximates the memory of a subtree removed from the map, which only undo keeps. */
+    private static long estimateSubtreeSize(final NodeModel node) {
+        long size = ESTIMATED_NODE_SIZE + IActor.estimateSize(node.getUserObject());
+        for (final NodeModel child : node.getChildren()) {
+            size += estimateSubtreeSize(child);
+        }
+        return size;
+    }
+
     private void deleteWithoutUndo(final NodeModel parent, final int index) {
         final NodeModel child = parent.getChildAt(index);
         final NodeDeletionEvent nodeDeletionEvent = new NodeDeletionEvent(parent, child, index);
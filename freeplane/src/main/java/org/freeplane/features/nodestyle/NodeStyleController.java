@@ -23,6 +23,7 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.font.TextAttribute;
 import java.util.Collection;
+import java.util.function.BiFunction;
 
 import org.freeplane.api.LengthUnit;
 import org.freeplane.api.Quantity;
@@ -47,6 +48,7 @@ import org.freeplane.features.styles.IStyle;
 import org.freeplane.features.styles.LogicalStyleController;
 import org.freeplane.features.styles.LogicalStyleController.StyleOption;
 import org.freeplane.features.styles.MapStyleModel;
+import org.freeplane.features.styles.ResolvedStyles;
 
 /**
  * @author Dimitry Polivaev
@@ -79,6 +81,21 @@ public class NodeStyleController implements IExtension {
 	private static final Quantity<LengthUnit> DEFAULT_MINIMUM_WIDTH = new Quantity<LengthUnit>(0, LengthUnit.cm);
 	private static final Quantity<LengthUnit> DEFAULT_MAXIMUM_WIDTH = new Quantity<LengthUnit>(10, LengthUnit.cm);
 
+	private static final ResolvedStyles.Property<NodeCss> STYLE_SHEET = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Color> BACKGROUND_COLOR = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Color> TEXT_COLOR = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Font> FONT = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<HorizontalTextAlignment> HORIZONTAL_TEXT_ALIGNMENT = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<NodeGeometryModel> SHAPE_CONFIGURATION = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Quantity<LengthUnit>> MAX_WIDTH = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Quantity<LengthUnit>> MIN_WIDTH = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Boolean> BORDER_WIDTH_MATCHES_EDGE_WIDTH = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Boolean> BORDER_DASH_MATCHES_EDGE_DASH = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Boolean> BORDER_COLOR_MATCHES_EDGE_COLOR = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Quantity<LengthUnit>> BORDER_WIDTH = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<DashVariant> BORDER_DASH = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<Color> BORDER_COLOR = new ResolvedStyles.Property<>();
+
 	public NodeStyleController(final ModeController modeController) {
 		this.modeController = modeController;
 		new NodeCssHook();
@@ -151,8 +168,14 @@ public class NodeStyleController implements IExtension {
 		styleBuilder.registerBy(readManager, writeManager);
 	}
 	
+	private <V> V getResolvedProperty(final NodeModel node, final StyleOption option,
+	                                  final ResolvedStyles.Property<V> property, final BiFunction<NodeModel, StyleOption, V> resolver) {
+		return LogicalStyleController.getController(modeController).getResolvedProperty(node, option, property, resolver);
+	}
+
 	public NodeCss getStyleSheet(NodeModel node, LogicalStyleController.StyleOption option) {
-		return getStyleSheet(node.getMap(), LogicalStyleController.getController(modeController).getStyles(node, option));
+		return getResolvedProperty(node, option, STYLE_SHEET, (n, o) ->
+			getStyleSheet(n.getMap(), LogicalStyleController.getController(modeController).getStyles(n, o)));
 	}
 	
 	 private NodeCss getStyleSheet(final MapModel map, final Collection<IStyle> style) {
@@ -173,11 +196,11 @@ public class NodeStyleController implements IExtension {
 
 
 	public Color getBackgroundColor(final NodeModel node, StyleOption option) {
-		return backgroundColorHandlers.getProperty(node, option);
+		return getResolvedProperty(node, option, BACKGROUND_COLOR, backgroundColorHandlers::getProperty);
 	}
 
 	public Color getColor(final NodeModel node, StyleOption option) {
-		return textColorHandlers.getProperty(node, option);
+		return getResolvedProperty(node, option, TEXT_COLOR, textColorHandlers::getProperty);
 	}
 
 	private Color getStyleBackgroundColor(final MapModel map, final Collection<IStyle> styleKeys) {
@@ -410,7 +433,7 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public HorizontalTextAlignment getHorizontalTextAlignment(final NodeModel node, StyleOption option) {
-		return horizontalTextAlignmentHandlers.getProperty(node, option);
+		return getResolvedProperty(node, option, HORIZONTAL_TEXT_ALIGNMENT, horizontalTextAlignmentHandlers::getProperty);
 	}
 
 	private Font createFont(final Font baseFont, String family, Integer size, Boolean bold, Boolean italic, Boolean strikedThrough) {
@@ -504,7 +527,7 @@ public class NodeStyleController implements IExtension {
 		return null;
 	}
 	public Font getFont(final NodeModel node, StyleOption option) {
-		final Font font = fontHandlers.getProperty(node, option, null);
+		final Font font = getResolvedProperty(node, option, FONT, (n, o) -> fontHandlers.getProperty(n, o, null));
 		return font;
 	}
 
@@ -519,12 +542,12 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public NodeStyleShape getShape(final NodeModel node, StyleOption option) {
-		final NodeGeometryModel shapeConfiguration = shapeHandlers.getProperty(node, option);
+		final NodeGeometryModel shapeConfiguration = getShapeConfiguration(node, option);
 		return shapeConfiguration.getShape();
 	}
 	
 	public NodeGeometryModel getShapeConfiguration(NodeModel node, StyleOption option) {
-		final NodeGeometryModel shapeConfiguration = shapeHandlers.getProperty(node, option);
+		final NodeGeometryModel shapeConfiguration = getResolvedProperty(node, option, SHAPE_CONFIGURATION, shapeHandlers::getProperty);
 		return shapeConfiguration;
 	}
 
@@ -574,6 +597,10 @@ public class NodeStyleController implements IExtension {
     }
 
 	public Quantity<LengthUnit> getMaxWidth(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, MAX_WIDTH, this::getMaxWidthOfStyles);
+	}
+
+	private Quantity<LengthUnit> getMaxWidthOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> style = styleController.getStyles(node, option);
@@ -582,6 +609,10 @@ public class NodeStyleController implements IExtension {
     }
 
 	public Quantity<LengthUnit> getMinWidth(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, MIN_WIDTH, this::getMinWidthOfStyles);
+	}
+
+	private Quantity<LengthUnit> getMinWidthOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> styles = styleController.getStyles(node, option);
@@ -594,6 +625,10 @@ public class NodeStyleController implements IExtension {
     }
 
 	public Boolean getBorderWidthMatchesEdgeWidth(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, BORDER_WIDTH_MATCHES_EDGE_WIDTH, this::getBorderWidthMatchesEdgeWidthOfStyles);
+	}
+
+	private Boolean getBorderWidthMatchesEdgeWidthOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> style = styleController.getStyles(node, option);
@@ -602,6 +637,10 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public Boolean getBorderDashMatchesEdgeDash(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, BORDER_DASH_MATCHES_EDGE_DASH, this::getBorderDashMatchesEdgeDashOfStyles);
+	}
+
+	private Boolean getBorderDashMatchesEdgeDashOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> style = styleController.getStyles(node, option);
@@ -610,6 +649,10 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public Quantity<LengthUnit> getBorderWidth(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, BORDER_WIDTH, this::getBorderWidthOfStyles);
+	}
+
+	private Quantity<LengthUnit> getBorderWidthOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> style = styleController.getStyles(node, option);
@@ -618,6 +661,10 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public DashVariant getBorderDash(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, BORDER_DASH, this::getBorderDashOfStyles);
+	}
+
+	private DashVariant getBorderDashOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> style = styleController.getStyles(node, option);
@@ -626,6 +673,10 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public Boolean getBorderColorMatchesEdgeColor(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, BORDER_COLOR_MATCHES_EDGE_COLOR, this::getBorderColorMatchesEdgeColorOfStyles);
+	}
+
+	private Boolean getBorderColorMatchesEdgeColorOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> style = styleController.getStyles(node, option);
@@ -634,6 +685,10 @@ public class NodeStyleController implements IExtension {
 	}
 
 	public Color getBorderColor(NodeModel node, StyleOption option) {
+		return getResolvedProperty(node, option, BORDER_COLOR, this::getBorderColorOfStyles);
+	}
+
+	private Color getBorderColorOfStyles(NodeModel node, StyleOption option) {
 		final MapModel map = node.getMap();
 		final LogicalStyleController styleController = LogicalStyleController.getController(modeController);
 		final Collection<IStyle> style = styleController.getStyles(node, option);
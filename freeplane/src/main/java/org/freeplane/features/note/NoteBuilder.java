@@ -22,6 +22,7 @@ package org.freeplane.features.note;
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.io.IElementContentHandler;
 import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeTextStore;
 import org.freeplane.features.text.ContentSyntax;
 import org.freeplane.features.text.NodeTextBuilder;
 import org.freeplane.n3.nanoxml.XMLElement;
@@ -58,10 +59,11 @@ class NoteBuilder implements IElementContentHandler {
 	        final Object typeAttribute = element.getAttribute(NodeTextBuilder.XML_RICHCONTENT_TYPE_ATTRIBUTE, null);
 			if (NodeTextBuilder.XML_RICHCONTENT_TYPE_NOTE.equals(typeAttribute)) {
 				final NoteModel note = new NoteModel();
+				final String sharedText = NodeTextStore.intern(((NodeModel) node).getMap(), text);
 	            if(containsXml(element))
-	                note.setXml(text);
+	                note.setXml(sharedText);
 	            else
-	                note.setText(text);
+	                note.setText(sharedText);
 	            final String contentType = element.getAttribute(
 	                    NodeTextBuilder.XML_RICHCONTENT_CONTENT_TYPE_ATTRIBUTE, 
 	                    ContentSyntax.XML.prefix);
@@ -136,22 +136,34 @@ public class ConditionalStyleModel implements IExtension, Iterable<ConditionalSt
 		}
 		try{
 			isDisabled = true;
-			Collection<IStyle> matchingStyles = new LinkedHashSet<IStyle>();
-			for(Item item : styles){
-				final ASelectableCondition condition = item.getCondition();
-				if( item.isActive() && (condition == null || condition.checkNode(node))){
-					matchingStyles.add(item.style);
-					if(item.isLast()){
-						break;
-					}
-				}
-			}
-			return matchingStyles;
+			final ConditionalStyleResults.Table results = ConditionalStyleResults.getTable(node, this);
+			if(results == null)
+				return evaluateStyles(node, null);
+			final Collection<IStyle> keptStyles = results.getStyles(node);
+			if(keptStyles != null)
+				return keptStyles;
+			return results.keepStyles(node, evaluateStyles(node, results));
 		}
 		finally{
 			isDisabled = false;
 		}
 	}
+
+	private Collection<IStyle> evaluateStyles(NodeModel node, ConditionalStyleResults.Table results) {
+		Collection<IStyle> matchingStyles = new LinkedHashSet<IStyle>();
+		for(int i = 0; i < styles.size(); i++){
+			final Item item = styles.get(i);
+			final ASelectableCondition condition = item.getCondition();
+			if( item.isActive() && (condition == null
+					|| (results != null ? results.checkNode(node, i, condition) : condition.checkNode(node)))){
+				matchingStyles.add(item.style);
+				if(item.isLast()){
+					break;
+				}
+			}
+		}
+		return matchingStyles;
+	}
 	
 	
 	
@@ -321,6 +333,10 @@ public class ConditionalStyleModel implements IExtension, Iterable<ConditionalSt
 		return conditionalStyleModel;
 	}
 
+    boolean checksNodeContentOnly() {
+        return styles.stream().allMatch(item -> ! item.isActive() || item.condition == null || item.condition.checksNodeContentOnly());
+    }
+
     boolean dependsOnConditionRecursively(ConditionPredicate predicate) {
         return styles.stream().anyMatch(item -> item.dependsOnConditionRecursively(predicate));
     }
@@ -0,0 +1,165 @@
+package org.freeplane.features.styles;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.freeplane.features.filter.condition.ASelectableCondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeCache;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.ConditionalStyleModel.Item;
+
+/**
+ * Results of conditional style conditions kept for the nodes of a map,
+ * so that repainting and layout do not check all conditions of all conditional styles again.
+ * <p>
+ * Only results of conditions which check the node content or the node position are kept.
+ * They are removed as described in {@link NodeCache}.
+ * Results of a conditional style model are dropped as soon as its items differ from the items they were kept for.
+ */
+class ConditionalStyleResults extends NodeCache {
+	private static final byte UNKNOWN = 0;
+	private static final byte NOT_SATISFIED = 1;
+	private static final byte SATISFIED = 2;
+
+	/** Condition results of one conditional style model, valid as long as the model items are unchanged. */
+	static class Table {
+		final private List<Item> items;
+		final private Item[] itemSnapshot;
+		final private ASelectableCondition[] conditions;
+		final private IStyle[] styles;
+		final private boolean[] activeItems;
+		final private boolean[] lastItems;
+		final private boolean[] keepsResults;
+		final private boolean keepsStyles;
+		final private Map<NodeModel, NodeResults> results = new WeakHashMap<>();
+
+		private Table(final List<Item> items) {
+			this.items = items;
+			final int size = items.size();
+			itemSnapshot = items.toArray(new Item[size]);
+			conditions = new ASelectableCondition[size];
+			styles = new IStyle[size];
+			activeItems = new boolean[size];
+			lastItems = new boolean[size];
+			keepsResults = new boolean[size];
+			boolean keepsAllResults = true;
+			for (int i = 0; i < size; i++) {
+				final Item item = itemSnapshot[i];
+				conditions[i] = item.getCondition();
+				styles[i] = item.getStyle();
+				activeItems[i] = item.isActive();
+				lastItems[i] = item.isLast();
+				keepsResults[i] = conditions[i] != null && conditions[i].checksNodeContentAndPositionOnly();
+				keepsAllResults &= !activeItems[i] || conditions[i] == null || keepsResults[i];
+			}
+			keepsStyles = keepsAllResults;
+		}
+
+		private boolean isUpToDate(final List<Item> currentItems) {
+			if (currentItems != items || currentItems.size() != itemSnapshot.length) {
+				return false;
+			}
+			for (int i = 0; i < itemSnapshot.length; i++) {
+				final Item item = currentItems.get(i);
+				if (item != itemSnapshot[i] || item.getCondition() != conditions[i] || item.getStyle() != styles[i]
+				        || item.isActive() != activeItems[i] || item.isLast() != lastItems[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/** Returns the styles kept for the node, or null if they are unknown or can not be kept. */
+		synchronized Collection<IStyle> getStyles(final NodeModel node) {
+			final NodeResults nodeResults = results.get(node);
+			return nodeResults != null ? nodeResults.styles : null;
+		}
+
+		/** Keeps the styles if all conditions can be kept and returns the collection to be used by callers. */
+		Collection<IStyle> keepStyles(final NodeModel node, final Collection<IStyle> matchingStyles) {
+			if (!keepsStyles) {
+				return matchingStyles;
+			}
+			final Collection<IStyle> styles = Collections.unmodifiableCollection(matchingStyles);
+			synchronized (this) {
+				nodeResults(node).styles = styles;
+			}
+			return styles;
+		}
+
+		boolean checkNode(final NodeModel node, final int index, final ASelectableCondition condition) {
+			if (!keepsResults[index]) {
+				return condition.checkNode(node);
+			}
+			synchronized (this) {
+				final NodeResults nodeResults = results.get(node);
+				if (nodeResults != null && nodeResults.conditionResults[index] != UNKNOWN) {
+					return nodeResults.conditionResults[index] == SATISFIED;
+				}
+			}
+			final boolean satisfied = condition.checkNode(node);
+			synchronized (this) {
+				nodeResults(node).conditionResults[index] = satisfied ? SATISFIED : NOT_SATISFIED;
+			}
+			return satisfied;
+		}
+
+		private NodeResults nodeResults(final NodeModel node) {
+			return results.computeIfAbsent(node, x -> new NodeResults(itemSnapshot.length));
+		}
+
+		private synchronized void remove(final NodeModel node) {
+			results.remove(node);
+		}
+	}
+
+	private static class NodeResults {
+		final private byte[] conditionResults;
+		private Collection<IStyle> styles;
+
+		private NodeResults(final int conditionCount) {
+			conditionResults = new byte[conditionCount];
+		}
+	}
+
+	/** Returns the results of the model for nodes of the map of the node, or null if results are not kept for the node. */
+	static Table getTable(final NodeModel node, final ConditionalStyleModel model) {
+		final MapModel map = node.getMap();
+		if (map == null || map instanceof StyleMapModel) {
+			return null;
+		}
+		return of(map, ConditionalStyleResults.class, ConditionalStyleResults::new).getTable(model);
+	}
+
+	final private Map<ConditionalStyleModel, Table> tables = new WeakHashMap<>();
+
+	private ConditionalStyleResults() {
+	}
+
+	private synchronized Table getTable(final ConditionalStyleModel model) {
+		clearIfInvalidated();
+		final List<Item> items = model.getStyles();
+		Table table = tables.get(model);
+		if (table == null || !table.isUpToDate(items)) {
+			table = new Table(items);
+			tables.put(model, table);
+		}
+		return table;
+	}
+
+	@Override
+	protected synchronized void removeNode(final NodeModel node) {
+		for (final Table table : tables.values()) {
+			table.remove(node);
+		}
+	}
+
+	@Override
+	protected synchronized void clear() {
+		tables.clear();
+	}
+}
@@ -27,6 +27,7 @@ import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.io.IAttributeHandler;
@@ -68,9 +69,29 @@ public class LogicalStyleController implements IExtension {
 	public static enum StyleOption{FOR_SELECTED_NODE, FOR_UNSELECTED_NODE, STYLES_ONLY}
 
     private static final int STYLE_TOOLTIP = 0;
-	private WeakReference<NodeModel> cachedNode;
-    private Collection<IStyle>  cachedStyles;
-    private List<IStyle>  cachedStylesForSeletedNode;
+
+	/** Styles of a node together with whether any conditional style adding them checks more than the node content. */
+	private static class StyleSet extends LinkedHashSet<IStyle> {
+		private static final long serialVersionUID = 1L;
+		private boolean dependsOnOtherNodes;
+	}
+
+	/** Styles of the last node, replaced as a whole so that threads never combine styles of different nodes. */
+	private static class CachedStyles {
+		final private WeakReference<NodeModel> node;
+		final private StyleSet styles;
+		final private List<IStyle> stylesForSelectedNode;
+
+		CachedStyles(final NodeModel node, final StyleSet styles) {
+			this.node = new WeakReference<NodeModel>(node);
+			this.styles = styles;
+			stylesForSelectedNode = new ArrayList<>(styles.size() + 1);
+			stylesForSelectedNode.add(MapStyleModel.SELECTION_STYLE);
+			stylesForSelectedNode.addAll(styles);
+		}
+	}
+
+	private volatile CachedStyles cachedStyles;
 	final private CombinedPropertyChain<Collection<IStyle>, NodeModel> styleHandlers;
 
 	public LogicalStyleController(ModeController modeController) {
@@ -90,7 +111,10 @@ public class LogicalStyleController implements IExtension {
 				MapModel map = node.getMap();
 				if(! (map instanceof StyleMapModel)) {
 					final MapStyleModel styleModel = MapStyleModel.getExtension(map);
-					Collection<IStyle> condStyles = styleModel.getConditionalStyleModel().getStyles(node);
+					final ConditionalStyleModel conditionalStyleModel = styleModel.getConditionalStyleModel();
+					if(! conditionalStyleModel.checksNodeContentOnly())
+						markDependencyOnOtherNodes(currentValue);
+					Collection<IStyle> condStyles = conditionalStyleModel.getStyles(node);
 					addAll(node, styleModel, currentValue, condStyles);
 				}
 				return currentValue;
@@ -150,11 +174,18 @@ public class LogicalStyleController implements IExtension {
 			final ConditionalStyleModel conditionalStyleModel = styleNode.getExtension(ConditionalStyleModel.class);
 			if(conditionalStyleModel == null)
 				return;
+			if(! conditionalStyleModel.checksNodeContentOnly())
+				markDependencyOnOtherNodes(currentValue);
 			Collection<IStyle> styles = conditionalStyleModel.getStyles(node);
-			cachedNode = null;
+			cachedStyles = null;
 			addAll(node, styleModel, currentValue, styles);
     }
 
+	private static void markDependencyOnOtherNodes(final Collection<IStyle> styles) {
+		if (styles instanceof StyleSet)
+			((StyleSet) styles).dependsOnOtherNodes = true;
+	}
+
 	private void registerChangeListener() {
 		ModeController modeController = Controller.getCurrentModeController();
 		final MapController mapController = modeController.getMapController();
@@ -310,18 +341,37 @@ public class LogicalStyleController implements IExtension {
 		return MapStyleModel.DEFAULT_STYLE;
 	}
 	public Collection<IStyle>  getStyles(final NodeModel node, StyleOption option) {
-		if(cachedNode == null || !node.equals(cachedNode.get())) {
+		final CachedStyles styles = getCachedStyles(node, option);
+		return option == StyleOption.FOR_SELECTED_NODE ? styles.stylesForSelectedNode :
+		    option == StyleOption.FOR_UNSELECTED_NODE ? styles.styles :
+		        styles.stylesForSelectedNode.subList(2, styles.stylesForSelectedNode.size())    ;
+	}
+
+	private CachedStyles getCachedStyles(final NodeModel node, StyleOption option) {
+		CachedStyles styles = cachedStyles;
+		if(styles == null || !node.equals(styles.node.get())) {
 		    cachedStyles = null;
-		    cachedNode = null;
-		    cachedStyles = styleHandlers.getProperty(node, option, new LinkedHashSet<IStyle>());
-		    cachedNode = new WeakReference<NodeModel>(node);
-		    cachedStylesForSeletedNode = new ArrayList<>(cachedStyles.size() + 1);
-		    cachedStylesForSeletedNode.add(MapStyleModel.SELECTION_STYLE);
-		    cachedStylesForSeletedNode.addAll(cachedStyles);
+		    final StyleSet styleSet = new StyleSet();
+		    final Collection<IStyle> resolvedStyles = styleHandlers.getProperty(node, option, styleSet);
+		    if (resolvedStyles != styleSet) {
+		    	styleSet.clear();
+		    	styleSet.addAll(resolvedStyles);
+		    }
+		    styles = new CachedStyles(node, styleSet);
+		    cachedStyles = styles;
 		}
-		return option == StyleOption.FOR_SELECTED_NODE ? cachedStylesForSeletedNode :
-		    option == StyleOption.FOR_UNSELECTED_NODE ? cachedStyles :
-		        cachedStylesForSeletedNode.subList(2, cachedStylesForSeletedNode.size())    ;
+		return styles;
+	}
+
+	/** Returns true if conditional styles applied to the node check other nodes or anything else than the node content. */
+	public boolean stylesDependOnOtherNodes(final NodeModel node) {
+		return getCachedStyles(node, StyleOption.FOR_UNSELECTED_NODE).styles.dependsOnOtherNodes;
+	}
+
+	/** Returns the property value resolved for the node and kept until the node, its styles or the map change. */
+	public <V> V getResolvedProperty(final NodeModel node, final StyleOption option, final ResolvedStyles.Property<V> property,
+	                                 final BiFunction<NodeModel, StyleOption, V> resolver) {
+		return ResolvedStyles.get(node, option, property, resolver, this::stylesDependOnOtherNodes);
 	}
 
 	public void moveConditionalStyleDown(final ConditionalStyleModel conditionalStyleModel, int index) {
@@ -348,7 +398,6 @@ public class LogicalStyleController implements IExtension {
 
 	private void clearCache() {
 	    cachedStyles = null;
-	    cachedNode = null;
     }
 
 	public IPropertyHandler<Collection<IStyle>, NodeModel> addStyleGetter(
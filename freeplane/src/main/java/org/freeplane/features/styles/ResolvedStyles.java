@@ -0,0 +1,124 @@
+package org.freeplane.features.styles;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeCache;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+
+/**
+ * Node properties resolved from the node and its styles, kept for each node of a map and each style option,
+ * so that layout and painting do not resolve the styles of a node again for each property.
+ * <p>
+ * Properties are removed as described in {@link NodeCache}, and all properties of a map on changes of its root.
+ * Properties of nodes whose conditional styles check other nodes are removed on each change of any node of the map.
+ */
+public class ResolvedStyles extends NodeCache {
+	private static final int OPTION_COUNT = StyleOption.values().length;
+	private static final Object NOT_RESOLVED = new Object();
+	private static final AtomicInteger propertyCount = new AtomicInteger();
+
+	public static final class Property<V> {
+		final private int index;
+
+		public Property() {
+			index = propertyCount.getAndIncrement();
+		}
+	}
+
+	/**
+	 * Returns the property value kept for the node or resolves it.
+	 * @param dependsOnOtherNodes tells after the resolution, whether the styles of the node depend on other nodes
+	 */
+	static <V> V get(final NodeModel node, final StyleOption option, final Property<V> property,
+	                 final BiFunction<NodeModel, StyleOption, V> resolver, final Predicate<NodeModel> dependsOnOtherNodes) {
+		final MapModel map = node.getMap();
+		if (map == null || map instanceof StyleMapModel) {
+			return resolver.apply(node, option);
+		}
+		return of(map, ResolvedStyles.class, ResolvedStyles::new).getValue(node, option, property, resolver, dependsOnOtherNodes);
+	}
+
+	final private Map<NodeModel, Object[]> values = new WeakHashMap<NodeModel, Object[]>();
+	final private Set<NodeModel> nodesDependingOnOtherNodes = Collections.newSetFromMap(new WeakHashMap<NodeModel, Boolean>());
+	private int removalCount = 0;
+
+	private ResolvedStyles() {
+	}
+
+	@SuppressWarnings("unchecked")
+	private <V> V getValue(final NodeModel node, final StyleOption option, final Property<V> property,
+	                       final BiFunction<NodeModel, StyleOption, V> resolver, final Predicate<NodeModel> dependsOnOtherNodes) {
+		final int slot = property.index * OPTION_COUNT + option.ordinal();
+		final int removalCountBeforeResolution;
+		synchronized (this) {
+			clearIfInvalidated();
+			final Object[] nodeValues = values.get(node);
+			if (nodeValues != null && slot < nodeValues.length && nodeValues[slot] != NOT_RESOLVED) {
+				return (V) nodeValues[slot];
+			}
+			removalCountBeforeResolution = removalCount;
+		}
+		final V value = resolver.apply(node, option);
+		final boolean dependsOnOthers = dependsOnOtherNodes.test(node);
+		synchronized (this) {
+			if (removalCount != removalCountBeforeResolution) {
+				return value;
+			}
+			Object[] nodeValues = values.get(node);
+			if (nodeValues == null || slot >= nodeValues.length) {
+				nodeValues = newValues(nodeValues);
+				values.put(node, nodeValues);
+			}
+			nodeValues[slot] = value;
+			if (dependsOnOthers) {
+				nodesDependingOnOtherNodes.add(node);
+			}
+		}
+		return value;
+	}
+
+	private static Object[] newValues(final Object[] oldValues) {
+		final int oldLength = oldValues == null ? 0 : oldValues.length;
+		final Object[] nodeValues = oldValues == null ? new Object[propertyCount.get() * OPTION_COUNT]
+		        : Arrays.copyOf(oldValues, propertyCount.get() * OPTION_COUNT);
+		Arrays.fill(nodeValues, oldLength, nodeValues.length, NOT_RESOLVED);
+		return nodeValues;
+	}
+
+	@Override
+	protected void nodeChanged(final NodeModel node) {
+		if (node.isRoot()) {
+			clear();
+		}
+		else {
+			removeNode(node);
+		}
+	}
+
+	@Override
+	protected synchronized void removeNode(final NodeModel node) {
+		removalCount++;
+		values.remove(node);
+		nodesDependingOnOtherNodes.remove(node);
+		for (final NodeModel dependentNode : nodesDependingOnOtherNodes) {
+			values.remove(dependentNode);
+		}
+		nodesDependingOnOtherNodes.clear();
+	}
+
+	@Override
+	protected synchronized void clear() {
+		removalCount++;
+		values.clear();
+		nodesDependingOnOtherNodes.clear();
+	}
+}
@@ -30,7 +30,7 @@ import org.freeplane.features.map.NodeChangeAnnouncer;
  * @author Dimitry Polivaev
  * Feb 6, 2011
  */
-class StyleMapModel extends MapModel {
+public class StyleMapModel extends MapModel {
     private static final String STYLES = "styles";
 
     StyleMapModel(INodeDuplicator nodeDuplicator, IconRegistry iconRegistry, AttributeRegistry attributeRegistry, NodeChangeAnnouncer nodeChangeAnnouncer) {
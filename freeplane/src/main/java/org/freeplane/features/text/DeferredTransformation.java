@@ -0,0 +1,58 @@
+package org.freeplane.features.text;
+
+/**
+ * Lets slow content transformers return a preliminary result while the node views on the screen are updated,
+ * e.g. the source text while a rendering is computed in background, and refresh the node when the final result is ready.
+ * All other callers, e.g. exports, printing and the clipboard, get the final result.
+ * Preliminary results are not kept by {@link TransformedObjects}.
+ */
+public class DeferredTransformation {
+	private static class State {
+		boolean allowed;
+		boolean deferred;
+	}
+
+	private static final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+	/** Returns whether the current transformation may return a preliminary result. */
+	public static boolean isAllowed() {
+		return state.get().allowed;
+	}
+
+	/** Marks the result of the current transformation as preliminary. */
+	public static void defer() {
+		state.get().deferred = true;
+	}
+
+	interface Transformation<T> {
+		T transform() throws TransformationException;
+	}
+
+	static <T> T allowWhile(final Transformation<T> transformation) throws TransformationException {
+		final State currentState = state.get();
+		final boolean wasAllowed = currentState.allowed;
+		currentState.allowed = true;
+		try {
+			return transformation.transform();
+		}
+		finally {
+			currentState.allowed = wasAllowed;
+		}
+	}
+
+	/** Starts a transformation and returns whether the enclosing transformation was deferred until now. */
+	static boolean start() {
+		final State currentState = state.get();
+		final boolean deferred = currentState.deferred;
+		currentState.deferred = false;
+		return deferred;
+	}
+
+	/** Ends a transformation, returns whether it was deferred and passes it on to the enclosing transformation. */
+	static boolean end(final boolean enclosingTransformationDeferred) {
+		final State currentState = state.get();
+		final boolean deferred = currentState.deferred;
+		currentState.deferred = deferred || enclosingTransformationDeferred;
+		return deferred;
+	}
+}
@@ -14,4 +14,9 @@ public interface IContentTransformer extends Comparable<IContentTransformer> {
 	int getPriority();
 	
 	boolean markTransformation();
+
+	/** Returns false if the result for the content can change without a change of the node, so that it must not be kept. */
+	default boolean canKeepResult(Object content) {
+		return true;
+	}
 }
@@ -39,6 +39,7 @@ import org.freeplane.features.format.IFormattedObject;
 import org.freeplane.features.map.MapWriter;
 import org.freeplane.features.map.NodeBuilder;
 import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeTextStore;
 import org.freeplane.features.map.NodeWriter;
 import org.freeplane.features.styles.StyleFactory;
 import org.freeplane.features.styles.StyleString;
@@ -94,10 +95,11 @@ public class NodeTextBuilder implements IElementContentHandler, IElementWriter,
 		else if (NodeTextBuilder.XML_RICHCONTENT_TYPE_DETAILS.equals(type)) {
 			final boolean hidden = "true".equals(element.getAttribute("HIDDEN", "false"));
 			final DetailModel details = new DetailModel(hidden);
+			final String sharedText = NodeTextStore.intern(nodeModel.getMap(), text);
 			if(containsXml(element))
-			    details.setXml(text);
+			    details.setXml(sharedText);
 			else
-			    details.setText(text);
+			    details.setText(sharedText);
             final String contentType = element.getAttribute(
                     NodeTextBuilder.XML_RICHCONTENT_CONTENT_TYPE_ATTRIBUTE, 
                     ContentSyntax.XML.prefix);
@@ -188,30 +188,35 @@ class NodeTextConditionController implements IElementaryConditionController {
 	}
 
 	private static Object getItemForComparison(Object nodeItem, final NodeModel node) {
-		final Object result;
 		if(nodeItem.equals(TextController.FILTER_NODE)){
-			result = transformedObject(node);
+			return NodeTextIndex.getItem(node, NodeTextIndex.NODE_TEXT,
+			    n -> toPlainText(transformedObject(n)));
 		}
 		else if(nodeItem.equals(TextController.FILTER_PARENT_TEXT)){
 			final NodeModel parentNode = node.getParentNode();
 			if(parentNode == null)
-				result = null;
+				return null;
 			else
-				result = transformedObject(parentNode);
+				return getItemForComparison(TextController.FILTER_NODE, parentNode);
 		}
 		else if(nodeItem.equals(TextController.FILTER_DETAILS)){
-			result = DetailModel.getDetailText(node);
+			return NodeTextIndex.getItem(node, NodeTextIndex.DETAILS,
+			    n -> toPlainText(DetailModel.getDetailText(n)));
 		}
 		else if(nodeItem.equals(TextController.FILTER_NOTE)){
-			result = NoteModel.getNoteText(node);
+			return NodeTextIndex.getItem(node, NodeTextIndex.NOTE,
+			    n -> toPlainText(NoteModel.getNoteText(n)));
 		}
 		else
-			result = null;
-		if(result instanceof String)
-			return HtmlUtils.htmlToPlain((String)result);
-		return result;
+			return null;
     }
 
+	private static Object toPlainText(final Object item) {
+		if(item instanceof String)
+			return HtmlUtils.htmlToPlain((String)item);
+		return item;
+	}
+
 	private static Object transformedObject(final NodeModel node) {
 		TextController textController = TextController.getController();
         Object object = textController.withNodeNumbering( false, () -> textController.getTransformedObjectNoThrow(node));
@@ -0,0 +1,77 @@
+package org.freeplane.features.text;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeCache;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Plain text of node items compared by text filter conditions, kept for each node of a map.
+ * <p>
+ * Calculating the items runs the content transformers and converts html to plain text,
+ * which takes much longer than the comparison itself,
+ * so that filtering and searching a big map repeatedly calculates them only once.
+ * Items are removed as described in {@link NodeCache}, but kept on changes of the map structure.
+ */
+class NodeTextIndex extends NodeCache {
+	static final int NODE_TEXT = 0;
+	static final int DETAILS = 1;
+	static final int NOTE = 2;
+	private static final int ITEM_COUNT = 3;
+	private static final Object NOT_CALCULATED = new Object();
+
+	static Object getItem(final NodeModel node, final int item, final Function<NodeModel, Object> calculation) {
+		final MapModel map = node.getMap();
+		if (map == null) {
+			return calculation.apply(node);
+		}
+		return of(map, NodeTextIndex.class, NodeTextIndex::new).get(node, item, calculation);
+	}
+
+	final private Map<NodeModel, Object[]> items = new WeakHashMap<NodeModel, Object[]>();
+
+	private NodeTextIndex() {
+	}
+
+	private Object get(final NodeModel node, final int item, final Function<NodeModel, Object> calculation) {
+		final Object[] nodeItems;
+		synchronized (this) {
+			clearIfInvalidated();
+			nodeItems = items.computeIfAbsent(node, x -> newItems());
+			final Object value = nodeItems[item];
+			if (value != NOT_CALCULATED) {
+				return value;
+			}
+		}
+		final Object value = calculation.apply(node);
+		synchronized (this) {
+			nodeItems[item] = value;
+		}
+		return value;
+	}
+
+	private static Object[] newItems() {
+		final Object[] nodeItems = new Object[ITEM_COUNT];
+		for (int i = 0; i < ITEM_COUNT; i++) {
+			nodeItems[i] = NOT_CALCULATED;
+		}
+		return nodeItems;
+	}
+
+	@Override
+	protected void structureChanged(final NodeModel parent, final NodeModel child) {
+	}
+
+	@Override
+	protected synchronized void removeNode(final NodeModel node) {
+		items.remove(node);
+	}
+
+	@Override
+	protected synchronized void clear() {
+		items.clear();
+	}
+}
@@ -6,6 +6,7 @@ import org.freeplane.core.util.XmlUtils;
 
 public class RichTextModel {
     private String contentType = null;
+	/** null if it is derived from {@link #xml}, converted html is kept only by a bounded cache shared by all models */
 	private String text = null;
 	private String xml = null;
 	
@@ -25,6 +26,11 @@ public class RichTextModel {
     }
 
     public String getText() {
+		final String text = this.text;
+		final String xml = this.xml;
+		if (text == null && xml != null) {
+			return HtmlUtils.toCachedHtml(xml);
+		}
 		return text;
 	}
 
@@ -56,7 +62,7 @@ public class RichTextModel {
 			return;
 		}
 		xml = XmlUtils.replaceAscii0BySpace(pXmlNoteText);
-		text = HtmlUtils.toHtml(xml);
+		text = xml.contains("/>") ? null : xml;
 	}
 
     public String getContentType() {
@@ -74,6 +80,7 @@ public class RichTextModel {
     }
 
 	public String getTextOr(String fallback) {
+		final String text = getText();
 		return text == null ? fallback : text;
 	}
 }
@@ -47,6 +47,7 @@ import org.freeplane.features.link.LinkController;
 import org.freeplane.features.map.ITooltipProvider;
 import org.freeplane.features.map.MapController;
 import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeCache;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.mode.Controller;
 import org.freeplane.features.mode.ModeController;
@@ -125,6 +126,7 @@ public class TextController implements IExtension {
     public void addTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.add(textTransformer);
 		Collections.sort(textTransformers);
+		NodeCache.invalidateAll();
 	}
 
 	public List<IContentTransformer> getTextTransformers() {
@@ -133,6 +135,7 @@ public class TextController implements IExtension {
 
 	public void removeTextTransformer(IContentTransformer textTransformer) {
 		textTransformers.remove(textTransformer);
+		NodeCache.invalidateAll();
 	}
 
 	public String getText(NodeModel nodeModel) {
@@ -143,9 +146,16 @@ public class TextController implements IExtension {
             throws TransformationException{
         return getTransformedObject(node, nodeProperty, content, Mode.VIEW);
     }
+
+    /** Like {@link #getTransformedObject(NodeModel, Object, Object)}, but lets transformers return
+     * a preliminary result for updating the node view on the screen, see {@link DeferredTransformation}. */
+    public Object getTransformedObjectForView(final NodeModel node, Object nodeProperty, Object content)
+            throws TransformationException{
+        return DeferredTransformation.allowWhile(() -> getTransformedObject(node, nodeProperty, content, Mode.VIEW));
+    }
     
-	private Object getTransformedObject(final NodeModel node, Object nodeProperty, Object content, Mode mode)
-	        throws TransformationException {
+	private Object getTransformedObject(final NodeModel node, final Object nodeProperty, final Object content,
+	                                    final Mode mode) throws TransformationException {
 		if (content instanceof String) {
 			String string = (String) content;
 			if (string.length() > 0 && string.charAt(0) == '\'') {
@@ -155,10 +165,19 @@ public class TextController implements IExtension {
 					return string.substring(1);
 			}
 		}
+		return TransformedObjects.get(node, nodeProperty, content, mode, nodeNumberingEnabled,
+		    () -> transform(node, nodeProperty, content, mode));
+	}
+
+	private TransformedObjects.Result transform(final NodeModel node, Object nodeProperty, Object content, Mode mode)
+	        throws TransformationException {
 		boolean markTransformation = false;
+		boolean canBeKept = true;
+		final boolean enclosingTransformationDeferred = DeferredTransformation.start();
 		for (IContentTransformer textTransformer : getTextTransformers()) {
 			try {
 				Object in = content;
+				canBeKept = canBeKept && textTransformer.canKeepResult(in);
 				content = textTransformer.transformContent(node, nodeProperty, in, this, mode);
 				markTransformation = markTransformation || textTransformer.markTransformation() && !in.equals(content);
 			}
@@ -166,10 +185,17 @@ public class TextController implements IExtension {
 				throw new TransformationException(e);
 			}
 		}
+		canBeKept = canBeKept && ! DeferredTransformation.end(enclosingTransformationDeferred)
+		        && ! stylesDependOnOtherNodes(node);
 		if (markTransformation)
-			return new HighlightedTransformedObject(content);
+			return new TransformedObjects.Result(new HighlightedTransformedObject(content), canBeKept);
 		else
-			return content;
+			return new TransformedObjects.Result(content, canBeKept);
+	}
+
+	private boolean stylesDependOnOtherNodes(final NodeModel node) {
+		final LogicalStyleController logicalStyleController = LogicalStyleController.getController(modeController);
+		return logicalStyleController != null && logicalStyleController.stylesDependOnOtherNodes(node);
 	}
 
 	public boolean isFormula(Object content) {
@@ -0,0 +1,155 @@
+package org.freeplane.features.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeCache;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.IContentTransformer.Mode;
+
+/**
+ * Results of the content transformers kept for each node of a map, node property, content and transformation mode,
+ * so that painting, tooltips, filters and exports do not run the transformers again for unchanged nodes.
+ * <p>
+ * Results are removed as described in {@link NodeCache} and when formulas depending on other nodes are updated.
+ * Results are not kept if any transformer reports that its result can change without a change of the node,
+ * or if the styles of the node depend on other nodes.
+ */
+public class TransformedObjects extends NodeCache {
+	private static final int MAXIMUM_RESULTS_PER_NODE = 32;
+	private static final AtomicLong hitCount = new AtomicLong();
+	private static final AtomicLong missCount = new AtomicLong();
+
+	/** Result of running the transformers, which may be kept unless a transformer depends on more than the node. */
+	static class Result {
+		final private Object transformedObject;
+		final private boolean canBeKept;
+
+		Result(final Object transformedObject, final boolean canBeKept) {
+			this.transformedObject = transformedObject;
+			this.canBeKept = canBeKept;
+		}
+	}
+
+	interface Transformation {
+		Result transform() throws TransformationException;
+	}
+
+	private static class Entry {
+		final private Object nodeProperty;
+		final private Object content;
+		final private Mode mode;
+		final private boolean nodeNumbering;
+		final private Object transformedObject;
+
+		private Entry(final Object nodeProperty, final Object content, final Mode mode, final boolean nodeNumbering,
+		              final Object transformedObject) {
+			this.nodeProperty = nodeProperty;
+			this.content = content;
+			this.mode = mode;
+			this.nodeNumbering = nodeNumbering;
+			this.transformedObject = transformedObject;
+		}
+
+		private boolean matches(final Object nodeProperty, final Object content, final Mode mode,
+		                        final boolean nodeNumbering) {
+			return this.nodeProperty == nodeProperty && this.mode == mode && this.nodeNumbering == nodeNumbering
+			        && (this.content == content || this.content.equals(content));
+		}
+	}
+
+	/** Removes the results of the node, called when the node or nodes its formulas depend on change. */
+	public static void remove(final NodeModel node) {
+		final MapModel map = node.getMap();
+		if (map != null) {
+			final TransformedObjects transformedObjects = map.getExtension(TransformedObjects.class);
+			if (transformedObjects != null) {
+				transformedObjects.removeNode(node);
+			}
+		}
+	}
+
+	/** Removes the results of all nodes of the map. */
+	public static void clear(final MapModel map) {
+		if (map != null) {
+			final TransformedObjects transformedObjects = map.getExtension(TransformedObjects.class);
+			if (transformedObjects != null) {
+				transformedObjects.clear();
+			}
+		}
+	}
+
+	/** Returns how often transformed objects were found since the start. */
+	public static long getHitCount() {
+		return hitCount.get();
+	}
+
+	/** Returns how often transformers had to run since the start. */
+	public static long getMissCount() {
+		return missCount.get();
+	}
+
+	static Object get(final NodeModel node, final Object nodeProperty, final Object content, final Mode mode,
+	                  final boolean nodeNumbering, final Transformation transformation) throws TransformationException {
+		final MapModel map = node == null ? null : node.getMap();
+		if (map == null || content == null) {
+			return transformation.transform().transformedObject;
+		}
+		return of(map, TransformedObjects.class, TransformedObjects::new).getResult(node, nodeProperty, content, mode, nodeNumbering, transformation);
+	}
+
+	final private Map<NodeModel, List<Entry>> results = new WeakHashMap<NodeModel, List<Entry>>();
+	private int removalCount = 0;
+
+	private TransformedObjects() {
+	}
+
+	private Object getResult(final NodeModel node, final Object nodeProperty, final Object content, final Mode mode,
+	                         final boolean nodeNumbering, final Transformation transformation)
+	        throws TransformationException {
+		final int removalCountBeforeTransformation;
+		synchronized (this) {
+			clearIfInvalidated();
+			final List<Entry> entries = results.get(node);
+			if (entries != null) {
+				for (final Entry entry : entries) {
+					if (entry.matches(nodeProperty, content, mode, nodeNumbering)) {
+						hitCount.incrementAndGet();
+						return entry.transformedObject;
+					}
+				}
+			}
+			removalCountBeforeTransformation = removalCount;
+		}
+		missCount.incrementAndGet();
+		final Result result = transformation.transform();
+		if (result.canBeKept) {
+			synchronized (this) {
+				if (removalCount == removalCountBeforeTransformation) {
+					final List<Entry> entries = results.computeIfAbsent(node, x -> new ArrayList<Entry>(2));
+					if (entries.size() == MAXIMUM_RESULTS_PER_NODE) {
+						entries.remove(0);
+					}
+					entries.add(new Entry(nodeProperty, content, mode, nodeNumbering, result.transformedObject));
+				}
+			}
+		}
+		return result.transformedObject;
+	}
+
+	@Override
+	protected synchronized void removeNode(final NodeModel node) {
+		removalCount++;
+		results.remove(node);
+	}
+
+	@Override
+	protected synchronized void clear() {
+		removalCount++;
+		results.clear();
+	}
+}
@@ -79,6 +79,11 @@ public class ConditionalContentTransformer implements IContentTransformer, IEdit
 				return false;
 	}
 
+	@Override
+	public boolean canKeepResult(Object content) {
+		return ! isTransformationActive() || target.canKeepResult(content);
+	}
+
 	@Override
 	public int getPriority() {
 		return target.getPriority();
@@ -584,6 +584,11 @@ public class MTextController extends TextController {
 					    newObject, oldText);
 				}
 			}
+
+			@Override
+			public long getEstimatedSize() {
+				return DEFAULT_ESTIMATED_SIZE + IActor.estimateSize(oldText);
+			}
 		};
 		Controller.getCurrentModeController().execute(actor, node.getMap());
 	}
@@ -22,8 +22,19 @@ package org.freeplane.features.url.mindmapmode;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
 import org.freeplane.core.util.LogUtils;
@@ -35,8 +46,27 @@ import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.mode.mindmapmode.MModeController;
 import org.freeplane.features.url.UrlManager;
 
+/**
+ * Saves a changed map to rotating backup files.
+ * <p>
+ * On the event dispatch thread, where the map can not change meanwhile, an immutable text snapshot of the map is taken.
+ * It serializes only the nodes changed since the previous automatic save and refers to the xml kept for the other nodes.
+ * Keeping that xml needs as much memory as the map text.
+ * A background thread writes the snapshot to a temporary file with the same file lock check as saving the map
+ * and moves it to the backup file, so that the backup file never contains a partial map.
+ * Changes made while the file is written are saved by the next automatic save.
+ * Until the previous file of a map is written, further automatic saves of the map are postponed.
+ */
 public class DoAutomaticSave implements ActionListener {
     static final String AUTOSAVE_EXTENSION = "autosave";
+    private static final String TEMPORARY_FILE_EXTENSION = "tmp";
+    private static final ExecutorService fileWriter = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "automatic save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Map<MapModel, Future<?>> runningWrites = new WeakHashMap<>();
+
     /**
      * This value is compared with the result of
      * getNumberOfChangesSinceLastSave(). If the values coincide, no further
@@ -57,6 +87,10 @@ public class DoAutomaticSave implements ActionListener {
 
     @Override
     public void actionPerformed(ActionEvent e) {
+        final Future<?> runningWrite = runningWrites.get(model);
+        if (runningWrite != null && !runningWrite.isDone()) {
+            return;
+        }
         /* Map is dirty enough? */
         if (model.getNumberOfChangesSinceLastSave() == changeState) {
             return;
@@ -88,10 +122,7 @@ public class DoAutomaticSave implements ActionListener {
             }
             if(tempFile.isFile() && tempFile.canWrite()
                     || ! tempFile.exists() && tempFile.getParentFile().canWrite()) {
-                ((MFileManager) UrlManager.getController())
-                .saveInternal((MMapModel) model, tempFile, true /*=internal call*/);
-                modeController.getController().getViewController()
-                .out(TextUtils.format("automatically_save_message", tempFile));
+                saveInBackground(modeController, tempFile);
             }
         }
         catch (final Exception ex) {
@@ -99,4 +130,49 @@ public class DoAutomaticSave implements ActionListener {
         }
     }
 
+    private void saveInBackground(final ModeController modeController, final File file) throws IOException {
+        final long snapshotStart = System.nanoTime();
+        final TextSnapshot snapshot = new TextSnapshot();
+        try {
+            modeController.getMapController().getMapWriter().writeMapAsXmlIncrementally(model, snapshot);
+        }
+        finally {
+            ((MMapModel) model).scheduleTimerForAutomaticSaving();
+        }
+        final long snapshotTime = System.nanoTime() - snapshotStart;
+        runningWrites.put(model, fileWriter.submit(() -> {
+            final long writeStart = System.nanoTime();
+            try {
+                writeAtomically(snapshot, file);
+                final long writeTime = System.nanoTime() - writeStart;
+                LogUtils.getLogger().fine("Automatic save of " + file + ": snapshot "
+                        + TimeUnit.NANOSECONDS.toMillis(snapshotTime) + " ms, write "
+                        + TimeUnit.NANOSECONDS.toMillis(writeTime) + " ms");
+                SwingUtilities.invokeLater(() -> modeController.getController().getViewController()
+                    .out(TextUtils.format("automatically_save_message", file)));
+            }
+            catch (final IOException e) {
+                LogUtils.warn("Error in automatic MapModel.save(): ", e);
+                SwingUtilities.invokeLater(() -> modeController.getController().getViewController()
+                    .out(TextUtils.format("save_failed", file.getName())));
+            }
+        }));
+    }
+
+    private static void writeAtomically(final TextSnapshot snapshot, final File file) throws IOException {
+        final File temporaryFile = new File(file.getParentFile(), file.getName() + '.' + TEMPORARY_FILE_EXTENSION);
+        try {
+            MFileManager.writeLocked(temporaryFile, snapshot::writeTo);
+            try {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            temporaryFile.delete();
+        }
+    }
 }
@@ -36,6 +36,7 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.SequenceInputStream;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -51,6 +52,8 @@ import java.util.LinkedList;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
@@ -59,6 +62,7 @@ import javax.swing.plaf.FileChooserUI;
 import javax.swing.plaf.basic.BasicFileChooserUI;
 
 import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.io.xml.TreeXmlSnapshot;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.resources.components.ComboProperty;
 import org.freeplane.core.resources.components.IPropertyControl;
@@ -80,6 +84,7 @@ import org.freeplane.features.link.LinkController;
 import org.freeplane.features.map.DocuMapAttribute;
 import org.freeplane.features.map.MapChangeEvent;
 import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapReader;
 import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.map.mindmapmode.MMapController;
@@ -179,7 +184,7 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 	}
 
 	/** prevents name conflicts with singleBackupDirectory in most cases (uses the file's hashcode). */
-	private static String backupFileName(final File file) {
+	static String backupFileName(final File file) {
 		if (singleBackupDirectory == null)
 			return file.getName();
 		return file.getName() + "." + file.hashCode();
@@ -556,6 +561,10 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
                 String message = versionInterpreter.getDialectInfo(f.getAbsolutePath());
                 UITools.showMessage(message, JOptionPane.WARNING_MESSAGE);
             }
+            if (!versionInterpreter.needsConversion
+                    && ResourceController.getResourceController().getBooleanProperty(MapSnapshotFile.USE_SNAPSHOTS_PROPERTY)) {
+                return loadTreeUsingSnapshot(map, f);
+            }
             try (final InputStream sequencedInput = new SequenceInputStream(readBytes, file);
                     Reader reader = openInputStream(f, sequencedInput, versionInterpreter)) {
                 return Controller.getCurrentModeController().getMapController().getMapReader()
@@ -564,6 +573,27 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
         }
 	}
 
+	private NodeModel loadTreeUsingSnapshot(final MapModel map, final File f) throws IOException, XMLException {
+		final MapReader mapReader = Controller.getCurrentModeController().getMapController().getMapReader();
+		final MapSnapshotFile snapshotFile = new MapSnapshotFile(f);
+		final TreeXmlSnapshot savedSnapshot = snapshotFile.read(mapReader);
+		if (savedSnapshot != null) {
+			return mapReader.createNodeTreeFromSnapshot(map, savedSnapshot, Mode.FILE);
+		}
+		final long length = f.length();
+		final long lastModified = f.lastModified();
+		final long readTime = System.currentTimeMillis();
+		final CRC32 checksum = new CRC32();
+		final TreeXmlSnapshot snapshot;
+		try (Reader reader = new InputStreamReader(new CheckedInputStream(new BufferedInputStream(new FileInputStream(f)),
+		    checksum), StandardCharsets.UTF_8)) {
+			snapshot = mapReader.recordSnapshot(reader);
+		}
+		final NodeModel rootNode = mapReader.createNodeTreeFromSnapshot(map, snapshot, Mode.FILE);
+		snapshotFile.writeInBackground(snapshot, length, lastModified, readTime, checksum.getValue());
+		return rootNode;
+	}
+
     private Reader openInputStream(final File file, final InputStream sequencedInput,
             MapVersionInterpreter versionInterpreter) throws IOException, FileNotFoundException {
         Reader reader;
@@ -850,6 +880,16 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 	/**@deprecated -- use MMapIO*/
 	@Deprecated
 	public void writeToFile(final MapModel map, final File file) throws FileNotFoundException, IOException {
+		writeLocked(file, fileout -> Controller.getCurrentModeController().getMapController().getMapWriter()
+		    .writeMapAsXml(map, fileout, Mode.FILE, true, false));
+	}
+
+	interface XmlWriter {
+		void write(Writer out) throws IOException;
+	}
+
+	/** writes the file unless another application locks it. */
+	static void writeLocked(final File file, final XmlWriter writer) throws FileNotFoundException, IOException {
 		FileLock lock = null;
 		try (final FileOutputStream out = new FileOutputStream(file)){
 			boolean lockedByOtherApplication = false;
@@ -865,8 +905,8 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 			}
 			final BufferedWriter fileout = new BufferedWriter(new OutputStreamWriter(out,//
 				StandardCharsets.UTF_8));
-			Controller.getCurrentModeController().getMapController().getMapWriter()
-			    .writeMapAsXml(map, fileout, Mode.FILE, true, false);
+			writer.write(fileout);
+			fileout.flush();
 		}
 		finally {
 			if (lock != null && lock.isValid())
@@ -0,0 +1,159 @@
+package org.freeplane.features.url.mindmapmode;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import org.freeplane.core.io.xml.TreeXmlSnapshot;
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.features.map.MapReader;
+
+/**
+ * Binary snapshot of a map file kept in its backup directory.
+ * <p>
+ * The snapshot stores path, length, modification time and CRC32 checksum of the map file it was recorded from,
+ * and it is used only while the map file still has this length and either this modification time or this checksum.
+ * The checksum of the map file is only computed if its modification time changed, e.g. after it was copied,
+ * or if the map file was read less than {@link #MODIFICATION_TIME_RESOLUTION} after its modification,
+ * because a file system with a coarse time resolution could keep the time of a later change within this interval.
+ * <p>
+ * Snapshots are written by a background thread, so that loading the map does not wait for it.
+ * After writing a snapshot, the snapshots in the same backup directory
+ * whose map files were deleted or renamed are deleted, like old backup files.
+ */
+class MapSnapshotFile {
+	static final String USE_SNAPSHOTS_PROPERTY = "load_maps_from_snapshots";
+	static final long MODIFICATION_TIME_RESOLUTION = 5000;
+	private static final String SNAPSHOT_EXTENSION = "snapshot";
+	private static final int FORMAT_VERSION = 2;
+	private static final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+		final Thread thread = new Thread(r, "map snapshot");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	static long checksum(final File file) throws IOException {
+		final CRC32 checksum = new CRC32();
+		try (final InputStream in = new CheckedInputStream(new FileInputStream(file), checksum)) {
+			final byte[] buffer = new byte[64 * 1024];
+			while (in.read(buffer) >= 0) {
+			}
+		}
+		return checksum.getValue();
+	}
+
+	/** Returns the map file the snapshot was recorded from, or null if the snapshot can not be read. */
+	private static File readMapFile(final File snapshotFile) {
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(
+		    snapshotFile)))) {
+			return readHeader(in);
+		}
+		catch (final IOException e) {
+			return null;
+		}
+	}
+
+	private static File readHeader(final DataInputStream in) throws IOException {
+		if (in.readInt() != FORMAT_VERSION) {
+			return null;
+		}
+		return new File(in.readUTF());
+	}
+
+	static void deleteOrphanedSnapshots(final File backupDir) {
+		final File[] snapshotFiles = backupDir.listFiles((dir, name) -> name.endsWith('.' + SNAPSHOT_EXTENSION));
+		if (snapshotFiles == null) {
+			return;
+		}
+		for (final File snapshotFile : snapshotFiles) {
+			final File mapFile = readMapFile(snapshotFile);
+			if (mapFile == null || !mapFile.isFile()
+			        || !new MapSnapshotFile(mapFile).snapshotFile.equals(snapshotFile)) {
+				snapshotFile.delete();
+			}
+		}
+	}
+
+	final private File mapFile;
+	final private File snapshotFile;
+
+	MapSnapshotFile(final File mapFile) {
+		this.mapFile = mapFile.getAbsoluteFile();
+		this.snapshotFile = new File(MFileManager.backupDir(mapFile),
+		    MFileManager.backupFileName(mapFile) + '.' + SNAPSHOT_EXTENSION);
+	}
+
+	TreeXmlSnapshot read(final MapReader mapReader) {
+		if (!snapshotFile.isFile()) {
+			return null;
+		}
+		try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(
+		    snapshotFile)))) {
+			if (!mapFile.equals(readHeader(in)) || in.readLong() != mapFile.length()) {
+				return null;
+			}
+			final long mapLastModified = in.readLong();
+			final long mapReadTime = in.readLong();
+			final long mapChecksum = in.readLong();
+			final boolean modificationTimeIsReliable = mapLastModified == mapFile.lastModified()
+			        && mapReadTime - mapLastModified >= MODIFICATION_TIME_RESOLUTION;
+			if (!modificationTimeIsReliable && mapChecksum != checksum(mapFile)) {
+				return null;
+			}
+			return mapReader.readSnapshot(in);
+		}
+		catch (final IOException e) {
+			LogUtils.warn("Can not read snapshot " + snapshotFile, e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the snapshot in background.
+	 * The map file description is passed by the caller because it must be taken before the map file was read.
+	 */
+	void writeInBackground(final TreeXmlSnapshot snapshot, final long mapLength, final long mapLastModified,
+	                       final long mapReadTime, final long mapChecksum) {
+		snapshotWriter.execute(() -> {
+			write(snapshot, mapLength, mapLastModified, mapReadTime, mapChecksum);
+			deleteOrphanedSnapshots(snapshotFile.getParentFile());
+		});
+	}
+
+	void write(final TreeXmlSnapshot snapshot, final long mapLength, final long mapLastModified,
+	           final long mapReadTime, final long mapChecksum) {
+		final File backupDir = snapshotFile.getParentFile();
+		backupDir.mkdir();
+		final File temporaryFile = new File(backupDir, snapshotFile.getName() + ".tmp");
+		try {
+			try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+			    temporaryFile)))) {
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(mapFile.getPath());
+				out.writeLong(mapLength);
+				out.writeLong(mapLastModified);
+				out.writeLong(mapReadTime);
+				out.writeLong(mapChecksum);
+				snapshot.write(out);
+			}
+			snapshotFile.delete();
+			if (!temporaryFile.renameTo(snapshotFile)) {
+				temporaryFile.delete();
+			}
+		}
+		catch (final IOException e) {
+			LogUtils.warn("Can not write snapshot " + snapshotFile, e);
+			temporaryFile.delete();
+		}
+	}
+}
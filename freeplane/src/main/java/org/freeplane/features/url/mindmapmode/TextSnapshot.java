@@ -0,0 +1,66 @@
+package org.freeplane.features.url.mindmapmode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the text written to it as immutable parts, so that another thread can write it to a file later.
+ * <p>
+ * Strings of at least {@link #MINIMUM_SHARED_LENGTH} characters written as a whole,
+ * like the xml of unchanged nodes kept by incremental saving, are kept by reference without copying them.
+ * The text must be completely written and the snapshot closed before it is passed to another thread.
+ */
+class TextSnapshot extends Writer {
+	static final int MINIMUM_SHARED_LENGTH = 256;
+	final private List<String> parts = new ArrayList<>();
+	final private StringBuilder text = new StringBuilder();
+
+	@Override
+	public void write(final String str, final int off, final int len) {
+		if (off == 0 && len == str.length() && len >= MINIMUM_SHARED_LENGTH) {
+			keepText();
+			parts.add(str);
+		}
+		else {
+			text.append(str, off, off + len);
+		}
+	}
+
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) {
+		text.append(cbuf, off, len);
+	}
+
+	@Override
+	public void write(final int c) {
+		text.append((char) c);
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+		keepText();
+	}
+
+	private void keepText() {
+		if (text.length() > 0) {
+			parts.add(text.toString());
+			text.setLength(0);
+		}
+	}
+
+	int getPartCount() {
+		return parts.size();
+	}
+
+	void writeTo(final Writer out) throws IOException {
+		for (final String part : parts) {
+			out.write(part);
+		}
+	}
+}
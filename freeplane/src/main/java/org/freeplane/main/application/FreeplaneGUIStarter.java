@@ -76,6 +76,7 @@ import org.freeplane.features.print.PrintController;
 import org.freeplane.features.styles.LogicalStyleFilterController;
 import org.freeplane.features.styles.MapViewLayout;
 import org.freeplane.features.text.TextController;
+import org.freeplane.features.text.TransformedObjects;
 import org.freeplane.features.time.TimeController;
 import org.freeplane.features.ui.FrameController;
 import org.freeplane.features.url.mindmapmode.ExternalMapChangeMonitor;
@@ -254,6 +255,17 @@ public class FreeplaneGUIStarter implements FreeplaneStarter {
 				    new LogicalStyleFilterController());
 				MapController.install();
 				NodeHistory.install(controller);
+				controller.addApplicationLifecycleListener(new ApplicationLifecycleListener() {
+					@Override
+					public void onStartupFinished() {
+					}
+
+					@Override
+					public void onApplicationStopped() {
+						LogUtils.info("transformed node content: " + TransformedObjects.getHitCount() + " hits, "
+						        + TransformedObjects.getMissCount() + " misses");
+					}
+				});
 				MapExplorerConditionController.installFilterConditions();
 				final FreeplaneSurveyProperties freeplaneSurveyProperties = new FreeplaneSurveyProperties();
 				if(ARE_SURVEYS_ENABLED && freeplaneSurveyProperties.mayAskUserToFillSurveys()) {
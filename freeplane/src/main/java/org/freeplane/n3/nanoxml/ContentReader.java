@@ -88,7 +88,7 @@ class ContentReader extends Reader {
 					break;
 				}
 				if ((ch == '&') && (str.length() > 1)) {
-					if (str.charAt(1) != '#') {
+					if (str.charAt(1) != '#' && XMLUtil.predefinedEntity(str) == 0) {
 						XMLUtil.processEntity(str, reader, resolver);
 					}
 				}
@@ -154,8 +154,12 @@ class ContentReader extends Reader {
 						ch = XMLUtil.processCharLiteral(str);
 					}
 					else {
-						XMLUtil.processEntity(str, reader, resolver);
-						continue;
+						final char predefinedEntity = XMLUtil.predefinedEntity(str);
+						if (predefinedEntity == 0) {
+							XMLUtil.processEntity(str, reader, resolver);
+							continue;
+						}
+						ch = predefinedEntity;
 					}
 				}
 				outputBuffer[charsRead] = ch;
@@ -26,6 +26,17 @@ import java.io.Reader;
  * @version $Name: RELEASE_2_2_1 $, $Revision: 1.5 $
  */
 class XMLUtil {
+	/**
+	 * Single character strings returned by {@link #read(IXMLReader, char)} for ASCII characters,
+	 * so that scanning attribute values and element content does not allocate a string per character.
+	 */
+	private static final String[] ASCII_STRINGS = new String[128];
+	static {
+		for (char ch = 0; ch < ASCII_STRINGS.length; ch++) {
+			ASCII_STRINGS[ch] = String.valueOf(ch);
+		}
+	}
+
 	/**
 	 * Returns true if the data starts with <I>literal</I>. Enough chars are
 	 * read to determine this result.
@@ -315,6 +326,31 @@ class XMLUtil {
 		}
 	}
 
+	/**
+	 * Returns the character of one of the five predefined XML entities.
+	 * They can not be redefined, so they need not be pushed as a new stream to the reader.
+	 * 
+	 * @param entity
+	 *            the entity expression (like e.g. &amp;amp;)
+	 * @return the character, or 0 if the entity is not predefined
+	 */
+	static char predefinedEntity(final String entity) {
+		switch (entity) {
+			case "&amp;":
+				return '&';
+			case "&lt;":
+				return '<';
+			case "&gt;":
+				return '>';
+			case "&quot;":
+				return '"';
+			case "&apos;":
+				return '\'';
+			default:
+				return 0;
+		}
+	}
+
 	/**
 	 * Processes an entity.
 	 * 
@@ -351,13 +387,14 @@ class XMLUtil {
 	 */
 	static String read(final IXMLReader reader, final char entityChar) throws IOException, XMLParseException {
 		char ch = reader.read();
+		if (ch != entityChar) {
+			return ch < ASCII_STRINGS.length ? ASCII_STRINGS[ch] : String.valueOf(ch);
+		}
 		final StringBuilder buf = new StringBuilder();
 		buf.append(ch);
-		if (ch == entityChar) {
-			while (ch != ';') {
-				ch = reader.read();
-				buf.append(ch);
-			}
+		while (ch != ';') {
+			ch = reader.read();
+			buf.append(ch);
 		}
 		return buf.toString();
 	}
@@ -453,7 +490,13 @@ class XMLUtil {
 					result.append(XMLUtil.processCharLiteral(str));
 				}
 				else {
-					XMLUtil.processEntity(str, reader, entityResolver);
+					final char predefinedEntity = XMLUtil.predefinedEntity(str);
+					if (predefinedEntity != 0) {
+						result.append(predefinedEntity);
+					}
+					else {
+						XMLUtil.processEntity(str, reader, entityResolver);
+					}
 				}
 			}
 			else if (ch == '&') {
@@ -0,0 +1,239 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+
+import org.freeplane.features.link.ConnectorModel;
+import org.freeplane.features.link.ConnectorShape;
+import org.freeplane.features.link.LinkController;
+import org.freeplane.features.link.NodeLinkModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.MapViewLayout;
+import org.freeplane.view.swing.map.link.ConnectorView;
+import org.freeplane.view.swing.map.link.EdgeLinkView;
+import org.freeplane.view.swing.map.link.ILinkView;
+
+/**
+ * Connector views of a map view retained between paints.
+ * <p>
+ * The connectors of displayed nodes are collected and their views are created once after each change of the layout,
+ * the links or the styles. The bounds of the connector curves are known after a connector has been painted,
+ * they are kept in a grid, so that painting a clip rectangle only paints the connectors intersecting it.
+ * Connectors without known bounds are painted when one of their nodes is near the viewport, as before.
+ */
+class ConnectorLayer {
+	private static final int CELL_SIZE = 256;
+	private static final int BOUNDS_MARGIN = 20;
+
+	private static class Connector {
+		final private ILinkView view;
+		final private NodeView sourceView;
+		final private NodeView targetView;
+		private Rectangle bounds;
+		private boolean painted;
+
+		private Connector(final ILinkView view, final NodeView sourceView, final NodeView targetView) {
+			this.view = view;
+			this.sourceView = sourceView;
+			this.targetView = targetView;
+		}
+	}
+
+	final private MapView map;
+	private List<Connector> connectors;
+	private boolean hidesSingleEndConnectors;
+	final private Map<Long, BitSet> cells = new HashMap<>();
+	final private BitSet connectorsWithoutBounds = new BitSet();
+
+	ConnectorLayer(final MapView map) {
+		this.map = map;
+	}
+
+	/** Drops the connector views, called on changes of layout, links and styles. */
+	void invalidate() {
+		connectors = null;
+		invalidateBounds();
+	}
+
+	/** Drops the bounds of the connector views, called on changes of connector geometry without layout changes. */
+	void invalidateBounds() {
+		cells.clear();
+		connectorsWithoutBounds.clear();
+		if (connectors != null) {
+			for (final Connector connector : connectors) {
+				connector.bounds = null;
+				connector.painted = false;
+			}
+			connectorsWithoutBounds.set(0, connectors.size());
+		}
+	}
+
+	void paint(final Graphics2D graphics, final boolean hideSingleEndConnectors) {
+		if (connectors == null || hidesSingleEndConnectors != hideSingleEndConnectors) {
+			hidesSingleEndConnectors = hideSingleEndConnectors;
+			collectConnectors();
+		}
+		final Rectangle clip = graphics.getClipBounds();
+		final BitSet candidates = candidates(clip);
+		final Rectangle area = map.isPrinting() ? null : areaNearViewport();
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			final Connector connector = connectors.get(i);
+			if (!map.showsConnector(connector.sourceView, connector.targetView)) {
+				continue;
+			}
+			if (connector.bounds != null) {
+				if (clip == null || connector.bounds.intersects(clip)) {
+					connector.view.paint(graphics);
+				}
+			}
+			else if (area == null || isNear(connector.sourceView, area) || isNear(connector.targetView, area)) {
+				connector.view.paint(graphics);
+				connector.painted = true;
+				updateBounds(i, connector);
+			}
+		}
+	}
+
+	/** Returns the views of connectors painted since their bounds were dropped, in painting order. */
+	List<ILinkView> getPaintedViews() {
+		final List<ILinkView> views = new ArrayList<>();
+		if (connectors != null) {
+			for (final Connector connector : connectors) {
+				if (connector.painted && map.showsConnector(connector.sourceView, connector.targetView)) {
+					views.add(connector.view);
+				}
+			}
+		}
+		return views;
+	}
+
+	private void collectConnectors() {
+		cells.clear();
+		connectorsWithoutBounds.clear();
+		connectors = new ArrayList<>();
+		final LinkController linkController = LinkController.getController(map.getModeController());
+		if (linkController.hasNodeLinks(map.getModel(), map)) {
+			collectConnectors(linkController, map.getRoot(), new HashSet<ConnectorModel>());
+		}
+		connectorsWithoutBounds.set(0, connectors.size());
+	}
+
+	private void collectConnectors(final LinkController linkController, final NodeView view,
+	                               final HashSet<ConnectorModel> alreadyCollectedConnectors) {
+		final NodeModel node = view.getModel();
+		collectConnectors(linkController, linkController.getLinksFrom(node, map), alreadyCollectedConnectors);
+		collectConnectors(linkController, linkController.getLinksTo(node, map), alreadyCollectedConnectors);
+		for (final NodeView child : view.getChildrenViews()) {
+			if (map.isPrinting() || child.isSubtreeVisible()) {
+				collectConnectors(linkController, child, alreadyCollectedConnectors);
+			}
+		}
+	}
+
+	private void collectConnectors(final LinkController linkController, final Collection<? extends NodeLinkModel> links,
+	                               final HashSet<ConnectorModel> alreadyCollectedConnectors) {
+		for (final NodeLinkModel link : links) {
+			if (!(link instanceof ConnectorModel)) {
+				continue;
+			}
+			final ConnectorModel connector = (ConnectorModel) link;
+			if (!alreadyCollectedConnectors.add(connector)) {
+				continue;
+			}
+			final NodeModel target = connector.getTarget();
+			if (target == null) {
+				continue;
+			}
+			final NodeModel source = connector.getSource();
+			final NodeView sourceView = map.getDisplayedNodeView(source);
+			final NodeView targetView = map.getDisplayedNodeView(target);
+			final boolean areBothNodesVisible = sourceView != null && targetView != null
+			        && source.hasVisibleContent(map.getFilter()) && target.hasVisibleContent(map.getFilter());
+			final ILinkView view;
+			if (areBothNodesVisible
+			        && (ConnectorShape.EDGE_LIKE.equals(linkController.getShape(connector)) && !connector.isSelfLink()
+			                || map.getLayoutType() == MapViewLayout.OUTLINE))
+				view = new EdgeLinkView(connector, map.getModeController(), sourceView, targetView);
+			else if (areBothNodesVisible || !hidesSingleEndConnectors)
+				view = new ConnectorView(connector, sourceView, targetView, map.getBackground());
+			else
+				continue;
+			connectors.add(new Connector(view, sourceView, targetView));
+		}
+	}
+
+	private BitSet candidates(final Rectangle clip) {
+		if (clip == null) {
+			final BitSet all = new BitSet();
+			all.set(0, connectors.size());
+			return all;
+		}
+		final BitSet candidates = (BitSet) connectorsWithoutBounds.clone();
+		final int firstColumn = Math.floorDiv(clip.x, CELL_SIZE);
+		final int lastColumn = Math.floorDiv(clip.x + clip.width, CELL_SIZE);
+		final int firstRow = Math.floorDiv(clip.y, CELL_SIZE);
+		final int lastRow = Math.floorDiv(clip.y + clip.height, CELL_SIZE);
+		for (int column = firstColumn; column <= lastColumn; column++) {
+			for (int row = firstRow; row <= lastRow; row++) {
+				final BitSet cell = cells.get(cellKey(column, row));
+				if (cell != null) {
+					candidates.or(cell);
+				}
+			}
+		}
+		return candidates;
+	}
+
+	private static long cellKey(final int column, final int row) {
+		return ((long) column << 32) | (row & 0xffffffffL);
+	}
+
+	/** Connectors painted without a curve, e.g. arrows of hidden connector lines, and edge like connectors keep no bounds. */
+	private void updateBounds(final int index, final Connector connector) {
+		if (!(connector.view instanceof ConnectorView)) {
+			return;
+		}
+		final Rectangle bounds = new Rectangle(0, 0, -1, -1);
+		connector.view.increaseBounds(bounds);
+		if (bounds.isEmpty()) {
+			return;
+		}
+		final int margin = map.getZoomed(BOUNDS_MARGIN + LinkController.getController(map.getModeController())
+		    .getWidth(connector.view.getModel()));
+		bounds.grow(margin, margin);
+		connector.bounds = bounds;
+		connectorsWithoutBounds.clear(index);
+		final int lastColumn = Math.floorDiv(bounds.x + bounds.width, CELL_SIZE);
+		final int lastRow = Math.floorDiv(bounds.y + bounds.height, CELL_SIZE);
+		for (int column = Math.floorDiv(bounds.x, CELL_SIZE); column <= lastColumn; column++) {
+			for (int row = Math.floorDiv(bounds.y, CELL_SIZE); row <= lastRow; row++) {
+				cells.computeIfAbsent(cellKey(column, row), x -> new BitSet()).set(index);
+			}
+		}
+	}
+
+	private Rectangle areaNearViewport() {
+		final Rectangle viewRect = ((JViewport) map.getParent()).getViewRect();
+		return new Rectangle(viewRect.x - viewRect.width, viewRect.y - viewRect.height, 3 * viewRect.width,
+		    3 * viewRect.height);
+	}
+
+	private boolean isNear(final NodeView view, final Rectangle area) {
+		if (view == null) {
+			return false;
+		}
+		final Point location = SwingUtilities.convertPoint(view.getParent(), view.getLocation(), map);
+		return area.intersects(new Rectangle(location.x, location.y, view.getWidth(), view.getHeight()));
+	}
+}
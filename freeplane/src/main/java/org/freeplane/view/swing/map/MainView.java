@@ -454,7 +454,7 @@ public class MainView extends ZoomableLabel {
 		final Object userObject = nodeModel.getUserObject();
 		String text;
 		try {
-			final Object transformedContent = textController.getTransformedObject(nodeModel);
+			final Object transformedContent = textController.getTransformedObjectForView(nodeModel, nodeModel, userObject);
 			if(nodeView.isSelected()){
 				nodeView.getMap().getModeController().getController().getViewController().addObjectTypeInfo(transformedContent);
 			}
@@ -58,7 +58,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.Vector;
 import java.util.stream.Stream;
 
 import javax.swing.JComponent;
@@ -82,11 +81,8 @@ import org.freeplane.features.attribute.ModelessAttributeController;
 import org.freeplane.features.edge.EdgeColorsConfigurationFactory;
 import org.freeplane.features.filter.Filter;
 import org.freeplane.features.highlight.NodeHighlighter;
-import org.freeplane.features.link.ConnectorModel;
-import org.freeplane.features.link.ConnectorShape;
 import org.freeplane.features.link.Connectors;
 import org.freeplane.features.link.LinkController;
-import org.freeplane.features.link.NodeLinkModel;
 import org.freeplane.features.link.NodeLinks;
 import org.freeplane.features.map.IMapChangeListener;
 import org.freeplane.features.map.IMapSelection;
@@ -116,8 +112,6 @@ import org.freeplane.view.swing.features.filepreview.IViewerFactory;
 import org.freeplane.view.swing.features.filepreview.ScalableComponent;
 import org.freeplane.view.swing.features.filepreview.ViewerController;
 import org.freeplane.view.swing.map.MapViewScrollPane.MapViewPort;
-import org.freeplane.view.swing.map.link.ConnectorView;
-import org.freeplane.view.swing.map.link.EdgeLinkView;
 import org.freeplane.view.swing.map.link.ILinkView;
 
 /**
@@ -583,8 +577,6 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	private static final long serialVersionUID = 1L;
 	static private boolean drawsRectangleForSelection;
 	static private Color selectionRectangleColor;
-	/** Used to identify a right click onto a link curve. */
-	private Vector<ILinkView> arrowLinkViews;
 	private Color background = null;
 	private JComponent backgroundComponent;
 	private Rectangle boundingRectangle = null;
@@ -625,6 +617,8 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	private static int draggingAreaWidth;
 
 	final private ComponentAdapter viewportSizeChangeListener;
+	final private NodeViewVirtualizer nodeViewVirtualizer = new NodeViewVirtualizer(this);
+	final private ConnectorLayer connectorLayer = new ConnectorLayer(this);
 	private final INodeChangeListener connectorChangeListener;
 	private boolean allowsCompactLayout;
 	private static final String INLINE_EDITOR_ACTIVE = "inline_editor_active";
@@ -704,8 +698,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			@Override
 			public void nodeChanged(final NodeChangeEvent event) {
 				if(NodeLinks.CONNECTOR.equals(event.getProperty()) &&
-						event.getNode().getMap().equals(getModel()))
+						event.getNode().getMap().equals(getModel())) {
+					connectorLayer.invalidate();
 					repaint();
+				}
 			}
 		};
 		addPropertyChangeListener(SPOTLIGHT_ENABLED, repaintOnClientPropertyChangeListener);
@@ -750,15 +746,21 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    super.addNotify();
 	    modeController.getMapController().addUINodeChangeListener(connectorChangeListener);
 	    getParent().addComponentListener(viewportSizeChangeListener);
+	    nodeViewVirtualizer.addViewportListener();
     }
 
 	@Override
     public void removeNotify() {
 		modeController.getMapController().removeNodeChangeListener(connectorChangeListener);
 		getParent().removeComponentListener(viewportSizeChangeListener);
+		nodeViewVirtualizer.removeViewportListener();
 	    super.removeNotify();
     }
 
+	NodeViewVirtualizer getNodeViewVirtualizer() {
+		return nodeViewVirtualizer;
+	}
+
 	boolean isLayoutCompleted() {
 	    final JViewport viewPort = (JViewport) getParent();
 		final Dimension visibleDimension = viewPort.getExtentSize();
@@ -851,7 +853,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	private void onSelectionChange(final NodeView node) {
 		if(! node.isShowing())
 			return;
-		node.update();
+		if (node.isContentDeferred())
+			node.createDeferredContent();
+		else
+			node.update();
 		if(SHOW_CONNECTORS_FOR_SELECTION == showConnectors)
 			repaint(getVisibleRect());
 		else
@@ -859,9 +864,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	}
 
     public Object detectView(final Point p) {
-        if (arrowLinkViews == null) {
-            return null;
-        }
+        final List<ILinkView> arrowLinkViews = connectorLayer.getPaintedViews();
         for (int i = 0; i < arrowLinkViews.size(); ++i) {
             final ILinkView arrowView = arrowLinkViews.get(i);
             if (arrowView.detectCollision(p, true)) {
@@ -892,6 +895,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		if (!isPreparedForPrinting)
 			return;
 		isPrinting = false;
+		connectorLayer.invalidate();
 		updatePrintedNodes();
 		isPreparedForPrinting = false;
 		if (MapView.printOnWhiteBackground) {
@@ -919,11 +923,8 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	public Rectangle getInnerBounds() {
 		final Rectangle innerBounds = currentRootView.getBounds();
 		final Rectangle maxBounds = new Rectangle(0, 0, getWidth(), getHeight());
-		if(arrowLinkViews != null)
-			for (int i = 0; i < arrowLinkViews.size(); ++i) {
-				final ILinkView arrowView = arrowLinkViews.get(i);
-				arrowView.increaseBounds(innerBounds);
-			}
+		for (final ILinkView arrowView : connectorLayer.getPaintedViews())
+			arrowView.increaseBounds(innerBounds);
 		return innerBounds.intersection(maxBounds);
 	}
 
@@ -952,7 +953,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		return nodeView;
     }
 
-	private NodeView getDisplayedNodeView(NodeModel node) {
+	NodeView getDisplayedNodeView(NodeModel node) {
 		NodeView nodeView = getNodeView(node);
 		return currentRootView == mapRootView 
 				||  nodeView != null && isAncestorOf(nodeView) ? nodeView : null;
@@ -1305,6 +1306,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
 	public void mapChanged(final MapChangeEvent event) {
+		connectorLayer.invalidate();
 		final Object property = event.getProperty();
 		if (property.equals(MapStyle.RESOURCES_BACKGROUND_COLOR)) {
 			setBackground(requiredBackground());
@@ -1752,106 +1754,26 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		return paintingMode;
 	}
 
-	private void paintConnectors(final Collection<? extends NodeLinkModel> links, final Graphics2D graphics,
-	                        final HashSet<ConnectorModel> alreadyPaintedLinks) {
+	boolean showsConnector(final NodeView sourceView, final NodeView targetView) {
+		return SHOW_CONNECTOR_LINES == showConnectors
+				|| HIDE_CONNECTOR_LINES == showConnectors
+				|| SHOW_CONNECTORS_FOR_SELECTION == showConnectors && (sourceView != null && sourceView.isSelected()
+				|| targetView != null && targetView.isSelected());
+	}
+
+	private void paintConnectors(final Graphics2D graphics) {
+		final Object renderingHint = getModeController().getController().getMapViewManager().setEdgesRenderingHint(
+		    graphics);
 		final Font font = graphics.getFont();
 		try {
-			final Iterator<? extends NodeLinkModel> linkIterator = links.iterator();
-			while (linkIterator.hasNext()) {
-				final NodeLinkModel next = linkIterator.next();
-				if (!(next instanceof ConnectorModel)) {
-					continue;
-				}
-				final ConnectorModel ref = (ConnectorModel) next;
-				if (alreadyPaintedLinks.add(ref)) {
-					final NodeModel target = ref.getTarget();
-					if (target == null) {
-						continue;
-					}
-					final NodeModel source = ref.getSource();
-					final NodeView sourceView = getDisplayedNodeView(source);
-					final NodeView targetView = getDisplayedNodeView(target);
-					final ILinkView arrowLink;
-					final boolean areBothNodesVisible = sourceView != null && targetView != null
-							&& source.hasVisibleContent(filter) && target.hasVisibleContent(filter);
-					final boolean showConnector = SHOW_CONNECTOR_LINES == showConnectors
-							|| HIDE_CONNECTOR_LINES == showConnectors
-							|| SHOW_CONNECTORS_FOR_SELECTION == showConnectors && (sourceView != null && sourceView.isSelected()
-							|| targetView != null && targetView.isSelected());
-					if(showConnector) {
-						LinkController linkController = LinkController.getController(getModeController());
-                        if (areBothNodesVisible
-                                && (
-                                ConnectorShape.EDGE_LIKE.equals(linkController.getShape(ref)) && ! ref.isSelfLink()
-                                || sourceView.getMap().getLayoutType() == MapViewLayout.OUTLINE))
-							arrowLink = new EdgeLinkView(ref, getModeController(), sourceView, targetView);
-						else if(areBothNodesVisible || ! hideSingleEndConnectors)
-							arrowLink = new ConnectorView(ref, sourceView, targetView, getBackground());
-						else
-							break;
-						arrowLink.paint(graphics);
-						arrowLinkViews.add(arrowLink);
-					}
-				}
-			}
+			connectorLayer.paint(graphics, hideSingleEndConnectors);
 		}
 		finally {
 			graphics.setFont(font);
 		}
-	}
-
-	private void paintConnectors(final Graphics2D graphics) {
-		arrowLinkViews = new Vector<ILinkView>();
-		final Object renderingHint = getModeController().getController().getMapViewManager().setEdgesRenderingHint(
-		    graphics);
-		if(hasNodeLinks())
-			paintConnectors(currentRootView, graphics, new HashSet<ConnectorModel>());
 		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, renderingHint);
 	}
 
-	private void paintConnectors(final NodeView source, final Graphics2D graphics, final HashSet<ConnectorModel> alreadyPaintedConnectors) {
-		final NodeModel node = source.getModel();
-		final Collection<? extends NodeLinkModel> outLinks = getLinksFrom(node);
-		paintConnectors(outLinks, graphics, alreadyPaintedConnectors);
-		final Collection<? extends NodeLinkModel> inLinks = getLinksTo(node);
-		paintConnectors(inLinks, graphics, alreadyPaintedConnectors);
-		final int nodeViewCount = source.getComponentCount();
-		for (int i = 0; i < nodeViewCount; i++) {
-			final Component component = source.getComponent(i);
-			if (!(component instanceof NodeView)) {
-				continue;
-			}
-			final NodeView child = (NodeView) component;
-			if (!isPrinting) {
-				if(!child.isSubtreeVisible())
-					continue;
-				final Rectangle bounds = SwingUtilities.convertRectangle(source, child.getBounds(), this);
-				final JViewport vp = (JViewport) getParent();
-				final Rectangle viewRect = vp.getViewRect();
-				viewRect.x -= viewRect.width;
-				viewRect.y -= viewRect.height;
-				viewRect.width *= 3;
-				viewRect.height *= 3;
-				if (!viewRect.intersects(bounds)) {
-					continue;
-				}
-			}
-			paintConnectors(child, graphics, alreadyPaintedConnectors);
-		}
-	}
-
-	private boolean hasNodeLinks() {
-		return LinkController.getController(getModeController()).hasNodeLinks(getModel(), this);
-	}
-
-	private Collection<? extends NodeLinkModel> getLinksTo(final NodeModel node) {
-		return LinkController.getController(getModeController()).getLinksTo(node, this);
-	}
-
-	private Collection<? extends NodeLinkModel> getLinksFrom(final NodeModel node) {
-		return LinkController.getController(getModeController()).getLinksFrom(node, this);
-	}
-
 	private void paintSelecteds(final Graphics2D g) {
 		if (!MapView.drawsRectangleForSelection || isPrinting()) {
 			return;
@@ -1924,8 +1846,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	 */
 	public void preparePrinting() {
 		isPrinting = true;
+		connectorLayer.invalidate();
 		if (!isPreparedForPrinting) {
 			isPreparedForPrinting = true;
+			nodeViewVirtualizer.createAllContent();
 			updatePrintedNodes();
 			if (MapView.printOnWhiteBackground) {
 				background = getBackground();
@@ -2275,14 +2199,17 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	 */
 	@Override
 	protected void validateTree() {
+		connectorLayer.invalidate();
 		if(isDisplayable()) {
 			validateSelecteds();
 			getRoot().validateTree();
 			super.validateTree();
+			nodeViewVirtualizer.createContentNearViewportLater();
 		}
 	}
 
 	public void repaintVisible() {
+		connectorLayer.invalidateBounds();
 		final JViewport vp = (JViewport) getParent();
 		repaint(vp.getViewRect());
 	}
@@ -138,6 +138,7 @@ public class NodeView extends JComponent implements INodeView {
 	private int topOverlap;
 	private int bottomOverlap;
 	private boolean isFolded;
+	private boolean contentDeferred;
 	private DashVariant edgeDash = DashVariant.DEFAULT;
 
 	public static final int DETAIL_VIEWER_POSITION = 2;
@@ -1274,7 +1275,9 @@ public class NodeView extends JComponent implements INodeView {
 			NodeView child = e.next();
 			child.remove();
 		}
-		getModeController().onViewRemoved(this);
+		map.getNodeViewVirtualizer().rememberContentSize(this);
+		if (!contentDeferred)
+			getModeController().onViewRemoved(this);
 		removeFromMap();
 		if (attributeView != null) {
 			attributeView.viewRemoved();
@@ -1473,6 +1476,11 @@ public class NodeView extends JComponent implements INodeView {
         final int maxNodeWidth = Math.max(map.getLayoutSpecificMaxNodeWidth(), map.getZoomed(nsc.getMaxWidth(getModel(), styleOption).toBaseUnits()));
         mainView.setMinimumWidth(minNodeWidth);
         mainView.setMaximumWidth(maxNodeWidth);
+		if (contentDeferred) {
+			map.getNodeViewVirtualizer().updatePlaceholder(this);
+			revalidate();
+			return;
+		}
 
 		createAttributeView();
 		if (attributeView != null) {
@@ -1506,6 +1514,22 @@ public class NodeView extends JComponent implements INodeView {
         return map.getModeController();
     }
 
+	boolean isContentDeferred() {
+		return contentDeferred;
+	}
+
+	/** Makes the view show a placeholder until {@link #createDeferredContent()} is called. */
+	void deferContent() {
+		contentDeferred = true;
+	}
+
+	void createDeferredContent() {
+		contentDeferred = false;
+		mainView.setPreferredSize(null);
+		update();
+		NodeViewFactory.getInstance().fireNodeViewCreated(this);
+	}
+
 	public boolean isShortened() {
 	    final ModeController modeController = getModeController();
 		final TextController textController = TextController.getController(modeController);
@@ -60,7 +60,7 @@ class NodeViewFactory {
 	private NodeViewFactory() {
 	}
 
-	private void fireNodeViewCreated(final NodeView newView) {
+	void fireNodeViewCreated(final NodeView newView) {
 		newView.getMap().getModeController().onViewCreated(newView);
 	}
 
@@ -184,8 +184,11 @@ class NodeViewFactory {
 	private void updateNewView(final NodeView newView) {
 		newView.getModel().addViewer(newView);
 		newView.setLayout(SelectableLayout.getInstance());
+		if (newView.getMap().getNodeViewVirtualizer().defersContent(newView))
+			newView.deferContent();
 		newView.update();
-        fireNodeViewCreated(newView);
+		if (!newView.isContentDeferred())
+			fireNodeViewCreated(newView);
         newView.addChildViews();
 	}
 
@@ -215,7 +218,7 @@ class NodeViewFactory {
     			if(text != null) {
     			try {
     				TextController textController = map.getModeController().getExtension(TextController.class);
-    				final Object transformedContent = textController.getTransformedObject(model, note, text);
+    				final Object transformedContent = textController.getTransformedObjectForView(model, note, text);
     				newIcon = textController.getIcon(transformedContent);
     				newText = newIcon == null ? transformedContent.toString() : "";
     			}
@@ -284,7 +287,7 @@ class NodeViewFactory {
 			String text;
 			try {
 				TextController textController = map.getModeController().getExtension(TextController.class);
-				final Object transformedContent = textController.getTransformedObject(node, detailText, detailTextText);
+				final Object transformedContent = textController.getTransformedObjectForView(node, detailText, detailTextText);
 				Icon icon = textController.getIcon(transformedContent);
 				detailContent.setTextRenderingIcon(icon);
 				text = icon == null ? transformedContent.toString() : "";
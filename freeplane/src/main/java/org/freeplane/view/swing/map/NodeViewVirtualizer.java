@@ -0,0 +1,154 @@
+package org.freeplane.view.swing.map;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeListener;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.HtmlUtils;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Defers creating the content of node views which are not near the visible part of the map view.
+ * <p>
+ * Views of unfolded nodes are still created for all nodes, so that selection, scrolling and navigation work as usual,
+ * but views outside of the viewport only get placeholder main views instead of formatted text, icons,
+ * attributes, details, notes and the components added by node view life cycle listeners.
+ * Placeholders are styled like the node content, e.g. by font, border and node width limits,
+ * and take the content size the node had when its view was last removed, or the size of its plain text.
+ * Content is created when the viewport moves near the view, when the view gets selected, and before printing.
+ * Content near the viewport is created after the map view was validated and not during its validation,
+ * so that node view life cycle listeners are not called while the layout is computed.
+ */
+class NodeViewVirtualizer {
+	static final String VIRTUALIZE_NODE_VIEWS_PROPERTY = "virtualize_node_views";
+	private static final int MAXIMUM_PLACEHOLDER_TEXT_LENGTH = 40;
+
+	private final MapView map;
+	private final boolean enabled;
+	private final Map<NodeModel, Dimension> contentSizes = new WeakHashMap<>();
+	private final ChangeListener viewportChangeListener;
+	private boolean contentCreationScheduled;
+
+	NodeViewVirtualizer(final MapView map) {
+		this.map = map;
+		this.enabled = ResourceController.getResourceController().getBooleanProperty(VIRTUALIZE_NODE_VIEWS_PROPERTY);
+		this.viewportChangeListener = e -> createContentNearViewportLater();
+	}
+
+	void addViewportListener() {
+		if (enabled) {
+			((JViewport) map.getParent()).addChangeListener(viewportChangeListener);
+		}
+	}
+
+	void removeViewportListener() {
+		if (enabled) {
+			((JViewport) map.getParent()).removeChangeListener(viewportChangeListener);
+		}
+	}
+
+	boolean defersContent(final NodeView view) {
+		return enabled && !map.isPrinting() && !map.isSelected(view);
+	}
+
+	void updatePlaceholder(final NodeView view) {
+		final MainView mainView = view.getMainView();
+		final Dimension contentSize = contentSizes.get(view.getModel());
+		if (contentSize != null) {
+			final float zoom = map.getZoom();
+			mainView.setPreferredSize(new Dimension((int) (contentSize.width * zoom), (int) (contentSize.height * zoom)));
+		}
+		else {
+			mainView.setPreferredSize(null);
+			mainView.setText(placeholderText(view.getModel()));
+		}
+	}
+
+	private String placeholderText(final NodeModel node) {
+		final String text = HtmlUtils.htmlToPlain(node.getText()).trim();
+		final int lineEnd = text.indexOf('\n');
+		final int end = Math.min(lineEnd >= 0 ? lineEnd : text.length(), MAXIMUM_PLACEHOLDER_TEXT_LENGTH);
+		return text.substring(0, end);
+	}
+
+	void rememberContentSize(final NodeView view) {
+		if (enabled && !view.isContentDeferred() && view.getContent().isVisible()) {
+			final Dimension size = view.getContent().getSize();
+			if (size.width > 0 && size.height > 0) {
+				final float zoom = map.getZoom();
+				contentSizes.put(view.getModel(), new Dimension((int) (size.width / zoom), (int) (size.height / zoom)));
+			}
+		}
+	}
+
+	/** Creates the deferred content near the viewport after the current event, e.g. after the map view is validated. */
+	void createContentNearViewportLater() {
+		if (!enabled || contentCreationScheduled) {
+			return;
+		}
+		contentCreationScheduled = true;
+		SwingUtilities.invokeLater(() -> {
+			contentCreationScheduled = false;
+			if (createContentNearViewport()) {
+				map.revalidate();
+			}
+		});
+	}
+
+	/** Creates the deferred content of selected views and of views near the viewport, returns true if any was created. */
+	private boolean createContentNearViewport() {
+		if (!enabled || !map.isDisplayable() || !map.isLayoutCompleted()) {
+			return false;
+		}
+		final Rectangle visibleRect = map.getVisibleRect();
+		final Rectangle area = new Rectangle(visibleRect.x - visibleRect.width, visibleRect.y - visibleRect.height,
+		    3 * visibleRect.width, 3 * visibleRect.height);
+		boolean created = createContent(map.getRoot(), area);
+		for (final NodeView selected : map.getSelection()) {
+			if (selected.isContentDeferred()) {
+				selected.createDeferredContent();
+				created = true;
+			}
+		}
+		return created;
+	}
+
+	/** The area is given in the coordinates of the parent of the view. */
+	private boolean createContent(final NodeView view, final Rectangle area) {
+		if (!view.isVisible() || !view.getBounds().intersects(area)) {
+			return false;
+		}
+		boolean created = false;
+		if (view.isContentDeferred()) {
+			view.createDeferredContent();
+			created = true;
+		}
+		area.translate(-view.getX(), -view.getY());
+		for (final NodeView child : view.getChildrenViews()) {
+			created |= createContent(child, area);
+		}
+		area.translate(view.getX(), view.getY());
+		return created;
+	}
+
+	void createAllContent() {
+		if (enabled) {
+			createAllContent(map.getRoot());
+		}
+	}
+
+	private void createAllContent(final NodeView view) {
+		if (view.isContentDeferred()) {
+			view.createDeferredContent();
+		}
+		for (final NodeView child : view.getChildrenViews()) {
+			createAllContent(child);
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package org.freeplane.core.io.xml;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.freeplane.core.io.IAttributeHandler;
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.junit.Test;
+
+public class StreamingTreeXmlReaderShould {
+	static class Item {
+		final String tag;
+		final Map<String, String> attributes = new TreeMap<>();
+		final List<Item> children = new ArrayList<>();
+		String content;
+		String unknown;
+
+		Item(String tag) {
+			this.tag = tag;
+		}
+
+		@Override
+		public String toString() {
+			return tag + attributes + (content != null ? "'" + content + "'" : "")
+					+ (unknown != null ? "?" + unknown : "") + children;
+		}
+	}
+
+	private static String describe(XMLElement element) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append('<').append(element.getName());
+		final Enumeration<String> attributeNames = element.enumerateAttributeNames();
+		while (attributeNames.hasMoreElements()) {
+			final String name = attributeNames.nextElement();
+			sb.append(' ').append(name).append('=').append(element.getAttribute(name, null));
+		}
+		sb.append('>');
+		if (element.getContent() != null)
+			sb.append(element.getContent());
+		for (XMLElement child : element.getChildren())
+			sb.append(describe(child));
+		return sb.append("</>").toString();
+	}
+
+	private final IElementDOMHandler nodeHandler = new IElementDOMHandler() {
+		@Override
+		public Object createElement(Object parent, String tag, XMLElement attributes) {
+			return new Item(tag);
+		}
+
+		@Override
+		public void endElement(Object parent, String tag, Object element, XMLElement dom) {
+			final Item item = (Item) element;
+			if (dom.getAttributeCount() != 0 || dom.hasChildren())
+				item.unknown = describe(dom);
+			((Item) parent).children.add(item);
+		}
+	};
+
+	private final IElementContentHandler textHandler = new IElementContentHandler() {
+		@Override
+		public Object createElement(Object parent, String tag, XMLElement attributes) {
+			return new Item(tag);
+		}
+
+		@Override
+		public boolean containsXml(XMLElement element) {
+			return false;
+		}
+
+		@Override
+		public void endElement(Object parent, String tag, Object node, XMLElement element, String content) {
+			final Item item = (Item) node;
+			item.content = content;
+			((Item) parent).children.add(item);
+		}
+	};
+
+	private final IElementContentHandler richContentHandler = new IElementContentHandler() {
+		@Override
+		public Object createElement(Object parent, String tag, XMLElement attributes) {
+			return new Item(tag);
+		}
+
+		@Override
+		public boolean containsXml(XMLElement element) {
+			return true;
+		}
+
+		@Override
+		public void endElement(Object parent, String tag, Object node, XMLElement element, String content) {
+			final Item item = (Item) node;
+			item.content = content;
+			item.attributes.put("TYPE", element.getAttribute("TYPE", null));
+			((Item) parent).children.add(item);
+		}
+	};
+
+	private final IElementHandler iconHandler = new IElementHandler() {
+		@Override
+		public Object createElement(Object parent, String tag, XMLElement attributes) {
+			final Item item = new Item(tag);
+			((Item) parent).children.add(item);
+			return item;
+		}
+	};
+
+	private IElementDOMHandler hookHandler(final String acceptedName) {
+		return new IElementDOMHandler() {
+			@Override
+			public Object createElement(Object parent, String tag, XMLElement attributes) {
+				if (!acceptedName.equals(attributes.getAttribute("NAME", null)))
+					return null;
+				final Item item = new Item(tag + ":" + acceptedName);
+				item.attributes.put("isRootNodeHook", Boolean.toString(ReadManager.belongsToRootNode(attributes)));
+				item.attributes.put("line", Integer.toString(attributes.getLineNr()));
+				return item;
+			}
+
+			@Override
+			public void endElement(Object parent, String tag, Object element, XMLElement dom) {
+				final Item item = (Item) element;
+				item.unknown = describe(dom);
+				((Item) parent).children.add(item);
+			}
+		};
+	}
+
+	private IAttributeHandler attributeHandler(final String name) {
+		return new IAttributeHandler() {
+			@Override
+			public void setAttribute(Object element, String value) {
+				((Item) element).attributes.put(name, value);
+			}
+		};
+	}
+
+	ReadManager readManager() {
+		final ReadManager readManager = new ReadManager();
+		readManager.addElementHandler("map", nodeHandler);
+		readManager.addElementHandler("node", nodeHandler);
+		readManager.addElementHandler("text", textHandler);
+		readManager.addElementHandler("richcontent", richContentHandler);
+		readManager.addElementHandler("icon", iconHandler);
+		readManager.addElementHandler("hook", hookHandler("A"));
+		readManager.addElementHandler("hook", hookHandler("B"));
+		readManager.addAttributeHandler("map", "version", attributeHandler("version"));
+		readManager.addAttributeHandler("node", "TEXT", attributeHandler("TEXT"));
+		readManager.addAttributeHandler("node", "ID", attributeHandler("ID"));
+		readManager.addAttributeHandler("icon", "BUILTIN", attributeHandler("BUILTIN"));
+		readManager.addAttributeHandler("hook", "NAME", attributeHandler("NAME"));
+		return readManager;
+	}
+
+	private static final String MAP = "<map version=\"freeplane 1.9.13\" unknownMapAttribute=\"x\">\n"
+			+ "<!-- comment -->\n"
+			+ "<node TEXT=\"root\" ID=\"ID_1\" FOLDED=\"false\">\n"
+			+ "<hook NAME=\"A\" SIZE=\"1\"/>\n"
+			+ "<hook NAME=\"C\" SIZE=\"2\"><inner a=\"b\">text</inner></hook>\n"
+			+ "<node TEXT=\"child &amp; 1\" ID=\"ID_2\">\n"
+			+ "<icon BUILTIN=\"yes\" UNHANDLED=\"u\"/>\n"
+			+ "<foo bar=\"baz\"><x:bar xmlns:x=\"urn:x\" x:y=\"z\">content</x:bar><empty/></foo>\n"
+			+ "<richcontent TYPE=\"NOTE\"><html><body><p>note &lt;b&gt;</p></body></html></richcontent>\n"
+			+ "<node TEXT=\"grand child\" ID=\"ID_3\"><hook NAME=\"B\"/></node>\n"
+			+ "</node>\n"
+			+ "<node ID=\"ID_4\"><text>long &amp; text</text>pcdata<foo/>more pcdata</node>\n"
+			+ "</node>\n"
+			+ "</map>\n";
+
+	private Item readWithTreeXmlReader(String xml) throws Exception {
+		final Item document = new Item("document");
+		new TreeXmlReader(readManager()).load(document, new StringReader(xml));
+		return document;
+	}
+
+	private Item readWithStreamingReader(String xml) throws Exception {
+		final Item document = new Item("document");
+		new StreamingTreeXmlReader(readManager()).load(document, new StringReader(xml));
+		return document;
+	}
+
+	@Test
+	public void buildSameTreeAsTreeXmlReader() throws Exception {
+		final String expected = readWithTreeXmlReader(MAP).toString();
+		final String actual = readWithStreamingReader(MAP).toString();
+		assertThat(actual, equalTo(expected));
+	}
+
+	@Test
+	public void passHandledAttributesToAttributeHandlers() throws Exception {
+		final Item map = readWithStreamingReader(MAP).children.get(0);
+		final Item root = map.children.get(0);
+		assertThat(map.attributes.get("version"), equalTo("freeplane 1.9.13"));
+		assertThat(root.attributes.get("TEXT"), equalTo("root"));
+		assertThat(root.attributes.get("ID"), equalTo("ID_1"));
+	}
+
+	@Test
+	public void keepUnhandledAttributesAndElementsAsUnknownElements() throws Exception {
+		final Item map = readWithStreamingReader(MAP).children.get(0);
+		final Item root = map.children.get(0);
+		assertThat(map.unknown, equalTo("<map unknownMapAttribute=x></>"));
+		assertThat(root.unknown,
+				equalTo("<node FOLDED=false><hook NAME=C SIZE=2><inner a=b>text</></></>"));
+	}
+
+	@Test
+	public void provideParentChainToHandlers() throws Exception {
+		final Item map = readWithStreamingReader(MAP).children.get(0);
+		final Item root = map.children.get(0);
+		final Item rootHook = root.children.get(0);
+		assertThat(rootHook.tag, equalTo("hook:A"));
+		assertThat(rootHook.attributes.get("isRootNodeHook"), equalTo("true"));
+	}
+}
@@ -0,0 +1,95 @@
+package org.freeplane.core.io.xml;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.io.xml.StreamingTreeXmlReaderShould.Item;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.junit.Test;
+
+public class TreeXmlSnapshotShould {
+	private static final String MAP = "<map version=\"freeplane 1.9.13\" unknownMapAttribute=\"x\">\n"
+			+ "<node TEXT=\"root\" ID=\"ID_1\" FOLDED=\"false\">\n"
+			+ "<hook NAME=\"A\" SIZE=\"1\"/>\n"
+			+ "<hook NAME=\"C\" SIZE=\"2\"><inner a=\"b\">text</inner></hook>\n"
+			+ "<node TEXT=\"child &amp; 1 € 😀\" ID=\"ID_2\">\n"
+			+ "<icon BUILTIN=\"yes\" UNHANDLED=\"u\"/>\n"
+			+ "<foo bar=\"baz\"><x:bar xmlns:x=\"urn:x\" x:y=\"z\">content</x:bar><empty/></foo>\n"
+			+ "<richcontent TYPE=\"NOTE\"><html><body><p>note &lt;b&gt;</p></body></html></richcontent>\n"
+			+ "<node TEXT=\"grand child\" ID=\"ID_3\"><hook NAME=\"B\"/></node>\n"
+			+ "</node>\n"
+			+ "<?pi data?><node ID=\"ID_4\"><text>long &amp; text</text>pcdata<foo/>more pcdata</node>\n"
+			+ "</node>\n"
+			+ "</map>\n";
+
+	private final StreamingTreeXmlReaderShould fixture = new StreamingTreeXmlReaderShould();
+
+	private byte[] write(TreeXmlSnapshot snapshot) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		snapshot.write(out);
+		return out.toByteArray();
+	}
+
+	private Item load(TreeXmlSnapshot snapshot, boolean buildOnlyRequiredDom) throws Exception {
+		final Item document = new Item("document");
+		snapshot.load(fixture.readManager(), document, buildOnlyRequiredDom);
+		return document;
+	}
+
+	@Test
+	public void buildSameTreeAsTreeXmlReaderAfterReadingWrittenSnapshot() throws Exception {
+		final Item expected = new Item("document");
+		new TreeXmlReader(fixture.readManager()).load(expected, new StringReader(MAP));
+		final TreeXmlSnapshot snapshot = TreeXmlSnapshot.record(fixture.readManager(), new StringReader(MAP));
+		final TreeXmlSnapshot readSnapshot = TreeXmlSnapshot.read(new ByteArrayInputStream(write(snapshot)),
+		    fixture.readManager());
+		assertThat(load(readSnapshot, false).toString(), equalTo(expected.toString()));
+		assertThat(load(readSnapshot, true).toString(), equalTo(expected.toString()));
+	}
+
+	@Test
+	public void writeSameBytesAgain() throws Exception {
+		final TreeXmlSnapshot snapshot = TreeXmlSnapshot.record(fixture.readManager(), new StringReader(MAP));
+		final byte[] bytes = write(snapshot);
+		final TreeXmlSnapshot readSnapshot = TreeXmlSnapshot.read(new ByteArrayInputStream(bytes),
+		    fixture.readManager());
+		assertThat(write(readSnapshot), equalTo(bytes));
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectDamagedSnapshot() throws Exception {
+		final byte[] bytes = write(TreeXmlSnapshot.record(fixture.readManager(), new StringReader(MAP)));
+		bytes[bytes.length / 2] ^= 1;
+		TreeXmlSnapshot.read(new ByteArrayInputStream(bytes), fixture.readManager());
+	}
+
+	@Test
+	public void ignoreSnapshotRecordedForOtherContentHandlers() throws Exception {
+		final byte[] bytes = write(TreeXmlSnapshot.record(fixture.readManager(), new StringReader(MAP)));
+		final ReadManager readManager = fixture.readManager();
+		readManager.addElementHandler("foo", new IElementContentHandler() {
+			@Override
+			public Object createElement(Object parent, String tag, XMLElement attributes) {
+				return null;
+			}
+
+			@Override
+			public boolean containsXml(XMLElement element) {
+				return true;
+			}
+
+			@Override
+			public void endElement(Object parent, String tag, Object node, XMLElement element, String content) {
+			}
+		});
+		assertThat(TreeXmlSnapshot.read(new ByteArrayInputStream(bytes), readManager), nullValue());
+	}
+}
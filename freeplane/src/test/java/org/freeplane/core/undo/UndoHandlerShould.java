@@ -0,0 +1,116 @@
+package org.freeplane.core.undo;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.ui.ViewController;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UndoHandlerShould {
+	private static final int KB = 1024;
+	private ResourceController resourceController;
+	private UndoHandler undoHandler;
+	private int undoCount = 0;
+
+	private class SizedActor implements IActor {
+		final private long estimatedSize;
+
+		SizedActor(final long estimatedSize) {
+			this.estimatedSize = estimatedSize;
+		}
+
+		@Override
+		public void act() {
+		}
+
+		@Override
+		public void undo() {
+			undoCount++;
+		}
+
+		@Override
+		public String getDescription() {
+			return "sized";
+		}
+
+		@Override
+		public long getEstimatedSize() {
+			return estimatedSize;
+		}
+	}
+
+	@Before
+	public void setup() {
+		resourceController = mock(ResourceController.class);
+		when(resourceController.getIntProperty("undo_levels", 100)).thenReturn(100);
+		when(resourceController.getIntProperty("undo_memory_limit_mb", 64)).thenReturn(1);
+		final Controller controller = mock(Controller.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		when(controller.getViewController()).thenReturn(mock(ViewController.class));
+		Controller.setCurrentController(controller);
+		undoHandler = new UndoHandler(new MapModel(null, null, null));
+	}
+
+	private void addLevel(final long estimatedSize) {
+		undoHandler.forceNewTransaction();
+		undoHandler.addActor(new SizedActor(estimatedSize));
+	}
+
+	private int undoAll() {
+		int levels = 0;
+		while (undoHandler.canUndo()) {
+			undoHandler.undo();
+			levels++;
+		}
+		return levels;
+	}
+
+	@Test
+	public void keepConfiguredNumberOfLevels() throws Exception {
+		when(resourceController.getIntProperty("undo_levels", 100)).thenReturn(3);
+		for (int i = 0; i < 5; i++) {
+			addLevel(1);
+		}
+		assertThat(undoAll(), equalTo(3));
+	}
+
+	@Test
+	public void removeOldestLevelsExceedingMemoryLimit() throws Exception {
+		for (int i = 0; i < 4; i++) {
+			addLevel(400 * KB);
+		}
+		assertThat(undoAll(), equalTo(2));
+	}
+
+	@Test
+	public void keepLatestLevelExceedingMemoryLimit() throws Exception {
+		addLevel(1);
+		addLevel(2 * KB * KB);
+		assertThat(undoAll(), equalTo(1));
+	}
+
+	@Test
+	public void releaseMemoryOfRemovedRedoLevels() throws Exception {
+		addLevel(400 * KB);
+		addLevel(400 * KB);
+		undoHandler.undo();
+		addLevel(400 * KB);
+		assertThat(undoAll(), equalTo(2));
+	}
+
+	@Test
+	public void notLimitMemoryWithinTransactions() throws Exception {
+		undoHandler.startTransaction();
+		for (int i = 0; i < 4; i++) {
+			addLevel(400 * KB);
+		}
+		undoHandler.rollback();
+		assertThat(undoCount, equalTo(4));
+	}
+}
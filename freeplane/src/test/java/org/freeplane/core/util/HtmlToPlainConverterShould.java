@@ -0,0 +1,111 @@
+package org.freeplane.core.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+public class HtmlToPlainConverterShould {
+	private static final String NODE_SEPARATOR = "\n<!-- node -->\n";
+	private static final String[] FRAGMENTS = { "<html>", "<body>", "<p>", "</p>", "<P class=\"x\">", "<br>", "<br/>",
+	        "<div>", "</div>", "<table>", "<tr>", "<td>", "</td>", "</tr>", "<dl>", "<dt>", "<dd>", "<ul>", "</ul>",
+	        "<ol>", "<li>", "<LI>", "</li>", "<b>", "</b>", "<i>", "<font color=\"#ff0000\">", "</font>", "<pre>",
+	        "<!-- comment -->", " ", "  ", "\n", "\t", "\r", "\n  ", "text", "ab", "&amp;", "&lt;", "&gt;", "&quot;",
+	        "&nbsp;", "&AMP;", "&#160;", "&#x41;", "&#10;", "&#1;", "&#38;", "&#32;", "&#-5;", "&#x;", "&lt", "lt;",
+	        "amp;", "&", ";", "#", "\u00a0", ">" };
+
+	static String[] loadNodeHtml() throws IOException {
+		try (InputStream input = HtmlToPlainConverterShould.class.getResourceAsStream("nodeHtml.txt")) {
+			return IOUtils.toString(input, StandardCharsets.UTF_8).split(NODE_SEPARATOR);
+		}
+	}
+
+	private static void assertSameAsPatterns(final String html) {
+		assertSameAsPatterns(html, true);
+		assertSameAsPatterns(html, false);
+	}
+
+	private static void assertSameAsPatterns(final String html, final boolean removeNewLines) {
+		final String expected;
+		try {
+			expected = PatternHtmlToPlain.htmlToPlain(html, removeNewLines);
+		}
+		catch (final StringIndexOutOfBoundsException e) {
+			// the patterns failed on empty entities like "&;"
+			return;
+		}
+		assertThat(html, HtmlToPlainConverter.convert(html, removeNewLines), equalTo(expected));
+	}
+
+	@Test
+	public void separateParagraphsByNewLines() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<html><body><p>first</p><p>second</p></body></html>", true),
+		    equalTo("first\nsecond"));
+	}
+
+	@Test
+	public void replaceListItemsByStars() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<html><ul><li>one</li><li>two</li></ul></html>", true),
+		    equalTo("* one\n   * two"));
+	}
+
+	@Test
+	public void separateTableCellsBySpacesAndRowsByNewLines() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<table><tr><td>a</td><td>b</td></tr><tr><td>c</td></tr></table>", true),
+		    equalTo("a b\n c"));
+	}
+
+	@Test
+	public void removeSpacesBeforeClosingTags() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<html><b>bold </b>text</html>", true), equalTo("boldtext"));
+	}
+
+	@Test
+	public void decodeEntitiesOnce() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<html><p>a &lt;b&gt; &amp;amp; &#65;&#x42;&nbsp;c</p></html>", true),
+		    equalTo("a <b> &amp; AB c"));
+	}
+
+	@Test
+	public void removeNewLinesOfSource() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<html><p>\n  line one<br>\n  line two\n</p></html>", true),
+		    equalTo("line one\n line two"));
+	}
+
+	@Test
+	public void keepNewLinesOfSource() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<html><p>\n  line one<br>\n  line two\n</p></html>", false),
+		    equalTo("line one\n  line two"));
+	}
+
+	@Test
+	public void keepEmptyEntities() throws Exception {
+		assertThat(HtmlToPlainConverter.convert("<html>&;&#;</html>", true), equalTo("&;&#;"));
+	}
+
+	@Test
+	public void convertNodeHtmlLikePatterns() throws Exception {
+		for (final String html : loadNodeHtml()) {
+			assertSameAsPatterns(html);
+		}
+	}
+
+	@Test
+	public void convertGeneratedHtmlLikePatterns() throws Exception {
+		final Random random = new Random(0);
+		for (int i = 0; i < 50_000; i++) {
+			final StringBuilder html = new StringBuilder();
+			final int fragmentCount = random.nextInt(16);
+			for (int j = 0; j < fragmentCount; j++) {
+				html.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+			}
+			assertSameAsPatterns(html.toString());
+		}
+	}
+}
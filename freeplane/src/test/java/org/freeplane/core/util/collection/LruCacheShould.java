@@ -0,0 +1,66 @@
+package org.freeplane.core.util.collection;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class LruCacheShould {
+	@Test
+	public void returnPutValue() throws Exception {
+		final LruCache<String, String> cache = new LruCache<>(2);
+		cache.put("key", "value");
+		assertThat(cache.get("key"), equalTo("value"));
+	}
+
+	@Test
+	public void removeLeastRecentlyUsedValue() throws Exception {
+		final LruCache<String, String> cache = new LruCache<>(2);
+		cache.put("1", "one");
+		cache.put("2", "two");
+		cache.get("1");
+		cache.put("3", "three");
+		assertThat(cache.get("1"), equalTo("one"));
+		assertThat(cache.get("2"), nullValue());
+		assertThat(cache.get("3"), equalTo("three"));
+	}
+
+	@Test
+	public void removeValuesUntilWeightFits() throws Exception {
+		final LruCache<String, String> cache = new LruCache<>(10, String::length);
+		cache.put("1", "12345");
+		cache.put("2", "1234");
+		cache.put("3", "123");
+		assertThat(cache.get("1"), nullValue());
+		assertThat(cache.get("2"), equalTo("1234"));
+		assertThat(cache.size(), equalTo(2));
+	}
+
+	@Test
+	public void replaceWeightOfReplacedValue() throws Exception {
+		final LruCache<String, String> cache = new LruCache<>(10, String::length);
+		cache.put("1", "12345");
+		cache.put("1", "123456");
+		cache.put("2", "1234");
+		assertThat(cache.get("1"), equalTo("123456"));
+		assertThat(cache.get("2"), equalTo("1234"));
+	}
+
+	@Test
+	public void notKeepValuesHeavierThanMaximum() throws Exception {
+		final LruCache<String, String> cache = new LruCache<>(3, String::length);
+		cache.put("1", "12");
+		cache.put("2", "1234");
+		assertThat(cache.get("1"), equalTo("12"));
+		assertThat(cache.get("2"), nullValue());
+	}
+
+	@Test
+	public void removeAllValuesOnClear() throws Exception {
+		final LruCache<String, String> cache = new LruCache<>(2);
+		cache.put("key", "value");
+		cache.clear();
+		assertThat(cache.get("key"), nullValue());
+	}
+}
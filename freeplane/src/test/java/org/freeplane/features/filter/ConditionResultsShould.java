@@ -0,0 +1,57 @@
+package org.freeplane.features.filter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.NodeCacheFixture;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class ConditionResultsShould {
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final NodeModel node = fixture.createNode("text");
+	private final ICondition condition = mock(ICondition.class);
+
+	private boolean checkNode() {
+		return ConditionResults.getTable(fixture.map, condition).checkNode(node);
+	}
+
+	@Test
+	public void evaluateConditionOnce() throws Exception {
+		when(condition.checkNode(node)).thenReturn(true);
+		assertThat(checkNode(), equalTo(true));
+		assertThat(checkNode(), equalTo(true));
+		verify(condition, times(1)).checkNode(node);
+	}
+
+	@Test
+	public void evaluateConditionAgainAfterNodeChange() throws Exception {
+		checkNode();
+		fixture.changeNode(node);
+		checkNode();
+		verify(condition, times(2)).checkNode(node);
+	}
+
+	@Test
+	public void keepResultsAfterNodeInsertion() throws Exception {
+		checkNode();
+		fixture.insertNode();
+		checkNode();
+		verify(condition, times(1)).checkNode(node);
+	}
+
+	@Test
+	public void keepResultsOfDifferentConditions() throws Exception {
+		final ICondition otherCondition = mock(ICondition.class);
+		when(condition.checkNode(node)).thenReturn(true);
+		assertThat(checkNode(), equalTo(true));
+		assertThat(ConditionResults.getTable(fixture.map, otherCondition).checkNode(node), equalTo(false));
+		assertThat(checkNode(), equalTo(true));
+		verify(condition, times(1)).checkNode(node);
+	}
+}
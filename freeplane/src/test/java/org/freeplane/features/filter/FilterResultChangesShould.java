@@ -0,0 +1,150 @@
+package org.freeplane.features.filter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.NodeCacheFixture;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class FilterResultChangesShould {
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final NodeModel root = fixture.root;
+	private final List<NodeModel> checkedNodes = new ArrayList<>();
+	private final ICondition condition = new ICondition() {
+		@Override
+		public boolean checkNode(final NodeModel node) {
+			checkedNodes.add(node);
+			return node.getText().startsWith("match");
+		}
+
+		@Override
+		public boolean checksNodeContentOnly() {
+			return true;
+		}
+	};
+	private final Filter filter = createFilter();
+
+	private Filter createFilter() {
+		return new Filter(condition, false, true, true, false, null);
+	}
+
+	private NodeModel addChild(final NodeModel parent, final String text) {
+		final NodeModel child = fixture.createNode(text);
+		parent.insert(child);
+		return child;
+	}
+
+	private void changeText(final NodeModel node, final String text) {
+		node.setText(text);
+		fixture.changeNode(node);
+	}
+
+	/** Applies the filter again and checks that its results equal those of a new calculation. */
+	private Filter reapply(final Filter oldFilter) {
+		final Filter reappliedFilter = createFilter();
+		reappliedFilter.calculateFilterResults(fixture.map, oldFilter);
+		final Filter calculatedFilter = createFilter();
+		calculatedFilter.calculateFilterResults(fixture.map);
+		assertSameResults(reappliedFilter, calculatedFilter, root);
+		return reappliedFilter;
+	}
+
+	private void assertSameResults(final Filter filter, final Filter expectedFilter, final NodeModel node) {
+		assertThat(node.getText(), filter.getFilterInfo(node), equalTo(expectedFilter.getFilterInfo(node)));
+		for (final NodeModel child : node.getChildren()) {
+			assertSameResults(filter, expectedFilter, child);
+		}
+	}
+
+	@Test
+	public void updateResultsOfChangedNode() throws Exception {
+		final NodeModel parent = addChild(root, "parent");
+		final NodeModel child = addChild(parent, "child");
+		final NodeModel grandChild = addChild(child, "grand child");
+		filter.calculateFilterResults(fixture.map);
+		changeText(child, "match");
+		final Filter reappliedFilter = reapply(filter);
+		assertThat(reappliedFilter.getFilterInfo(child).isMatched(), equalTo(true));
+		assertThat(reappliedFilter.isVisible(parent), equalTo(true));
+		assertThat(reappliedFilter.isVisible(grandChild), equalTo(true));
+	}
+
+	@Test
+	public void updateResultsOfNodeNoLongerMatching() throws Exception {
+		final NodeModel parent = addChild(root, "parent");
+		final NodeModel child = addChild(parent, "match");
+		addChild(child, "grand child");
+		filter.calculateFilterResults(fixture.map);
+		changeText(child, "child");
+		final Filter reappliedFilter = reapply(filter);
+		assertThat(reappliedFilter.isVisible(parent), equalTo(false));
+	}
+
+	@Test
+	public void evaluateConditionOnlyForChangedNodes() throws Exception {
+		final NodeModel parent = addChild(root, "parent");
+		final NodeModel child = addChild(parent, "child");
+		addChild(parent, "other child");
+		filter.calculateFilterResults(fixture.map);
+		final NodeModel nodeAddedWithoutEvent = addChild(root, "match");
+		changeText(child, "match");
+		checkedNodes.clear();
+		final Filter reappliedFilter = createFilter();
+		reappliedFilter.calculateFilterResults(fixture.map, filter);
+		assertThat(checkedNodes, equalTo(Arrays.asList(child)));
+		assertThat(reappliedFilter.getFilterInfo(nodeAddedWithoutEvent).isNotChecked(), equalTo(true));
+	}
+
+	@Test
+	public void updateResultsOfInsertedAndRemovedBranches() throws Exception {
+		final NodeModel parent = addChild(root, "parent");
+		final NodeModel other = addChild(root, "other");
+		filter.calculateFilterResults(fixture.map);
+		final NodeModel branch = fixture.createNode("branch");
+		addChild(branch, "match");
+		fixture.insertNode(parent, branch);
+		Filter reappliedFilter = reapply(filter);
+		assertThat(reappliedFilter.isVisible(parent), equalTo(true));
+		fixture.deleteNode(parent, 0);
+		fixture.insertNode(other, branch);
+		reappliedFilter = reapply(reappliedFilter);
+		assertThat(reappliedFilter.isVisible(parent), equalTo(false));
+		assertThat(reappliedFilter.isVisible(other), equalTo(true));
+	}
+
+	@Test
+	public void calculateResultOfResetNodeAgain() throws Exception {
+		final NodeModel node = addChild(root, "other");
+		filter.calculateFilterResults(fixture.map);
+		filter.resetFilter(node);
+		assertThat(filter.isVisible(node), equalTo(true));
+		assertThat(reapply(filter).isVisible(node), equalTo(false));
+	}
+
+	@Test
+	public void calculateAllResultsAfterMapChange() throws Exception {
+		addChild(root, "parent");
+		filter.calculateFilterResults(fixture.map);
+		final NodeModel nodeAddedWithoutEvent = addChild(root, "match");
+		fixture.changeMap();
+		final Filter reappliedFilter = reapply(filter);
+		assertThat(reappliedFilter.getFilterInfo(nodeAddedWithoutEvent).isMatched(), equalTo(true));
+	}
+
+	@Test
+	public void forgetChangesBeyondMaximumCount() throws Exception {
+		final FilterResultChanges changes = FilterResultChanges.of(fixture.map);
+		final int changeCount = changes.getChangeCount();
+		for (int i = 0; i <= FilterResultChanges.MAXIMUM_CHANGE_COUNT; i++) {
+			fixture.changeNode(root);
+		}
+		assertThat(changes.getChangesSince(changeCount), nullValue());
+	}
+}
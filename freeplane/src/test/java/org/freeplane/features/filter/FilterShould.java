@@ -0,0 +1,126 @@
+package org.freeplane.features.filter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.lang.ref.WeakReference;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class FilterShould {
+	private final MapModel map = new MapModel(null, null, null);
+	private final NodeModel root = new NodeModel("root", map);
+	private final ICondition condition = node -> node.getText().startsWith("match");
+
+	{
+		map.setRoot(root);
+	}
+
+	private NodeModel addChild(final NodeModel parent, final String text) {
+		final NodeModel child = new NodeModel(text, map);
+		parent.insert(child);
+		return child;
+	}
+
+	private Filter createFilter(final boolean areAncestorsShown) {
+		return new Filter(condition, false, areAncestorsShown, false, false, null);
+	}
+
+	@Test
+	public void showMatchingNodes() throws Exception {
+		final NodeModel matching = addChild(root, "match");
+		final NodeModel other = addChild(root, "other");
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		assertThat(filter.isVisible(matching), equalTo(true));
+		assertThat(filter.getFilterInfo(matching).isMatched(), equalTo(true));
+		assertThat(filter.isVisible(other), equalTo(false));
+		assertThat(filter.getFilterInfo(other).isMatched(), equalTo(false));
+	}
+
+	@Test
+	public void showAncestorsOfMatchingNodes() throws Exception {
+		final NodeModel ancestor = addChild(root, "ancestor");
+		addChild(ancestor, "match");
+		final Filter filter = createFilter(true);
+		filter.calculateFilterResults(map);
+		assertThat(filter.isVisible(ancestor), equalTo(true));
+		assertThat(filter.getFilterInfo(ancestor).canBeAncestor(), equalTo(true));
+		assertThat(filter.getFilterInfo(ancestor).isMatched(), equalTo(false));
+	}
+
+	@Test
+	public void keepResetResults() throws Exception {
+		final NodeModel matching = addChild(root, "match");
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		filter.resetFilter(matching);
+		assertThat(filter.getFilterInfo(matching).isMatched(), equalTo(false));
+		assertThat(filter.isVisible(matching), equalTo(true));
+	}
+
+	@Test
+	public void returnSharedFilterInfos() throws Exception {
+		final NodeModel matching = addChild(root, "match");
+		final NodeModel otherMatching = addChild(root, "match too");
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		assertThat(filter.getFilterInfo(matching), sameInstance(filter.getFilterInfo(otherMatching)));
+	}
+
+	@Test
+	public void reuseOrdinalsOfDeletedNodesWithoutTheirResults() throws Exception {
+		final NodeModel other = addChild(root, "other");
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		final int ordinalCount = map.getNodeOrdinalCount();
+		root.remove(0);
+		map.unregistryNodes(other);
+		final NodeModel newNode = addChild(root, "new");
+		assertThat(newNode.getOrdinal() < ordinalCount, equalTo(true));
+		assertThat(map.getNodeOrdinalCount(), equalTo(ordinalCount));
+		assertThat(filter.isVisible(newNode), equalTo(true));
+	}
+
+	@Test
+	public void showNodesAddedAfterFiltering() throws Exception {
+		addChild(root, "other");
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		final NodeModel newNode = addChild(root, "new");
+		assertThat(filter.isVisible(newNode), equalTo(true));
+	}
+
+	@Test
+	public void showNodesOfOtherMaps() throws Exception {
+		addChild(root, "other");
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		final MapModel otherMap = new MapModel(null, null, null);
+		final NodeModel otherRoot = new NodeModel("root", otherMap);
+		otherMap.setRoot(otherRoot);
+		final NodeModel otherNode = new NodeModel("other", otherMap);
+		otherRoot.insert(otherNode);
+		assertThat(filter.isVisible(otherNode), equalTo(true));
+	}
+
+	@Test
+	public void notRetainRemovedNodes() throws Exception {
+		addChild(root, "match");
+		final Filter filter = createFilter(false);
+		filter.calculateFilterResults(map);
+		final WeakReference<NodeModel> removedNode = new WeakReference<NodeModel>(root.getChildAt(0));
+		root.remove(0);
+		for (int i = 0; i < 10 && removedNode.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertThat(removedNode.get(), nullValue());
+		assertThat(filter.isVisible(root), equalTo(true));
+	}
+}
@@ -0,0 +1,72 @@
+package org.freeplane.features.filter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.features.filter.EditDistanceStringMatchingStrategy.Type;
+import org.freeplane.features.filter.PseudoDamerauLevenshtein.Alignment;
+import org.junit.Test;
+
+public class PseudoDamerauLevenshteinShould {
+	private static final String ALPHABET = "abc-\u00e4\u4e2d";
+
+	private static String randomString(final Random random, final int length) {
+		final StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		return builder.toString();
+	}
+
+	private static int matrixDistance(final String searchTerm, final String searchText, final Type type) {
+		final PseudoDamerauLevenshtein pseudoDamerauLevenshtein = new PseudoDamerauLevenshtein();
+		pseudoDamerauLevenshtein.init(searchTerm, searchText, type == Type.SemiGlobal);
+		return pseudoDamerauLevenshtein.computeMatrix();
+	}
+
+	private static void assertSameDistanceAsMatrix(final String searchTerm, final String searchText) {
+		for (Type type : Type.values()) {
+			assertThat(searchTerm + " in " + searchText + ", " + type,
+			    PseudoDamerauLevenshtein.distance(searchTerm, searchText, type),
+			    equalTo(matrixDistance(searchTerm, searchText, type)));
+		}
+	}
+
+	@Test
+	public void computeDistancesOfShortTermsLikeMatrix() throws Exception {
+		final Random random = new Random(1);
+		for (int i = 0; i < 2000; i++)
+			assertSameDistanceAsMatrix(randomString(random, 1 + random.nextInt(64)), randomString(random, random.nextInt(100)));
+	}
+
+	@Test
+	public void computeDistancesOfLongTermsLikeMatrix() throws Exception {
+		final Random random = new Random(2);
+		for (int i = 0; i < 200; i++)
+			assertSameDistanceAsMatrix(randomString(random, 65 + random.nextInt(40)), randomString(random, random.nextInt(150)));
+	}
+
+	@Test
+	public void countTranspositionsAsOneEdit() throws Exception {
+		assertThat(PseudoDamerauLevenshtein.distance("file", "a fiel is", Type.SemiGlobal), equalTo(1));
+		assertThat(PseudoDamerauLevenshtein.distance("file", "fiel", Type.Global), equalTo(1));
+	}
+
+	@Test
+	public void matchEmptySearchTerms() throws Exception {
+		assertThat(PseudoDamerauLevenshtein.distance("", "text", Type.SemiGlobal), equalTo(0));
+		assertThat(PseudoDamerauLevenshtein.distance("", "text", Type.Global), equalTo(4));
+	}
+
+	@Test
+	public void keepAlignments() throws Exception {
+		final PseudoDamerauLevenshtein pseudoDamerauLevenshtein = new PseudoDamerauLevenshtein();
+		pseudoDamerauLevenshtein.init("file", "a fiel and a file", true);
+		final List<Alignment> alignments = pseudoDamerauLevenshtein.computeAlignments(0.7);
+		assertThat(alignments.size(), equalTo(2));
+		assertThat(alignments.get(0).getMatch(), equalTo("fiel"));
+		assertThat(alignments.get(1).getMatch(), equalTo("file"));
+	}
+}
@@ -0,0 +1,76 @@
+package org.freeplane.features.map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.freeplane.core.resources.ResourceBundles;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.undo.IUndoHandler;
+import org.freeplane.features.clipboard.ClipboardControllers;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MapControllerNodeChangeBatchShould {
+	private final List<String> notifications = new ArrayList<>();
+	private final MapModel map = new MapModel(null, null, null);
+	private final NodeModel root = new NodeModel("root", map);
+	private final IUndoHandler undoHandler = mock(IUndoHandler.class);
+	private MapController mapController;
+
+	@Before
+	public void setup() {
+		map.setRoot(root);
+		map.addExtension(IUndoHandler.class, undoHandler);
+		final Controller controller = mock(Controller.class);
+		final ResourceController resourceController = mock(ResourceController.class);
+		when(resourceController.getResources()).thenReturn(mock(ResourceBundles.class));
+		when(controller.getResourceController()).thenReturn(resourceController);
+		when(controller.getMap()).thenReturn(map);
+		Controller.setCurrentController(controller);
+		final ModeController modeController = mock(ModeController.class);
+		when(modeController.getController()).thenReturn(controller);
+		when(controller.getModeController()).thenReturn(modeController);
+		when(modeController.getExtension(ClipboardControllers.class)).thenReturn(mock(ClipboardControllers.class));
+		mapController = new MapController(modeController);
+		mapController.addNodeChangeListener(event -> notifications.add("changed " + event.getNode()));
+		mapController.addMapChangeListener(new IMapChangeListener() {
+			@Override
+			public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+				notifications.add("inserted " + child);
+			}
+		});
+	}
+
+	@Test
+	public void notifyStructureChangesBeforeNodeChanges() throws Exception {
+		final NodeModel node = new NodeModel("node", map);
+		mapController.startNodeChangeBatch();
+		mapController.nodeRefresh(root, NodeModel.NODE_TEXT, null, null);
+		mapController.insertNodeIntoWithoutUndo(node, root);
+		mapController.nodeRefresh(node, NodeModel.NODE_TEXT, null, null);
+		assertThat(notifications, equalTo(Arrays.asList("inserted node")));
+		mapController.commitNodeChangeBatch();
+		assertThat(notifications, equalTo(Arrays.asList("inserted node", "changed root", "changed node")));
+	}
+
+	@Test
+	public void undoBatchAsOneTransaction() throws Exception {
+		mapController.startNodeChangeBatch();
+		mapController.startNodeChangeBatch();
+		mapController.commitNodeChangeBatch();
+		verify(undoHandler, times(0)).commit();
+		mapController.commitNodeChangeBatch();
+		verify(undoHandler, times(1)).startTransaction();
+		verify(undoHandler, times(1)).commit();
+	}
+}
@@ -0,0 +1,54 @@
+package org.freeplane.features.map;
+
+import org.freeplane.features.filter.Filter;
+
+/** Map with a root node and the events which invalidate node caches, shared by the tests of the caches. */
+public class NodeCacheFixture {
+	public final MapModel map = new MapModel(null, null, null);
+	public final NodeModel root = new NodeModel("root", map);
+	final private NodeCache.Invalidator invalidator = new NodeCache.Invalidator();
+
+	public NodeCacheFixture() {
+		map.setRoot(root);
+	}
+
+	public NodeModel createNode(final String text) {
+		return new NodeModel(text, map);
+	}
+
+	public void changeNode(final NodeModel node) {
+		invalidator.nodeChanged(new NodeChangeEvent(node, NodeModel.NODE_TEXT, null, null, true, true));
+	}
+
+	public void changeMap() {
+		invalidator.mapChanged(new MapChangeEvent(this, map, "property", null, null));
+	}
+
+	public void changeFilter() {
+		invalidator.mapChanged(new MapChangeEvent(this, map, Filter.class, null, null, false));
+	}
+
+	public void insertNode() {
+		invalidator.onNodeInserted(root, createNode("child"), 0);
+	}
+
+	public void insertNode(final NodeModel parent, final NodeModel child) {
+		parent.insert(child);
+		invalidator.onNodeInserted(parent, child, parent.getIndex(child));
+	}
+
+	public void deleteNode(final NodeModel parent, final int index) {
+		final NodeModel child = parent.getChildAt(index);
+		parent.remove(index);
+		invalidator.onNodeDeleted(new NodeDeletionEvent(parent, child, index));
+	}
+
+	public void fold(final NodeModel node) {
+		node.setFolded(true);
+		invalidator.foldingChanged(node);
+	}
+
+	public void changePreferences() {
+		invalidator.propertyChanged("property", "new", "old");
+	}
+}
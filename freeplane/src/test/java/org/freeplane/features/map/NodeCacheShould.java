@@ -0,0 +1,106 @@
+package org.freeplane.features.map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class NodeCacheShould {
+	private static class TestCache extends NodeCache {
+		final private Set<NodeModel> nodes = new HashSet<>();
+		private boolean clearsOnStructureChange = true;
+
+		private static TestCache of(final MapModel map) {
+			return of(map, TestCache.class, TestCache::new);
+		}
+
+		private synchronized void add(final NodeModel node) {
+			clearIfInvalidated();
+			nodes.add(node);
+		}
+
+		private synchronized boolean contains(final NodeModel node) {
+			clearIfInvalidated();
+			return nodes.contains(node);
+		}
+
+		@Override
+		protected void structureChanged(final NodeModel parent, final NodeModel child) {
+			if (clearsOnStructureChange) {
+				super.structureChanged(parent, child);
+			}
+		}
+
+		@Override
+		protected synchronized void removeNode(final NodeModel node) {
+			nodes.remove(node);
+		}
+
+		@Override
+		protected synchronized void clear() {
+			nodes.clear();
+		}
+	}
+
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final NodeModel node = fixture.createNode("node");
+	private final NodeModel otherNode = fixture.createNode("other");
+	private final TestCache cache = TestCache.of(fixture.map);
+
+	{
+		cache.add(node);
+		cache.add(otherNode);
+	}
+
+	@Test
+	public void returnSameCacheForMap() throws Exception {
+		assertThat(TestCache.of(fixture.map), equalTo(cache));
+	}
+
+	@Test
+	public void removeChangedNode() throws Exception {
+		fixture.changeNode(node);
+		assertThat(cache.contains(node), equalTo(false));
+		assertThat(cache.contains(otherNode), equalTo(true));
+	}
+
+	@Test
+	public void clearOnMapChange() throws Exception {
+		fixture.changeMap();
+		assertThat(cache.contains(otherNode), equalTo(false));
+	}
+
+	@Test
+	public void keepValuesOnFilterChange() throws Exception {
+		fixture.changeFilter();
+		assertThat(cache.contains(node), equalTo(true));
+	}
+
+	@Test
+	public void clearOnStructureChange() throws Exception {
+		fixture.insertNode();
+		assertThat(cache.contains(node), equalTo(false));
+	}
+
+	@Test
+	public void keepValuesOnStructureChangeIfRequested() throws Exception {
+		cache.clearsOnStructureChange = false;
+		fixture.insertNode();
+		assertThat(cache.contains(node), equalTo(true));
+	}
+
+	@Test
+	public void clearOnPreferenceChange() throws Exception {
+		fixture.changePreferences();
+		assertThat(cache.contains(node), equalTo(false));
+	}
+
+	@Test
+	public void clearAfterInvalidateAll() throws Exception {
+		NodeCache.invalidateAll();
+		assertThat(cache.contains(node), equalTo(false));
+	}
+}
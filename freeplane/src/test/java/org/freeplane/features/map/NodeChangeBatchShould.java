@@ -0,0 +1,61 @@
+package org.freeplane.features.map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+public class NodeChangeBatchShould {
+	private final MapModel map = new MapModel(null, null, null);
+	private final NodeModel node = new NodeModel("text", map);
+	private final NodeModel otherNode = new NodeModel("other", map);
+	private final NodeChangeBatch batch = new NodeChangeBatch();
+
+	private List<NodeChangeEvent> events() {
+		return new ArrayList<>(batch.getEvents());
+	}
+
+	@Test
+	public void keepOneEventForEachNodeAndProperty() throws Exception {
+		batch.addEvent(new NodeChangeEvent(node, NodeModel.NODE_TEXT, "a", "b", true, true));
+		batch.addEvent(new NodeChangeEvent(otherNode, NodeModel.NODE_TEXT, "c", "d", true, true));
+		batch.addEvent(new NodeChangeEvent(node, NodeModel.NODE_TEXT, "b", "e", true, true));
+		batch.addEvent(new NodeChangeEvent(node, NodeModel.NODE_ICON, null, "icon", true, true));
+		final List<NodeChangeEvent> events = events();
+		assertThat(events.size(), equalTo(3));
+		assertThat(events.get(0).getNode(), equalTo(node));
+		assertThat(events.get(1).getNode(), equalTo(otherNode));
+		assertThat(events.get(2).getProperty(), equalTo((Object) NodeModel.NODE_ICON));
+	}
+
+	@Test
+	public void keepFirstOldAndLastNewValue() throws Exception {
+		batch.addEvent(new NodeChangeEvent(node, NodeModel.NODE_TEXT, "a", "b", false, false));
+		batch.addEvent(new NodeChangeEvent(node, NodeModel.NODE_TEXT, "b", "c", true, false));
+		final NodeChangeEvent event = events().get(0);
+		assertThat(event.getOldValue(), equalTo((Object) "a"));
+		assertThat(event.getNewValue(), equalTo((Object) "c"));
+		assertThat(event.setsDirtyFlag(), equalTo(true));
+		assertThat(event.updatesModificationTime(), equalTo(false));
+	}
+
+	@Test
+	public void keepModificationTimeBeforeFirstChange() throws Exception {
+		final Date first = new Date(1);
+		batch.addModifiedNode(node, first);
+		batch.addModifiedNode(node, new Date(2));
+		assertThat(batch.getModificationTimes().get(map).get(node), equalTo(first));
+		assertThat(batch.getModificationTimes().get(map).size(), equalTo(1));
+	}
+
+	@Test
+	public void completeOnOutermostCommit() throws Exception {
+		batch.start();
+		assertThat(batch.commit(), equalTo(false));
+		assertThat(batch.commit(), equalTo(true));
+	}
+}
@@ -0,0 +1,52 @@
+package org.freeplane.features.map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class NodeTextStoreShould {
+	private final MapModel map = new MapModel(null, null, null);
+
+	private static String copy(final String text) {
+		return new String(text.toCharArray());
+	}
+
+	@Test
+	public void shareEqualTextsWhileMapIsRead() throws Exception {
+		NodeTextStore.attachTo(map);
+		final NodeModel node = new NodeModel(copy("TODO"), map);
+		final NodeModel otherNode = new NodeModel(map);
+		otherNode.setText(copy("TODO"));
+		assertThat(otherNode.getUserObject(), sameInstance(node.getUserObject()));
+	}
+
+	@Test
+	public void shareEqualXmlTexts() throws Exception {
+		NodeTextStore.attachTo(map);
+		final NodeModel node = new NodeModel(map);
+		node.setXmlText(copy("<html><body>done</body></html>"));
+		final NodeModel otherNode = new NodeModel(map);
+		otherNode.setXmlText(copy("<html><body>done</body></html>"));
+		assertThat(otherNode.getXmlText(), sameInstance(node.getXmlText()));
+	}
+
+	@Test
+	public void notShareTextsAfterMapIsRead() throws Exception {
+		NodeTextStore.attachTo(map);
+		NodeTextStore.detachFrom(map);
+		final NodeModel node = new NodeModel(copy("TODO"), map);
+		final NodeModel otherNode = new NodeModel(copy("TODO"), map);
+		assertThat(otherNode.getUserObject(), not(sameInstance(node.getUserObject())));
+	}
+
+	@Test
+	public void notReplaceStoreAttachedBefore() throws Exception {
+		assertThat(NodeTextStore.attachTo(map), equalTo(true));
+		final NodeTextStore store = map.getExtension(NodeTextStore.class);
+		assertThat(NodeTextStore.attachTo(map), equalTo(false));
+		assertThat(map.getExtension(NodeTextStore.class), sameInstance(store));
+	}
+}
@@ -0,0 +1,185 @@
+package org.freeplane.features.map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.freeplane.core.io.WriteManager;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.link.LinkController;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeXmlCacheShould {
+	private final List<Object> writtenNodes = new ArrayList<>();
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final MapModel map = fixture.map;
+	private final NodeModel root = fixture.root;
+	private ResourceController resourceController;
+	private MapWriter mapWriter;
+
+	@Before
+	public void setup() {
+		resourceController = mock(ResourceController.class);
+		when(resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_FOLDING)).thenReturn(
+		    NodeBuilder.RESOURCES_ALWAYS_SAVE_FOLDING);
+		final Controller controller = mock(Controller.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		Controller.setCurrentController(controller);
+		final WriteManager writeManager = new WriteManager();
+		final MapController mapController = mock(MapController.class);
+		when(mapController.getWriteManager()).thenReturn(writeManager);
+		when(mapController.isFolded(any())).thenAnswer(invocation -> ((NodeModel) invocation.getArgument(0))
+		    .isFolded());
+		final ModeController modeController = mock(ModeController.class);
+		when(mapController.getModeController()).thenReturn(modeController);
+		when(modeController.getExtension(LinkController.class)).thenReturn(null);
+		mapWriter = new MapWriter(mapController);
+		writeManager.addElementWriter("map", mapWriter);
+		writeManager.addAttributeWriter("map", mapWriter);
+		writeManager.addAttributeWriter(NodeBuilder.XML_NODE, (writer, node, tag) -> {
+			writtenNodes.add(((NodeModel) node).getUserObject());
+			writer.addAttribute("TEXT", ((NodeModel) node).getUserObject().toString());
+		});
+	}
+
+	/** Creates a map whose nodes have texts of the given length. */
+	private void createNodes(final int textLength) {
+		for (int i = 0; i < 3; i++) {
+			final NodeModel child = new NodeModel(text("child " + i, textLength), map);
+			root.insert(child);
+			for (int j = 0; j < 2; j++) {
+				child.insert(new NodeModel(text("grand child " + i + j, textLength), map));
+			}
+		}
+	}
+
+	private static String text(final String text, final int length) {
+		final StringBuilder builder = new StringBuilder(text);
+		while (builder.length() < length) {
+			builder.append('.');
+		}
+		return builder.toString();
+	}
+
+	/** Nodes are bigger than a half block, so that each node is kept separately. */
+	private void createBigNodes() {
+		createNodes(NodeXmlCache.MAXIMUM_BLOCK_LENGTH / 2);
+	}
+
+	@After
+	public void tearDown() {
+		Controller.setCurrentController(null);
+	}
+
+	private String save(final boolean incrementally) throws IOException {
+		when(resourceController.getBooleanProperty(NodeXmlCache.SAVE_INCREMENTALLY_PROPERTY)).thenReturn(
+		    incrementally);
+		final StringWriter out = new StringWriter();
+		writtenNodes.clear();
+		mapWriter.writeMapAsXml(map, out, Mode.FILE, true, false);
+		return out.toString();
+	}
+
+	@Test
+	public void writeSameXmlAsFullSave() throws Exception {
+		createNodes(0);
+		final String expected = save(false);
+		assertThat(save(true), equalTo(expected));
+		assertThat(save(true), equalTo(expected));
+	}
+
+	@Test
+	public void writeSameXmlAsFullSaveForBigNodes() throws Exception {
+		createBigNodes();
+		final String expected = save(false);
+		assertThat(save(true), equalTo(expected));
+		assertThat(save(true), equalTo(expected));
+	}
+
+	@Test
+	public void serializeNoUnchangedNodes() throws Exception {
+		createNodes(0);
+		save(true);
+		save(true);
+		assertThat(writtenNodes.size(), equalTo(0));
+	}
+
+	@Test
+	public void serializeOnlyChangedNodes() throws Exception {
+		createBigNodes();
+		save(true);
+		final NodeModel changedNode = root.getChildAt(1).getChildAt(0);
+		changedNode.setText("changed");
+		fixture.changeNode(changedNode);
+		final String incrementalSave = save(true);
+		assertThat(writtenNodes, equalTo(Arrays.asList((Object) "changed")));
+		assertThat(incrementalSave, equalTo(save(false)));
+	}
+
+	@Test
+	public void serializeWholeBlockContainingChangedNode() throws Exception {
+		createNodes(0);
+		save(true);
+		final NodeModel changedNode = root.getChildAt(1).getChildAt(0);
+		changedNode.setText("changed");
+		fixture.changeNode(changedNode);
+		final String incrementalSave = save(true);
+		assertThat(writtenNodes.size(), equalTo(10));
+		assertThat(incrementalSave, equalTo(save(false)));
+	}
+
+	@Test
+	public void serializeParentsOfInsertedAndRemovedNodes() throws Exception {
+		createBigNodes();
+		save(true);
+		final NodeModel parent = root.getChildAt(2);
+		fixture.insertNode(parent.getChildAt(1), new NodeModel("new", map));
+		fixture.deleteNode(parent, 0);
+		assertThat(save(true), equalTo(save(false)));
+	}
+
+	@Test
+	public void serializeFoldedNodes() throws Exception {
+		createBigNodes();
+		save(true);
+		fixture.fold(root.getChildAt(1));
+		final String incrementalSave = save(true);
+		assertThat(writtenNodes.size(), equalTo(1));
+		assertThat(incrementalSave, equalTo(save(false)));
+	}
+
+	@Test
+	public void serializeAllNodesAfterMapChange() throws Exception {
+		createBigNodes();
+		save(true);
+		fixture.changeMap();
+		save(true);
+		assertThat(writtenNodes.size(), equalTo(10));
+	}
+
+	@Test
+	public void serializeOnlyChangedNodesWhenWritingIncrementallyWithoutSavingIncrementally() throws Exception {
+		createBigNodes();
+		final String expected = save(false);
+		final StringWriter out = new StringWriter();
+		mapWriter.writeMapAsXmlIncrementally(map, out);
+		writtenNodes.clear();
+		final StringWriter secondOut = new StringWriter();
+		mapWriter.writeMapAsXmlIncrementally(map, secondOut);
+		assertThat(writtenNodes.size(), equalTo(0));
+		assertThat(secondOut.toString(), equalTo(expected));
+	}
+}
@@ -0,0 +1,64 @@
+package org.freeplane.features.map;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class SharedNodeDataShould {
+	private final SharedNodeData data = new SharedNodeData();
+
+	@Test
+	public void useXmlTextAsHtmlWithoutSlashedTags() throws Exception {
+		final String xml = "<html><body><p>text</p></body></html>";
+		data.setXmlText(xml);
+		assertThat(data.getUserObject(), sameInstance((Object) xml));
+	}
+
+	@Test
+	public void deriveHtmlFromXmlTextWithSlashedTags() throws Exception {
+		data.setXmlText("<html><body>line<br/>line<img src=\"a.png\"/></body></html>");
+		assertThat(data.getUserObject(), equalTo((Object) "<html><body>line<br>line<img src=\"a.png\"></body></html>"));
+		assertThat(data.getXmlText(), equalTo("<html><body>line<br/>line<img src=\"a.png\"/></body></html>"));
+	}
+
+	@Test
+	public void deriveHtmlOnlyOnce() throws Exception {
+		data.setXmlText("<html><body>line<br/>line</body></html>");
+		assertThat(data.getUserObject(), sameInstance(data.getUserObject()));
+	}
+
+	@Test
+	public void shareHtmlDerivedFromEqualXmlTexts() throws Exception {
+		final SharedNodeData otherData = new SharedNodeData();
+		data.setXmlText("<html><body>shared<br/>line</body></html>");
+		otherData.setXmlText(new String("<html><body>shared<br/>line</body></html>"));
+		assertThat(otherData.getUserObject(), sameInstance(data.getUserObject()));
+	}
+
+	@Test
+	public void deriveHtmlAgainAfterXmlTextChange() throws Exception {
+		data.setXmlText("<html><body>line<br/>line</body></html>");
+		data.getUserObject();
+		data.setXmlText("<html><body>other<br/>line</body></html>");
+		assertThat(data.getUserObject(), equalTo((Object) "<html><body>other<br>line</body></html>"));
+	}
+
+	@Test
+	public void keepNoXmlTextForPlainText() throws Exception {
+		data.setXmlText("<html><body>text<br/></body></html>");
+		data.setText("text");
+		assertThat(data.getUserObject(), equalTo((Object) "text"));
+		assertThat(data.getXmlText(), nullValue());
+	}
+
+	@Test
+	public void keepNoTextForOtherObjects() throws Exception {
+		data.setXmlText("<html><body>text<br/></body></html>");
+		data.setUserObject(42);
+		assertThat(data.getUserObject(), equalTo((Object) 42));
+		assertThat(data.getXmlText(), nullValue());
+	}
+}
@@ -0,0 +1,114 @@
+package org.freeplane.features.styles;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+import org.freeplane.features.filter.condition.ASelectableCondition;
+import org.freeplane.features.map.NodeCacheFixture;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class ConditionalStyleResultsShould {
+	private static class CountingCondition extends ASelectableCondition {
+		final private boolean checksNodeContentOnly;
+		private int checkCount = 0;
+
+		private CountingCondition(final boolean checksNodeContentOnly) {
+			this.checksNodeContentOnly = checksNodeContentOnly;
+		}
+
+		@Override
+		public boolean checkNode(final NodeModel node) {
+			checkCount++;
+			return node.getText().startsWith("a");
+		}
+
+		@Override
+		public boolean checksNodeContentOnly() {
+			return checksNodeContentOnly;
+		}
+
+		@Override
+		protected String createDescription() {
+			return "counting";
+		}
+
+		@Override
+		protected String getName() {
+			return "counting";
+		}
+	}
+
+	private static final IStyle STYLE = new StyleString("style");
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final NodeModel node = fixture.createNode("a node");
+	private final NodeModel otherNode = fixture.createNode("another node");
+	private final ConditionalStyleModel model = new ConditionalStyleModel();
+
+	private CountingCondition addCondition(final boolean checksNodeContentOnly) {
+		final CountingCondition condition = new CountingCondition(checksNodeContentOnly);
+		model.addCondition(true, condition, STYLE, false);
+		return condition;
+	}
+
+	@Test
+	public void checkContentConditionOnce() throws Exception {
+		final CountingCondition condition = addCondition(true);
+		assertThat(model.getStyles(node), contains(STYLE));
+		assertThat(model.getStyles(node), contains(STYLE));
+		assertThat(condition.checkCount, equalTo(1));
+	}
+
+	@Test
+	public void checkOtherConditionsEachTime() throws Exception {
+		final CountingCondition condition = addCondition(false);
+		model.getStyles(node);
+		model.getStyles(node);
+		assertThat(condition.checkCount, equalTo(2));
+	}
+
+	@Test
+	public void keepContentConditionResultsBesideOtherConditions() throws Exception {
+		final CountingCondition contentCondition = addCondition(true);
+		final CountingCondition otherCondition = addCondition(false);
+		model.getStyles(node);
+		model.getStyles(node);
+		assertThat(contentCondition.checkCount, equalTo(1));
+		assertThat(otherCondition.checkCount, equalTo(2));
+	}
+
+	@Test
+	public void checkConditionAgainAfterNodeChange() throws Exception {
+		final CountingCondition condition = addCondition(true);
+		model.getStyles(node);
+		node.setText("b node");
+		fixture.changeNode(node);
+		assertThat(model.getStyles(node), empty());
+		assertThat(condition.checkCount, equalTo(2));
+	}
+
+	@Test
+	public void keepResultsOfOtherNodesAfterNodeChange() throws Exception {
+		final CountingCondition condition = addCondition(true);
+		model.getStyles(otherNode);
+		fixture.changeNode(node);
+		model.getStyles(otherNode);
+		assertThat(condition.checkCount, equalTo(1));
+	}
+
+
+
+	@Test
+	public void checkConditionsAgainAfterModelChange() throws Exception {
+		final CountingCondition condition = addCondition(true);
+		model.getStyles(node);
+		model.getStyles().get(0).setActive(false);
+		assertThat(model.getStyles(node), empty());
+		model.getStyles().get(0).setActive(true);
+		assertThat(model.getStyles(node), contains(STYLE));
+		assertThat(condition.checkCount, equalTo(2));
+	}
+
+}
@@ -0,0 +1,79 @@
+package org.freeplane.features.styles;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.function.BiFunction;
+
+import org.freeplane.features.map.NodeCacheFixture;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.LogicalStyleController.StyleOption;
+import org.junit.Test;
+
+public class ResolvedStylesShould {
+	private static final ResolvedStyles.Property<String> PROPERTY = new ResolvedStyles.Property<>();
+	private static final ResolvedStyles.Property<String> OTHER_PROPERTY = new ResolvedStyles.Property<>();
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final NodeModel node = fixture.createNode("node");
+	private final NodeModel otherNode = fixture.createNode("other");
+	private boolean dependsOnOtherNodes = false;
+	private int resolutionCount = 0;
+	private final BiFunction<NodeModel, StyleOption, String> resolver = (n, o) -> {
+		resolutionCount++;
+		return n.getText() + resolutionCount;
+	};
+
+	private String get(final NodeModel node) {
+		return get(node, StyleOption.FOR_UNSELECTED_NODE, PROPERTY);
+	}
+
+	private String get(final NodeModel node, final StyleOption option, final ResolvedStyles.Property<String> property) {
+		return ResolvedStyles.get(node, option, property, resolver, n -> dependsOnOtherNodes);
+	}
+
+	@Test
+	public void resolvePropertyOnce() throws Exception {
+		assertThat(get(node), equalTo("node1"));
+		assertThat(get(node), equalTo("node1"));
+	}
+
+	@Test
+	public void resolvePropertiesAndOptionsSeparately() throws Exception {
+		assertThat(get(node), equalTo("node1"));
+		assertThat(get(node, StyleOption.FOR_SELECTED_NODE, PROPERTY), equalTo("node2"));
+		assertThat(get(node, StyleOption.FOR_UNSELECTED_NODE, OTHER_PROPERTY), equalTo("node3"));
+		assertThat(get(node), equalTo("node1"));
+	}
+
+	@Test
+	public void resolvePropertyAgainAfterNodeChange() throws Exception {
+		get(node);
+		fixture.changeNode(node);
+		assertThat(get(node), equalTo("node2"));
+	}
+
+	@Test
+	public void keepPropertiesOfOtherNodesAfterNodeChange() throws Exception {
+		get(otherNode);
+		fixture.changeNode(node);
+		assertThat(get(otherNode), equalTo("other1"));
+	}
+
+	@Test
+	public void resolvePropertiesDependingOnOtherNodesAgainAfterNodeChange() throws Exception {
+		dependsOnOtherNodes = true;
+		get(otherNode);
+		fixture.changeNode(node);
+		assertThat(get(otherNode), equalTo("other2"));
+	}
+
+	@Test
+	public void resolveAllPropertiesAgainAfterRootChange() throws Exception {
+		get(node);
+		fixture.changeNode(fixture.root);
+		assertThat(get(node), equalTo("node2"));
+	}
+
+
+
+}
@@ -0,0 +1,25 @@
+package org.freeplane.features.text;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class DeferredTransformationShould {
+	@Test
+	public void allowDeferringOnlyWhileViewsAreUpdated() throws Exception {
+		assertThat(DeferredTransformation.isAllowed(), equalTo(false));
+		assertThat(DeferredTransformation.allowWhile(DeferredTransformation::isAllowed), equalTo(true));
+		assertThat(DeferredTransformation.isAllowed(), equalTo(false));
+	}
+
+	@Test
+	public void reportDeferredTransformationsToEnclosingTransformations() throws Exception {
+		final boolean outerDeferredBefore = DeferredTransformation.start();
+		final boolean innerDeferredBefore = DeferredTransformation.start();
+		DeferredTransformation.defer();
+		assertThat(DeferredTransformation.end(innerDeferredBefore), equalTo(true));
+		assertThat(DeferredTransformation.end(outerDeferredBefore), equalTo(true));
+		assertThat(DeferredTransformation.end(DeferredTransformation.start()), equalTo(false));
+	}
+}
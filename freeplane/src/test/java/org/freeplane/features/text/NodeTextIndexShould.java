@@ -0,0 +1,51 @@
+package org.freeplane.features.text;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.function.Function;
+
+import org.freeplane.features.map.NodeCacheFixture;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class NodeTextIndexShould {
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final NodeModel node = fixture.createNode("text");
+	private int calculationCount = 0;
+	private final Function<NodeModel, Object> calculation = n -> {
+		calculationCount++;
+		return n.getText() + calculationCount;
+	};
+
+	private Object getItem() {
+		return NodeTextIndex.getItem(node, NodeTextIndex.NODE_TEXT, calculation);
+	}
+
+	@Test
+	public void calculateItemOnce() throws Exception {
+		assertThat(getItem(), equalTo((Object) "text1"));
+		assertThat(getItem(), equalTo((Object) "text1"));
+	}
+
+	@Test
+	public void calculateItemAgainAfterNodeChange() throws Exception {
+		getItem();
+		fixture.changeNode(node);
+		assertThat(getItem(), equalTo((Object) "text2"));
+	}
+
+	@Test
+	public void keepItemsAfterNodeInsertion() throws Exception {
+		getItem();
+		fixture.insertNode();
+		assertThat(getItem(), equalTo((Object) "text1"));
+	}
+
+	@Test
+	public void keepItemsOfDifferentKinds() throws Exception {
+		getItem();
+		assertThat(NodeTextIndex.getItem(node, NodeTextIndex.NOTE, calculation), equalTo((Object) "text2"));
+		assertThat(getItem(), equalTo((Object) "text1"));
+	}
+}
@@ -0,0 +1,84 @@
+package org.freeplane.features.text;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.freeplane.features.map.NodeCacheFixture;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.IContentTransformer.Mode;
+import org.junit.Test;
+
+public class TransformedObjectsShould {
+	private final NodeCacheFixture fixture = new NodeCacheFixture();
+	private final NodeModel node = fixture.createNode("text");
+	private final DetailModel details = new DetailModel(false);
+	private boolean canBeKept = true;
+	private int transformationCount = 0;
+
+	private Object get(final Object content) throws TransformationException {
+		return get(node, content, Mode.VIEW, false);
+	}
+
+	private Object get(final Object nodeProperty, final Object content, final Mode mode, final boolean nodeNumbering)
+	        throws TransformationException {
+		return TransformedObjects.get(node, nodeProperty, content, mode, nodeNumbering, () -> {
+			transformationCount++;
+			return new TransformedObjects.Result(content.toString() + transformationCount, canBeKept);
+		});
+	}
+
+	@Test
+	public void transformContentOnce() throws Exception {
+		assertThat(get("text"), equalTo((Object) "text1"));
+		assertThat(get("text"), equalTo((Object) "text1"));
+	}
+
+	@Test
+	public void transformOtherContentAgain() throws Exception {
+		get("text");
+		assertThat(get("other"), equalTo((Object) "other2"));
+		assertThat(get("text"), equalTo((Object) "text1"));
+	}
+
+	@Test
+	public void transformPropertiesModesAndNumberingSeparately() throws Exception {
+		get("text");
+		assertThat(get(details, "text", Mode.VIEW, false), equalTo((Object) "text2"));
+		assertThat(get(node, "text", Mode.TEXT, false), equalTo((Object) "text3"));
+		assertThat(get(node, "text", Mode.VIEW, true), equalTo((Object) "text4"));
+		assertThat(get("text"), equalTo((Object) "text1"));
+	}
+
+	@Test
+	public void transformAgainIfResultCanNotBeKept() throws Exception {
+		canBeKept = false;
+		get("text");
+		assertThat(get("text"), equalTo((Object) "text2"));
+	}
+
+	@Test
+	public void transformAgainAfterNodeChange() throws Exception {
+		get("text");
+		fixture.changeNode(node);
+		assertThat(get("text"), equalTo((Object) "text2"));
+	}
+
+	@Test
+	public void transformAgainAfterRemoval() throws Exception {
+		get("text");
+		TransformedObjects.remove(node);
+		assertThat(get("text"), equalTo((Object) "text2"));
+	}
+
+
+
+	@Test
+	public void countHitsAndMisses() throws Exception {
+		final long hitCount = TransformedObjects.getHitCount();
+		final long missCount = TransformedObjects.getMissCount();
+		get("text");
+		get("text");
+		assertThat(TransformedObjects.getHitCount() - hitCount, equalTo(1L));
+		assertThat(TransformedObjects.getMissCount() - missCount, equalTo(1L));
+	}
+}
@@ -0,0 +1,102 @@
+package org.freeplane.features.url.mindmapmode;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.freeplane.core.io.xml.TreeXmlSnapshot;
+import org.freeplane.features.map.MapReader;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MapSnapshotFileShould {
+	private static final long LAST_MODIFIED = 1_000_000_000_000L;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+	private final MapReader mapReader = mock(MapReader.class);
+	private final TreeXmlSnapshot snapshot = mock(TreeXmlSnapshot.class);
+
+	@Before
+	public void setup() throws Exception {
+		when(mapReader.readSnapshot(any())).thenReturn(snapshot);
+	}
+
+	private File createMapFile(final String name, final String content) throws IOException {
+		final File mapFile = folder.newFile(name);
+		writeMapFile(mapFile, content);
+		return mapFile;
+	}
+
+	private void writeMapFile(final File mapFile, final String content) throws IOException {
+		Files.write(mapFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		mapFile.setLastModified(LAST_MODIFIED);
+	}
+
+	private MapSnapshotFile writeSnapshot(final File mapFile, final long mapReadTime) throws IOException {
+		final MapSnapshotFile snapshotFile = new MapSnapshotFile(mapFile);
+		snapshotFile.write(snapshot, mapFile.length(), mapFile.lastModified(), mapReadTime,
+		    MapSnapshotFile.checksum(mapFile));
+		return snapshotFile;
+	}
+
+	@Test
+	public void readSnapshotOfUnchangedMap() throws Exception {
+		final File mapFile = createMapFile("map.mm", "<map/>");
+		final MapSnapshotFile snapshotFile = writeSnapshot(mapFile, LAST_MODIFIED);
+		assertThat(snapshotFile.read(mapReader), sameInstance(snapshot));
+	}
+
+	@Test
+	public void verifyChecksumOfMapReadShortlyAfterItsModification() throws Exception {
+		final File mapFile = createMapFile("map.mm", "<map/>");
+		final MapSnapshotFile snapshotFile = writeSnapshot(mapFile,
+		    LAST_MODIFIED + MapSnapshotFile.MODIFICATION_TIME_RESOLUTION - 1);
+		writeMapFile(mapFile, "<MAP/>");
+		assertThat(snapshotFile.read(mapReader), nullValue());
+	}
+
+	@Test
+	public void trustModificationTimeOfMapReadLongAfterItsModification() throws Exception {
+		final File mapFile = createMapFile("map.mm", "<map/>");
+		final MapSnapshotFile snapshotFile = writeSnapshot(mapFile,
+		    LAST_MODIFIED + MapSnapshotFile.MODIFICATION_TIME_RESOLUTION);
+		writeMapFile(mapFile, "<MAP/>");
+		assertThat(snapshotFile.read(mapReader), sameInstance(snapshot));
+	}
+
+	@Test
+	public void readSnapshotOfMapCopiedWithoutModificationTime() throws Exception {
+		final File mapFile = createMapFile("map.mm", "<map/>");
+		final MapSnapshotFile snapshotFile = writeSnapshot(mapFile, LAST_MODIFIED);
+		mapFile.setLastModified(LAST_MODIFIED + 1000);
+		assertThat(snapshotFile.read(mapReader), sameInstance(snapshot));
+	}
+
+	@Test
+	public void deleteSnapshotsOfDeletedAndRenamedMaps() throws Exception {
+		final File deletedMapFile = createMapFile("deleted.mm", "<map/>");
+		final File renamedMapFile = createMapFile("renamed.mm", "<map/>");
+		final File keptMapFile = createMapFile("kept.mm", "<map/>");
+		writeSnapshot(deletedMapFile, LAST_MODIFIED);
+		writeSnapshot(renamedMapFile, LAST_MODIFIED);
+		writeSnapshot(keptMapFile, LAST_MODIFIED);
+		deletedMapFile.delete();
+		renamedMapFile.renameTo(new File(folder.getRoot(), "new name.mm"));
+		final File backupDir = MFileManager.backupDir(keptMapFile);
+		MapSnapshotFile.deleteOrphanedSnapshots(backupDir);
+		assertThat(backupDir.list((dir, name) -> name.endsWith(".snapshot")),
+		    equalTo(new String[] { MFileManager.backupFileName(keptMapFile) + ".snapshot" }));
+	}
+}
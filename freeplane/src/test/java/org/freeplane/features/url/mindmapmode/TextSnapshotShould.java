@@ -0,0 +1,63 @@
+package org.freeplane.features.url.mindmapmode;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class TextSnapshotShould {
+	private static String text(final int length) {
+		final StringBuilder builder = new StringBuilder();
+		while (builder.length() < length) {
+			builder.append('x');
+		}
+		return builder.toString();
+	}
+
+	private final TextSnapshot snapshot = new TextSnapshot();
+
+	private String writtenText() throws Exception {
+		final StringWriter out = new StringWriter();
+		snapshot.writeTo(out);
+		return out.toString();
+	}
+
+	@Test
+	public void keepWrittenText() throws Exception {
+		snapshot.write("<map>");
+		snapshot.write('\n');
+		snapshot.write("</map>".toCharArray());
+		snapshot.close();
+		assertThat(writtenText(), equalTo("<map>\n</map>"));
+	}
+
+	@Test
+	public void joinShortStrings() throws Exception {
+		snapshot.write("<map>");
+		snapshot.write("</map>");
+		snapshot.close();
+		assertThat(snapshot.getPartCount(), equalTo(1));
+	}
+
+	@Test
+	public void keepLongStringsApart() throws Exception {
+		final String block = text(TextSnapshot.MINIMUM_SHARED_LENGTH);
+		snapshot.write("<map>");
+		snapshot.write(block);
+		snapshot.write("</map>");
+		snapshot.close();
+		assertThat(snapshot.getPartCount(), equalTo(3));
+		assertThat(writtenText(), equalTo("<map>" + block + "</map>"));
+	}
+
+	@Test
+	public void copyPartsOfLongStrings() throws Exception {
+		final String block = text(2 * TextSnapshot.MINIMUM_SHARED_LENGTH);
+		snapshot.write(block, 1, TextSnapshot.MINIMUM_SHARED_LENGTH);
+		snapshot.write("</map>");
+		snapshot.close();
+		assertThat(snapshot.getPartCount(), equalTo(1));
+	}
+}
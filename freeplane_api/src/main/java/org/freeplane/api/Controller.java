@@ -37,6 +37,15 @@ public interface Controller extends ControllerRO, HeadlessMapCreator {
 	/** reset undo / redo lists and deactivate Undo for current script */
 	void deactivateUndo();
 
+	/** Runs changes of many nodes, notifying about changed nodes only afterwards, once for each node and property.
+	 * All changes of the current map are undone in one step.
+	 * Formulas, filters and other values depending on the changed nodes are updated after all changes.
+	 * <pre>
+	 *   c.batchNodeChanges { node.findAll().each { it.text = it.text.trim() } }
+	 * </pre>
+	 * @since 1.10.7 */
+	void batchNodeChanges(Runnable changes);
+
 	/** invokes undo once - for testing purposes mainly.
 	 * @since 1.2 */
 	void undo();
@@ -139,6 +139,11 @@ class FormulaTextTransformer extends AbstractContentTransformer implements IEdit
 		return text;
 	}
 
+	@Override
+	public boolean canKeepResult(final Object obj) {
+		return FormulaUtils.isCachingEnabled() || ! isFormula(obj);
+	}
+
 	@Override
 	public boolean markTransformation() {
 	    return true;
@@ -47,7 +47,10 @@ public class FormulaUpdateChangeListener implements INodeChangeListener, IMapCha
 
 	@Override
 	public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
-		nodeChangedImpl(true, nodeDeletionEvent.parent);
+		// formulas accessing the removed nodes are updated as well
+		final List<NodeModel> dependencies = FormulaDependencies.manageRemovalAndReturnDependencies(
+		    nodeDeletionEvent.parent, nodeDeletionEvent.node);
+		refresh(dependencies);
 	}
 
 	@Override
@@ -0,0 +1,157 @@
+package org.freeplane.plugin.latex;
+
+import java.awt.Insets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.SwingUtilities;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.collection.LruCache;
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.text.DeferredTransformation;
+import org.scilab.forge.jlatexmath.TeXConstants;
+import org.scilab.forge.jlatexmath.TeXIcon;
+
+/**
+ * LaTeX icons kept by their source text, font size and width, shared by all nodes and maps.
+ * <p>
+ * Icons missing while node views on the screen are updated are rendered on a background thread,
+ * the requesting nodes show their source text until then and are refreshed when the icon is ready.
+ * Icons missing for all other callers, e.g. exports, printing and the clipboard, are rendered immediately.
+ * Rendering errors are kept like icons and thrown again to the callers.
+ * The kept icons are limited by their total area in pixels.
+ * <p>
+ * All icons are removed when the macros or the interline spacing change.
+ * Icons rendered with the settings before such a change are returned to their callers but not kept.
+ */
+class LatexIcons {
+	private static final int MAXIMUM_ICON_AREA = 16 * 1024 * 1024;
+
+	private static class Key {
+		final private String latex;
+		final private int fontSize;
+		final private int widthWithInsets;
+
+		private Key(final String latex, final int fontSize, final int widthWithInsets) {
+			this.latex = latex;
+			this.fontSize = fontSize;
+			this.widthWithInsets = widthWithInsets;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(latex, fontSize, widthWithInsets);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return fontSize == other.fontSize && widthWithInsets == other.widthWithInsets && latex.equals(other.latex);
+		}
+	}
+
+	static final LatexIcons INSTANCE = new LatexIcons();
+
+	private int generation = 0;
+	private final LruCache<Key, Object> icons = new LruCache<>(MAXIMUM_ICON_AREA, LatexIcons::area);
+	private final Map<Key, Set<NodeModel>> waitingNodes = new HashMap<>();
+	private final ExecutorService renderer = Executors.newSingleThreadExecutor(r -> {
+		final Thread thread = new Thread(r, "LaTeX renderer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private LatexIcons() {
+		ResourceController.getResourceController().addPropertyChangeListener((propertyName, newValue, oldValue) -> {
+			if (TeXText.LATEX_MACROS.equals(propertyName) || TeXText.LATEX_INTERLINE_SPACING.equals(propertyName))
+				clear();
+		});
+	}
+
+	private synchronized void clear() {
+		generation++;
+		icons.clear();
+	}
+
+	private synchronized int getGeneration() {
+		return generation;
+	}
+
+	private synchronized void keep(final Key key, final Object icon, final int renderedGeneration) {
+		if (renderedGeneration == generation)
+			icons.put(key, icon);
+	}
+
+	private static int area(final Object icon) {
+		if (icon instanceof TeXIcon) {
+			final TeXIcon teXIcon = (TeXIcon) icon;
+			return Math.max(1, teXIcon.getIconWidth() * teXIcon.getIconHeight());
+		}
+		return 1;
+	}
+
+	/** Returns the icon, or null if it is rendered in background for the node. */
+	TeXIcon getIcon(final NodeModel node, final String latex, final int fontSize, final int widthWithInsets) {
+		final Key key = new Key(latex, fontSize, widthWithInsets);
+		final Object icon = icons.get(key);
+		if (icon != null)
+			return toIcon(icon);
+		if (!SwingUtilities.isEventDispatchThread() || !DeferredTransformation.isAllowed())
+			return toIcon(render(key));
+		DeferredTransformation.defer();
+		Set<NodeModel> nodes = waitingNodes.get(key);
+		if (nodes == null) {
+			nodes = new LinkedHashSet<>();
+			waitingNodes.put(key, nodes);
+			final MapController mapController = Controller.getCurrentModeController().getMapController();
+			renderer.execute(() -> {
+				render(key);
+				SwingUtilities.invokeLater(() -> refreshWaitingNodes(key, mapController));
+			});
+		}
+		nodes.add(node);
+		return null;
+	}
+
+	private void refreshWaitingNodes(final Key key, final MapController mapController) {
+		final Set<NodeModel> nodes = waitingNodes.remove(key);
+		for (final NodeModel node : nodes)
+			mapController.delayedNodeRefresh(node, LatexRenderer.class, null, null);
+	}
+
+	private Object render(final Key key) {
+		final int renderedGeneration = getGeneration();
+		Object icon;
+		try {
+			final int maxWidth = Math.max(0, key.widthWithInsets - 4);
+			final TeXIcon teXIcon = new TeXText(key.latex).createTeXIcon(TeXConstants.STYLE_DISPLAY, key.fontSize,
+			    TeXConstants.ALIGN_LEFT, maxWidth);
+			final int insetSize = (key.widthWithInsets - maxWidth) / 2;
+			teXIcon.setInsets(new Insets(insetSize, insetSize, insetSize, insetSize));
+			icon = teXIcon;
+		}
+		catch (final RuntimeException e) {
+			icon = e;
+		}
+		keep(key, icon, renderedGeneration);
+		return icon;
+	}
+
+	private static TeXIcon toIcon(final Object icon) {
+		if (icon instanceof RuntimeException)
+			throw (RuntimeException) icon;
+		return (TeXIcon) icon;
+	}
+}
@@ -2,7 +2,6 @@ package org.freeplane.plugin.latex;
 
 import java.awt.Dimension;
 import java.awt.Font;
-import java.awt.Insets;
 import java.awt.event.KeyEvent;
 import java.util.function.Supplier;
 
@@ -29,7 +28,6 @@ import org.freeplane.features.text.mindmapmode.EditNodeDialog;
 import org.freeplane.features.text.mindmapmode.IEditBaseCreator;
 import org.freeplane.features.text.mindmapmode.MTextController;
 import org.freeplane.features.text.mindmapmode.SourceTextEditorUIConfigurator;
-import org.scilab.forge.jlatexmath.TeXConstants;
 import org.scilab.forge.jlatexmath.TeXIcon;
 
 public class LatexRenderer extends AbstractContentTransformer implements IEditBaseCreator {
@@ -59,13 +57,9 @@ public class LatexRenderer extends AbstractContentTransformer implements IEditBa
 			return content;
 		final NodeStyleController ncs = NodeStyleController.getController(textController.getModeController());
 		int widthWithInsets = ncs.getMaxWidth(node, StyleOption.FOR_UNSELECTED_NODE).toBaseUnitsRounded();
-		final int maxWidth = Math.max(0, widthWithInsets - 4);
-		TeXText teXt = new TeXText(latext);
 		int fontSize = Math.round(ncs.getFontSize(node, StyleOption.FOR_UNSELECTED_NODE) * UITools.FONT_SCALE_FACTOR);
-		TeXIcon icon = teXt.createTeXIcon(TeXConstants.STYLE_DISPLAY, fontSize, TeXConstants.ALIGN_LEFT, maxWidth);
-		int insetSize = (widthWithInsets - maxWidth) / 2;
-		icon.setInsets(new Insets(insetSize, insetSize, insetSize, insetSize));
-		return icon;
+		TeXIcon icon = LatexIcons.INSTANCE.getIcon(node, latext, fontSize, widthWithInsets);
+		return icon != null ? icon : content;
 	}
 
 	private static enum Target { VIEW, EDITOR };
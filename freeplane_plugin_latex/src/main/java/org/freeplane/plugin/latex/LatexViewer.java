@@ -91,7 +91,10 @@ class LatexViewer extends JComponent {
 			return;
 		}
 		zoom = mapZoom;
-		final Icon latexIcon = teXFormula.createTeXIcon(TeXConstants.STYLE_DISPLAY, DEFAULT_FONT_SIZE * zoom);
+		final Icon latexIcon;
+		synchronized (TeXText.PARSER_LOCK) {
+			latexIcon = teXFormula.createTeXIcon(TeXConstants.STYLE_DISPLAY, DEFAULT_FONT_SIZE * zoom);
+		}
 		final Insets insets = getInsets();
 		final Dimension dimension = new Dimension(latexIcon.getIconWidth() + insets.left + insets.right,
 		    latexIcon.getIconHeight() + insets.top + insets.bottom);
@@ -100,7 +103,10 @@ class LatexViewer extends JComponent {
 
 	@Override
 	public void paint(final Graphics g) {
-		final Icon latexIcon = teXFormula.createTeXIcon(TeXConstants.STYLE_DISPLAY, DEFAULT_FONT_SIZE * zoom);
+		final Icon latexIcon;
+		synchronized (TeXText.PARSER_LOCK) {
+			latexIcon = teXFormula.createTeXIcon(TeXConstants.STYLE_DISPLAY, DEFAULT_FONT_SIZE * zoom);
+		}
 		final Insets insets = getInsets();
 		latexIcon.paintIcon(this, g, insets.left, insets.top);
 		super.paint(g);
@@ -108,20 +114,22 @@ class LatexViewer extends JComponent {
 
 	public void setModel(final LatexExtension latexExtension) {
 		model = latexExtension;
-		try {
-			teXFormula = new TeXFormula("\\begin{array}{l} \\raisebox{0}{ "
-					+model.getEquation()
-					+" } \\end{array}"
-			);
-			teXFormula.createTeXIcon(TeXConstants.STYLE_DISPLAY, DEFAULT_FONT_SIZE);
-		}
-		catch (final Exception e) {
+		synchronized (TeXText.PARSER_LOCK) {
 			try {
-				teXFormula = new TeXFormula("\\mbox{" + e.getMessage() + "}");
+				teXFormula = new TeXFormula("\\begin{array}{l} \\raisebox{0}{ "
+						+model.getEquation()
+						+" } \\end{array}"
+				);
 				teXFormula.createTeXIcon(TeXConstants.STYLE_DISPLAY, DEFAULT_FONT_SIZE);
 			}
-			catch (final Exception e1) {
-				teXFormula = new TeXFormula("\\mbox{Can not parse given equation}");
+			catch (final Exception e) {
+				try {
+					teXFormula = new TeXFormula("\\mbox{" + e.getMessage() + "}");
+					teXFormula.createTeXIcon(TeXConstants.STYLE_DISPLAY, DEFAULT_FONT_SIZE);
+				}
+				catch (final Exception e1) {
+					teXFormula = new TeXFormula("\\mbox{Can not parse given equation}");
+				}
 			}
 		}
 		zoom = 0;
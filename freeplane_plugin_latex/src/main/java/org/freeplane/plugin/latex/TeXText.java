@@ -16,8 +16,14 @@ import org.scilab.forge.jlatexmath.TeXIcon;
 
 public class TeXText
 {
-	private static final String LATEX_MACROS = "latex_macros";
-    private static final String LATEX_INTERLINE_SPACING = "latex_interline_spacing";
+	static final String LATEX_MACROS = "latex_macros";
+    static final String LATEX_INTERLINE_SPACING = "latex_interline_spacing";
+
+    /**
+     * jlatexmath keeps the macros defined by formulas in static maps which are not synchronized,
+     * so formulas are parsed and laid out only holding this lock.
+     */
+    static final Object PARSER_LOCK = new Object();
 
     String rawText;
 
@@ -26,6 +32,12 @@ public class TeXText
     }
 
 	public TeXIcon createTeXIcon(int style, int size, int align, int maxWidth) {
+		synchronized (PARSER_LOCK) {
+			return buildTeXIcon(style, size, align, maxWidth);
+		}
+	}
+
+	private TeXIcon buildTeXIcon(int style, int size, int align, int maxWidth) {
 
         StringBuffer sb = new StringBuffer();
         if (Controller.getCurrentController() != null && ResourceController.getResourceController() != null)
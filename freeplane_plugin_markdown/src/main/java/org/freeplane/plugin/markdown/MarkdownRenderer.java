@@ -13,6 +13,7 @@ import org.freeplane.core.ui.components.JRestrictedSizeScrollPane;
 import org.freeplane.core.ui.components.UITools;
 import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.TextUtils;
+import org.freeplane.core.util.collection.LruCache;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.note.NoteController;
 import org.freeplane.features.note.NoteModel;
@@ -37,6 +38,9 @@ public class MarkdownRenderer extends AbstractContentTransformer implements IEdi
 	private static final String MARKDOWN_EDITOR_DISABLE_INLINE = "markdown_disable_editor";
 	static final String MARKDOWN_CONTENT_TYPE = "markdown";
 	static final String MARKDOWN_FORMAT = "markdownPatternFormat";
+	/** Rendered html kept by markdown source, up to about 8 MB of characters for all maps. */
+	private static final long MAXIMUM_RENDERED_TEXT_LENGTH = 4_000_000;
+	private static final LruCache<String, String> renderedTexts = new LruCache<>(MAXIMUM_RENDERED_TEXT_LENGTH, String::length);
     private final Options options;
 
     private Options createMarkdownOptions() {
@@ -61,10 +65,14 @@ public class MarkdownRenderer extends AbstractContentTransformer implements IEdi
         	return content;
 
         String markdown = text;
-        String html = "<html>"
-        		+ "<body>"
-        		+ Marked.marked(markdown, options)
-        		+ "</body></html>";
+        String html = renderedTexts.get(markdown);
+        if (html == null) {
+        	html = "<html>"
+        			+ "<body>"
+        			+ Marked.marked(markdown, options)
+        			+ "</body></html>";
+        	renderedTexts.put(markdown, html);
+        }
         return html;
 	}
 
@@ -0,0 +1,98 @@
+package org.freeplane.plugin.script;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.codehaus.groovy.reflection.ClassInfo;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+
+/**
+ * Evaluates formulas of many nodes repeating a few formula texts written with different white space,
+ * and reports the loaded classes, Groovy class infos, metaspace and time, either compiling the scripts
+ * as written or their normalized text shared by all nodes with the same formula.
+ * Run each mode in its own JVM.
+ *
+ * Usage: FormulaClassBenchmark [normalized|written] [node count]
+ */
+public class FormulaClassBenchmark {
+	private static final String[] FORMULAS = { "(1..10).sum()", "[3, 1, 2].max()", "'a' * 3", "(1..5).collect { it * it }.sum()",
+	        "[1, 2, 3].findAll { it % 2 }.size()", "Math.max(2, 3)", "'formula'.toUpperCase()", "(1..4).inject(1) { a, b -> a * b }",
+	        "[a: 1, b: 2].values().sum()", "10.intdiv(3)" };
+	private static final String[] PREFIXES = { "=", "= ", "=  ", "=\t" };
+	private static final String[] SUFFIXES = { "", " ", "\n" };
+
+	public static void main(String[] args) throws Exception {
+		final boolean normalized = args.length == 0 || !args[0].equals("written");
+		final int nodeCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		initializeController();
+		final MapModel map = new MapModel(null, null, null);
+		final NodeModel[] nodes = new NodeModel[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			final String formula = PREFIXES[i / FORMULAS.length % PREFIXES.length] + FORMULAS[i % FORMULAS.length]
+			        + SUFFIXES[i / FORMULAS.length / PREFIXES.length % SUFFIXES.length];
+			nodes[i] = new NodeModel(formula, map);
+		}
+		System.out.println(nodeCount + " formula nodes");
+		if (normalized)
+			measure("normalized", nodes, FormulaUtils::scriptOf);
+		else
+			measure("as written", nodes, text -> text.substring(1));
+	}
+
+	private static void initializeController() throws Exception {
+		final File userDirectory = Files.createTempDirectory("freeplane").toFile();
+		final ResourceController resourceController = mock(ResourceController.class);
+		when(resourceController.getProperty(anyString(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+		when(resourceController.getIntProperty("compiled_script_cache_size")).thenReturn(200);
+		when(resourceController.getFreeplaneUserDirectory()).thenReturn(userDirectory.getPath());
+		when(resourceController.getInstallationBaseDir()).thenReturn(userDirectory.getPath());
+		final Controller controller = mock(Controller.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		Controller.setCurrentController(controller);
+		ScriptResources.setClasspath(Collections.<String>emptyList());
+	}
+
+	private static void measure(String name, NodeModel[] nodes, Function<String, String> scriptOf) {
+		final ClassLoadingMXBean classLoadingBean = ManagementFactory.getClassLoadingMXBean();
+		final long loadedClassesBefore = classLoadingBean.getTotalLoadedClassCount();
+		final int classInfosBefore = ClassInfo.size();
+		final long metaspaceBefore = metaspaceUsed();
+		final Set<Class<?>> scriptClasses = new HashSet<>();
+		final ScriptingPermissions permissions = ScriptingPermissions.getFormulaPermissions();
+		final long start = System.nanoTime();
+		for (NodeModel node : nodes) {
+			final String script = scriptOf.apply(node.getText());
+			final NodeScript nodeScript = new NodeScript(node, script);
+			final IScript compiledScript = ScriptingEngine.createGroovyScript(script, permissions);
+			new ScriptRunner(compiledScript).setScriptContext(new ScriptContext(nodeScript)).execute(node);
+			scriptClasses.add(((GroovyScript) compiledScript).getCompiledScript().getClass());
+		}
+		final long time = System.nanoTime() - start;
+		System.out.println(String.format("%-12s %5d ms, %3d script classes, %5d classes loaded, %5d class infos, %6d KB metaspace",
+		    name, time / 1_000_000, scriptClasses.size(), classLoadingBean.getTotalLoadedClassCount() - loadedClassesBefore,
+		    ClassInfo.size() - classInfosBefore, (metaspaceUsed() - metaspaceBefore) / 1024));
+	}
+
+	private static long metaspaceUsed() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getName().equals("Metaspace"))
+				used += pool.getUsage().getUsed();
+		}
+		return used;
+	}
+}
@@ -1,14 +1,68 @@
 package org.freeplane.plugin.script;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.freeplane.plugin.script.dependencies.RelatedElements;
 
 class CachedResult {
-	final Object returnedValue;
+	/** Size assumed for the entry itself and for values keeping only a few references and small values. */
+	static final int DEFAULT_ESTIMATED_SIZE = 100;
+	private Object returnedValue;
 	final RelatedElements relatedElements;
+	final long computationTime;
+	final long estimatedSize;
+	double priority;
+	/** whether the size is counted by the cache, which is only the case while it keeps the value */
+	boolean counted;
 
 
 	CachedResult(Object returnedValue, RelatedElements relatedElements) {
+		this(returnedValue, relatedElements, 0);
+	}
+
+	CachedResult(Object returnedValue, RelatedElements relatedElements, long computationTime) {
 		this.returnedValue = returnedValue;
 		this.relatedElements = relatedElements;
+		this.computationTime = computationTime;
+		this.estimatedSize = DEFAULT_ESTIMATED_SIZE + estimateSize(returnedValue);
+	}
+
+	Object getReturnedValue() {
+		return returnedValue;
+	}
+
+	boolean hasReturnedValue() {
+		return returnedValue != null;
+	}
+
+	/** Drops the value but keeps the related elements needed for finding the dependencies of the formula. */
+	void removeReturnedValue() {
+		returnedValue = null;
+	}
+
+	/** Returns the approximate size of a formula result in bytes, counting only the direct elements of collections and maps. */
+	static long estimateSize(final Object value) {
+		if (value instanceof Collection) {
+			long size = DEFAULT_ESTIMATED_SIZE;
+			for (Object element : (Collection<?>) value)
+				size += 16 + estimateElementSize(element);
+			return size;
+		}
+		if (value instanceof Map) {
+			long size = DEFAULT_ESTIMATED_SIZE;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+				size += 32 + estimateElementSize(entry.getKey()) + estimateElementSize(entry.getValue());
+			return size;
+		}
+		return estimateElementSize(value);
+	}
+
+	private static long estimateElementSize(final Object value) {
+		if (value instanceof CharSequence)
+			return 40 + 2L * ((CharSequence) value).length();
+		if (value instanceof Number || value instanceof Boolean || value instanceof Character)
+			return 24;
+		return value == null ? 0 : DEFAULT_ESTIMATED_SIZE;
 	}
 }
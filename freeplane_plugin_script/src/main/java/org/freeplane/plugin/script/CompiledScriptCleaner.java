@@ -9,13 +9,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.freeplane.core.util.LogUtils;
 
 class CompiledScriptCleaner {
-    private long calculateLastDependencyModificationTime() {
+    private static final long UNUSED_COMPILED_STRING_SCRIPT_TIME = TimeUnit.DAYS.toMillis(30);
+
+    long calculateLastDependencyModificationTime() {
         long lastModificationTime = ScriptResources.getClasspath().stream()
             .map(File::new)
             .mapToLong(this::calculateLastDependencyModificationTime)
@@ -60,6 +63,21 @@ class CompiledScriptCleaner {
                 LogUtils.warn(e);
             }
         }
+        removeOutdatedCompiledStringScripts(compileOnlyChangedScriptFiles);
+    }
+
+    private void removeOutdatedCompiledStringScripts(boolean compileOnlyChangedScriptFiles) {
+        File compiledStringScriptsDir = ScriptResources.getCompiledStringScriptsDir();
+        File[] classDirectories = compiledStringScriptsDir.listFiles();
+        if(classDirectories == null)
+            return;
+        File currentClassDirectory = StringScriptClassCache.getClassDirectory();
+        for(File classDirectory : classDirectories) {
+            if(! compileOnlyChangedScriptFiles || ! classDirectory.equals(currentClassDirectory))
+                FileUtils.deleteQuietly(classDirectory);
+        }
+        if(compileOnlyChangedScriptFiles)
+            new StringScriptClassCache(currentClassDirectory).removeUnused(UNUSED_COMPILED_STRING_SCRIPT_TIME);
     }
 
     private void removeOutdated(File cache, long lastDependencyModificationTime) {
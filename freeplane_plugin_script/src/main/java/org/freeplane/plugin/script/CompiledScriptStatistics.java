@@ -0,0 +1,46 @@
+package org.freeplane.plugin.script;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the use of the compiled script cache since the start.
+ */
+public class CompiledScriptStatistics {
+	private final long hitCount;
+	private final long missCount;
+	private final long compilationCount;
+	private final long compilationTime;
+
+	CompiledScriptStatistics(long hitCount, long missCount, long compilationCount, long compilationTime) {
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.compilationCount = compilationCount;
+		this.compilationTime = compilationTime;
+	}
+
+	/** Returns how often a script was found in the cache. */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/** Returns how often a script had to be added to the cache. */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/** Returns how many groovy script classes were compiled or loaded from compiled class files. */
+	public long getCompilationCount() {
+		return compilationCount;
+	}
+
+	/** Returns the total time spent compiling or loading groovy script classes in milliseconds. */
+	public long getCompilationTime() {
+		return TimeUnit.NANOSECONDS.toMillis(compilationTime);
+	}
+
+	@Override
+	public String toString() {
+		return "compiled scripts: " + hitCount + " hits, " + missCount + " misses, " + compilationCount
+		        + " compilations in " + getCompilationTime() + " ms";
+	}
+}
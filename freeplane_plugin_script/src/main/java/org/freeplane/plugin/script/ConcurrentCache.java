@@ -1,49 +1,132 @@
 package org.freeplane.plugin.script;
 
-import java.util.LinkedHashMap;
-import java.util.Map.Entry;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntSupplier;
 import java.util.function.Supplier;
 
+/**
+ * Thread safe cache computing each missing value only once.
+ * <p>
+ * Threads asking for a value being computed wait for it instead of computing it again.
+ * Reading threads do not lock: each entry keeps the time of its last access, and when the cache grows
+ * beyond its size, the thread adding the value removes the least recently used entries unless another thread
+ * already does it. It removes entries until the cache is filled only up to three quarters of its size,
+ * so that the entries are sorted once per quarter of the size of added values and not for each added value.
+ */
 public class ConcurrentCache <K, V> {
+	private static class Entry<V> {
+		final CompletableFuture<V> value = new CompletableFuture<V>();
+		volatile long lastAccess;
 
-	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+		Entry(long lastAccess) {
+			this.lastAccess = lastAccess;
+		}
+	}
 
-    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
-    private final ReentrantReadWriteLock.ReadLock readLock = rwl.readLock();
-    private final ReentrantReadWriteLock.WriteLock writeLock = rwl.writeLock();
+	private final ConcurrentHashMap<K, Entry<V>> cache = new ConcurrentHashMap<K, Entry<V>>();
+	private final IntSupplier maxSize;
+	private final AtomicLong accessCounter = new AtomicLong();
+	private final ReentrantLock evictionLock = new ReentrantLock();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+	private final LongAdder computationTime = new LongAdder();
 
-	private final LinkedHashMap<K, V> cache ;
-	@SuppressWarnings("serial")
 	public ConcurrentCache(IntSupplier maxSize) {
 		super();
-		cache = new  LinkedHashMap<K, V>(maxSize.getAsInt() + 1, DEFAULT_LOAD_FACTOR, true){
-			@Override
-			protected boolean removeEldestEntry(Entry<K, V> eldest) {
-				return size() > maxSize.getAsInt();
-			}
-		};
+		this.maxSize = maxSize;
 	}
 
 	public V computeIfAbsent(K key, Supplier<? extends V> supplier) {
-        readLock.lock();
-        try {
-            V value = cache.get(key);
-            if (null != value) {
-                return value;
-            }
-        } finally {
-            readLock.unlock();
-        }
-        V value = supplier.get();
-        writeLock.lock();
-        try {
-            V oldValue = cache.putIfAbsent(key, value);
-            return null != oldValue ? oldValue : value;
-        } finally {
-        	writeLock.unlock();
-        }
+		Entry<V> entry = cache.get(key);
+		if (entry == null) {
+			final Entry<V> newEntry = new Entry<V>(accessCounter.incrementAndGet());
+			entry = cache.putIfAbsent(key, newEntry);
+			if (entry == null) {
+				missCount.increment();
+				return compute(key, newEntry, supplier);
+			}
+		}
+		hitCount.increment();
+		entry.lastAccess = accessCounter.incrementAndGet();
+		return get(entry);
+	}
+
+	private V compute(K key, Entry<V> entry, Supplier<? extends V> supplier) {
+		final long start = System.nanoTime();
+		try {
+			final V value = supplier.get();
+			entry.value.complete(value);
+			return value;
+		}
+		catch (RuntimeException | Error e) {
+			cache.remove(key, entry);
+			entry.value.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			computationTime.add(System.nanoTime() - start);
+			removeLeastRecentlyUsedEntries();
+		}
 	}
 
+	private V get(Entry<V> entry) {
+		try {
+			return entry.value.join();
+		}
+		catch (CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw e;
+		}
+	}
+
+	private void removeLeastRecentlyUsedEntries() {
+		final int size = Math.max(0, maxSize.getAsInt());
+		if (cache.size() <= size || !evictionLock.tryLock())
+			return;
+		try {
+			final List<Map.Entry<K, Entry<V>>> entries = new ArrayList<Map.Entry<K, Entry<V>>>(cache.entrySet());
+			final int removedEntryCount = entries.size() - (size - size / 4);
+			if (removedEntryCount <= 0)
+				return;
+			entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+			for (Map.Entry<K, Entry<V>> entry : entries.subList(0, removedEntryCount)) {
+				cache.remove(entry.getKey(), entry.getValue());
+			}
+		}
+		finally {
+			evictionLock.unlock();
+		}
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	/** Returns how often a value was found or being computed by another thread. */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/** Returns how often a value had to be computed. */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/** Returns the total time spent computing values in nanoseconds. */
+	public long getComputationTime() {
+		return computationTime.sum();
+	}
 }
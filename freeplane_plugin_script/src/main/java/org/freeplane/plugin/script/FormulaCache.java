@@ -1,27 +1,55 @@
 package org.freeplane.plugin.script;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.mode.Controller;
+import org.freeplane.features.text.TransformedObjects;
 import org.freeplane.plugin.script.dependencies.RelatedElements;
 
+/**
+ * Keeps the results of evaluated formulas per node and script.
+ * <p>
+ * The estimated size of the kept values is limited by the formula_cache_memory_limit_mb property.
+ * When it is exceeded, values with the lowest priority are removed. The priority of a value is its computation time
+ * divided by its size, added to the priority of the last removed value when it was computed or read,
+ * so that expensive and small values are kept longer and values not used for a long time are removed eventually.
+ * Removing a value keeps the elements its formula accessed, so that its dependencies are still found,
+ * and the value is computed again when it is needed next time.
+ */
 public class FormulaCache implements IExtension{
+	static final String MEMORY_LIMIT_PROPERTY = "formula_cache_memory_limit_mb";
+	private static final int DEFAULT_MEMORY_LIMIT = 32;
 	private final HashMap<String, LinkedHashMap<String, CachedResult>> cache = new HashMap<String, LinkedHashMap<String, CachedResult>>();
-	// don't let caching use too much memory - but currently there are little means to cope with unavailable
-	// dependency data. It has to be tested but it should "only" lead to some missing updates.
+	private final LongSupplier memoryLimit;
+	private long estimatedSize;
+	private double removedPriority;
 	static final boolean ENABLE_CACHING = !Controller.getCurrentController().getResourceController()
 	    .getBooleanProperty("formula_disable_caching");
 
+	FormulaCache() {
+		this(() -> ResourceController.getResourceController().getIntProperty(MEMORY_LIMIT_PROPERTY, DEFAULT_MEMORY_LIMIT)
+		        * 1024L * 1024L);
+	}
+
+	FormulaCache(final LongSupplier memoryLimit) {
+		this.memoryLimit = memoryLimit;
+	}
+
 	static void removeFromCache(final ArrayList<NodeModel> dependencies) {
 			if (ENABLE_CACHING) {
 				for (final NodeModel nodeModel : dependencies) {
 					FormulaCache.of(nodeModel.getMap()).remove(nodeModel);
+					TransformedObjects.remove(nodeModel);
 				}
 			}
 	}
@@ -34,13 +62,14 @@ public class FormulaCache implements IExtension{
 	    Object value = formulaCache.getOrThrowCachedResult(nodeScript);
 	    if(value != null)
 	        return value;
+	    final long start = System.nanoTime();
 	    try {
 	        value = computation.get();
-	        formulaCache.put(nodeScript, new CachedResult(value, scriptContext.getRelatedElements()));
+	        formulaCache.put(nodeScript, new CachedResult(value, scriptContext.getRelatedElements(), System.nanoTime() - start));
 	        return value;
 	    }
 	    catch (final ExecuteScriptException e) {
-	        formulaCache.put(nodeScript, new CachedResult(e, scriptContext.getRelatedElements()));
+	        formulaCache.put(nodeScript, new CachedResult(e, scriptContext.getRelatedElements(), System.nanoTime() - start));
 	        throw e;
 	    }
 	}
@@ -50,9 +79,10 @@ public class FormulaCache implements IExtension{
 		if (cacheEntry == null)
 			return null;
 		final CachedResult cachedResult = cacheEntry.get(nodeScript.script);
-		if (cachedResult == null)
+		if (cachedResult == null || ! cachedResult.hasReturnedValue())
 			return null;
-		return getOrThrowCachedResult(cachedResult.returnedValue);
+		updatePriority(cachedResult);
+		return getOrThrowCachedResult(cachedResult.getReturnedValue());
 	}
 
 	private Object getOrThrowCachedResult(final Object object) {
@@ -63,7 +93,50 @@ public class FormulaCache implements IExtension{
 	}
 
 	void put(final NodeScript nodeScript, final CachedResult result) {
-		getOrAdd(nodeScript.node).put(nodeScript.script, result);
+		final CachedResult replacedResult = getOrAdd(nodeScript.node).put(nodeScript.script, result);
+		release(replacedResult);
+		if (! result.hasReturnedValue())
+			return;
+		updatePriority(result);
+		estimatedSize += result.estimatedSize;
+		result.counted = true;
+		if (estimatedSize > memoryLimit.getAsLong())
+			removeValuesWithLowestPriority();
+	}
+
+	private void updatePriority(final CachedResult result) {
+		result.priority = removedPriority + (double) Math.max(1, result.computationTime) / result.estimatedSize;
+	}
+
+	private void release(final CachedResult result) {
+		if (result != null && result.counted) {
+			estimatedSize -= result.estimatedSize;
+			result.counted = false;
+		}
+	}
+
+	/** removes values until their size falls below nine tenths of the limit, so that the next values can be added without sorting again. */
+	private void removeValuesWithLowestPriority() {
+		final List<CachedResult> results = new ArrayList<CachedResult>();
+		for (LinkedHashMap<String, CachedResult> cacheEntry : cache.values()) {
+			for (CachedResult result : cacheEntry.values()) {
+				if (result.hasReturnedValue())
+					results.add(result);
+			}
+		}
+		results.sort(Comparator.comparingDouble(result -> result.priority));
+		final long targetSize = memoryLimit.getAsLong() / 10 * 9;
+		for (CachedResult result : results) {
+			if (estimatedSize <= targetSize)
+				break;
+			release(result);
+			result.removeReturnedValue();
+			removedPriority = result.priority;
+		}
+	}
+
+	long getEstimatedSize() {
+		return estimatedSize;
 	}
 
 	private LinkedHashMap<String, CachedResult> getOrAdd(final NodeModel node) {
@@ -79,6 +152,8 @@ public class FormulaCache implements IExtension{
 		final LinkedHashMap<String, CachedResult> entry = cache.get(node.getID());
 		if (entry != null) {
 //			System.out.println("clearing cache for " + node);
+			for (CachedResult result : entry.values())
+				release(result);
 			entry.clear();
 		}
 	}
@@ -93,6 +168,7 @@ public class FormulaCache implements IExtension{
 	}
 	static void removeFrom(final MapModel map) {
 		map.removeExtension(FormulaCache.class);
+		TransformedObjects.clear(map);
 	}
 
 	RelatedElements getAccessedValues(final NodeModel node, final String script) {
@@ -17,6 +17,16 @@ public class FormulaDependencies{
 		return dependencies;
 	}
 
+	/** returns the dependencies on the parent of a removed node and on all removed nodes. */
+	public static List<NodeModel> manageRemovalAndReturnDependencies(final NodeModel parent, final NodeModel removedNode) {
+		final ArrayList<NodeModel> dependencies = getAllChangedDependencies(true, parent);
+		final LinkedHashSet<NodeModel> accessingNodes = new LinkedHashSet<NodeModel>(0);
+		EvaluationDependencies.of(parent.getMap()).getRemovedDependencies(accessingNodes, removedNode);
+		dependencies.addAll(accessingNodes);
+		FormulaCache.removeFromCache(dependencies);
+		return dependencies;
+	}
+
 	public static void clearCache(final MapModel map) {
 		FormulaCache.removeFrom(map);
 		map.removeExtension(EvaluationDependencies.class);
@@ -44,6 +44,11 @@ public class FormulaUtils {
         }
     }
 
+	/** Returns true if formula results are kept until the nodes they depend on change. */
+	public static boolean isCachingEnabled() {
+		return FormulaCache.ENABLE_CACHING;
+	}
+
 	public static boolean textContainsFormula(final String text) {
 		// ignore == and => since these are often used in text
 		return startsWithEqualSign(text) && secondCharIsntSpecial(text.charAt(1));
@@ -157,8 +162,22 @@ public class FormulaUtils {
 		return new RelatedElements(node);
 	}
 
+	/**
+	 * Returns the script of the formula without the leading equal sign, the blanks following it
+	 * and the trailing white space, so that formulas differing only by them share one compiled script.
+	 */
 	public static String scriptOf(final String object) {
-		return object.substring(1);
+		int start = 1;
+		while (start < object.length() && isBlank(object.charAt(start)))
+			start++;
+		int end = object.length();
+		while (end > start && Character.isWhitespace(object.charAt(end - 1)))
+			end--;
+		return object.substring(start, end);
+	}
+
+	private static boolean isBlank(final char c) {
+		return c == ' ' || c == '\t';
 	}
 
 	public static void clearCache(final MapModel map) {
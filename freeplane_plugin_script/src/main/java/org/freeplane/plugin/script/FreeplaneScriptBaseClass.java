@@ -102,7 +102,7 @@ public abstract class FreeplaneScriptBaseClass extends Script {
 		}
 	}
 
-	private final Pattern nodeIdPattern = Pattern.compile("ID_\\d+");
+	private static final Pattern NODE_ID_PATTERN = Pattern.compile("ID_\\d+");
 	private final MetaClass nodeMetaClass;
 	private Object script;
 
@@ -141,9 +141,13 @@ public abstract class FreeplaneScriptBaseClass extends Script {
 		this.script = script;
 	}
 
+	/**
+	 * Returns a new instance of this script bound to the node. The compiled script itself is shared by all nodes
+	 * evaluating the same script text and never bound, so that no node specific state is kept in it.
+	 */
 	FreeplaneScriptBaseClass withBinding(final NodeModel node, ScriptContext scriptContext) {
 		try {
-        	FreeplaneScriptBaseClass instance = boundVariables != null ? getClass().newInstance() : this;
+        	FreeplaneScriptBaseClass instance = getClass().newInstance();
         	instance.script = script;
             ControllerRO controllerProxy = ProxyFactory.createController(scriptContext);
             NodeRO nodeProxy = ProxyFactory.createNode(node, scriptContext);
@@ -177,7 +181,7 @@ public abstract class FreeplaneScriptBaseClass extends Script {
 		if (property.equals("c")) {
 			return controller;
 		}
-		if (nodeIdPattern.matcher(property).matches()) {
+		if (NODE_ID_PATTERN.matcher(property).matches()) {
 			return N(property);
 		}
 		else {
@@ -27,6 +27,7 @@ import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 
 import org.codehaus.groovy.ast.ASTNode;
@@ -155,6 +156,18 @@ public class GroovyScript implements IScript {
 		});
 	}
 
+    private static final LongAdder compilationCount = new LongAdder();
+    private static final LongAdder compilationTime = new LongAdder();
+
+    static long getCompilationCount() {
+        return compilationCount.sum();
+    }
+
+    /** in nanoseconds */
+    static long getCompilationTime() {
+        return compilationTime.sum();
+    }
+
     private static boolean accessPermissionCheckerChecked = false;
     private Script compileAndCache(final ScriptingSecurityManager scriptingSecurityManager) throws Throwable {
     	checkAccessPermissionCheckerExists();
@@ -174,6 +187,7 @@ public class GroovyScript implements IScript {
 				final GroovyShell shell = new GroovyShell(scriptClassLoader, binding,
                         createCompilerConfiguration());
                 compileTimeStrategy.scriptCompileStart();
+                final long compilationStart = System.nanoTime();
                 if (script instanceof String) {
                     compiledScript = (FreeplaneScriptBaseClass) shell.parse((String) script);
                 } else if (script instanceof File) {
@@ -181,6 +195,8 @@ public class GroovyScript implements IScript {
                 } else {
                     throw new IllegalArgumentException();
                 }
+                compilationCount.increment();
+                compilationTime.add(System.nanoTime() - compilationStart);
                 compiledScript.setScript(script);
                 compileTimeStrategy.scriptCompiled();
                 return compiledScript;
@@ -219,9 +219,42 @@ class GroovyShell extends GroovyObjectSupport {
      * @param scriptText the text of the script
      */
     Script parse(final String scriptText) throws CompilationFailedException {
+        if(ClasspathScriptCompiler.compilesOnlyChangedScriptFiles())
+            return parseAndCache(scriptText);
         return parse(scriptText, generateScriptName());
     }
 
+    private Script parseAndCache(final String scriptText) throws CompilationFailedException {
+        final StringScriptClassCache cache = new StringScriptClassCache();
+        final String className = StringScriptClassCache.className(scriptText);
+        final GroovyClassLoader loader = createClassLoader();
+        final Class cachedClass = cache.loadClass(loader, className);
+        if (cachedClass != null)
+            return InvokerHelper.createScript(cachedClass, binding);
+        final File classes;
+        try {
+            classes = cache.createTemporaryDirectory();
+        } catch (IOException e) {
+            LogUtils.warn(e);
+            return parse(scriptText, generateScriptName());
+        }
+        try {
+            config.setTargetDirectory(classes);
+            final GroovyCodeSource gcs = AccessController.doPrivileged(new PrivilegedAction<GroovyCodeSource>() {
+                @Override
+                public GroovyCodeSource run() {
+                    return new GroovyCodeSource(scriptText, className + ".groovy", DEFAULT_CODE_BASE);
+                }
+            });
+            final Class parsedClass = loader.parseClass(gcs, false);
+            cache.store(classes, className);
+            return InvokerHelper.createScript(parsedClass, binding);
+        }
+        finally {
+            FileUtils.deleteQuietly(classes);
+        }
+    }
+
     private Script parse(final String scriptText, final String fileName) throws CompilationFailedException {
         final GroovyCodeSource gcs = AccessController.doPrivileged(new PrivilegedAction<GroovyCodeSource>() {
             @Override
@@ -39,10 +39,15 @@ public class ScriptingEngine {
 	// need a File for caching! Scripts from String have to be cached elsewhere
     private static Map<File, IScript> fileScripts = new ConcurrentHashMap<File, IScript>();
     private static ConcurrentCache<ScriptSpecification, IScript> scripts
-    	= new ConcurrentCache(ScriptingEngine::getCompiledScriptCacheSize);
+    	= new ConcurrentCache<>(ScriptingEngine::getCompiledScriptCacheSize);
     private static int getCompiledScriptCacheSize() {
 		return ResourceController.getResourceController().getIntProperty("compiled_script_cache_size");
 	}
+
+    static CompiledScriptStatistics getCompiledScriptStatistics() {
+		return new CompiledScriptStatistics(scripts.getHitCount(), scripts.getMissCount(),
+		    GroovyScript.getCompilationCount(), GroovyScript.getCompilationTime());
+	}
 	/**
 	 * @param permissions if null use default scripting permissions.
 	 * @return the result of the script, or null, if the user has cancelled.
@@ -192,6 +192,7 @@ class ScriptingRegistration {
 			createUserLibDirectory();
 		}
 		registerInitScripts(options.getScriptsToExecute());
+		registerCompiledScriptStatistics();
 		FilterController.getCurrentFilterController().getConditionFactory().addConditionController(200,
 			new ScriptConditionController());
 		ScriptingPolicy.installRestrictingPolicy();
@@ -311,6 +312,19 @@ class ScriptingRegistration {
 		}
 	}
 
+	private void registerCompiledScriptStatistics() {
+		Controller.getCurrentController().addApplicationLifecycleListener(new ApplicationLifecycleListener() {
+			@Override
+			public void onStartupFinished() {
+			}
+
+			@Override
+			public void onApplicationStopped() {
+				LogUtils.info(ScriptingEngine.getCompiledScriptStatistics().toString());
+			}
+		});
+	}
+
 	private void createUserScriptsDirectory() {
 		createDirIfNotExists(ScriptResources.getUserScriptsDir(), "user scripts");
 	}
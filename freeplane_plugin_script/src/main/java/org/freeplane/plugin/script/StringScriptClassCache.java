@@ -0,0 +1,178 @@
+package org.freeplane.plugin.script;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.groovy.runtime.EncodingGroovyMethods;
+import org.freeplane.core.util.Compat;
+import org.freeplane.core.util.FreeplaneVersion;
+import org.freeplane.core.util.LogUtils;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovySystem;
+
+/**
+ * Keeps classes compiled from formulas and other scripts given as strings between sessions.
+ * <p>
+ * Class names are derived from the md5 hash of the script text, and the class files are kept
+ * in a subdirectory of {@link ScriptResources#getCompiledStringScriptsDir()} named after the hash of the
+ * Freeplane, Groovy and Java versions and of the script class path, so that any change of them invalidates
+ * the classes. Permissions are not part of the compiled classes, they are still checked on execution.
+ */
+class StringScriptClassCache {
+	private static final String CLASS_NAME_PREFIX = "Script_";
+	private static final String CLASS_FILE_EXTENSION = ".class";
+	private static final String TEMPORARY_DIRECTORY_PREFIX = "tmp";
+	private static File classDirectory;
+
+	static synchronized File getClassDirectory() {
+		if (classDirectory == null) {
+			classDirectory = new File(ScriptResources.getCompiledStringScriptsDir(), md5(environment()));
+		}
+		return classDirectory;
+	}
+
+	private static String environment() {
+		final StringBuilder environment = new StringBuilder();
+		final FreeplaneVersion freeplaneVersion = FreeplaneVersion.getVersion();
+		environment.append(freeplaneVersion).append(' ').append(freeplaneVersion.getRevision())
+		    .append('\n').append(GroovySystem.getVersion())
+		    .append('\n').append(Compat.JAVA_VERSION)
+		    .append('\n').append(lastModified(FreeplaneScriptBaseClass.class.getProtectionDomain().getCodeSource()));
+		final List<String> classpath = ScriptResources.getClasspath();
+		if (classpath != null) {
+			environment.append('\n').append(classpath)
+			    .append('\n').append(new CompiledScriptCleaner().calculateLastDependencyModificationTime());
+		}
+		return environment.toString();
+	}
+
+	private static long lastModified(final CodeSource codeSource) {
+		try {
+			return codeSource != null ? new File(codeSource.getLocation().toURI()).lastModified() : 0;
+		}
+		catch (final Exception e) {
+			return 0;
+		}
+	}
+
+	private static String md5(final String text) {
+		try {
+			return EncodingGroovyMethods.md5(text);
+		}
+		catch (final NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	static String className(final String scriptText) {
+		return CLASS_NAME_PREFIX + md5(scriptText);
+	}
+
+	final private File directory;
+
+	StringScriptClassCache() {
+		this(getClassDirectory());
+	}
+
+	StringScriptClassCache(final File directory) {
+		this.directory = directory;
+	}
+
+	/** Returns the cached class or null if it is not cached. */
+	Class<?> loadClass(final GroovyClassLoader loader, final String className) {
+		final File classFile = new File(directory, className + CLASS_FILE_EXTENSION);
+		if (!classFile.exists()) {
+			return null;
+		}
+		try {
+			loader.addURL(ScriptClassLoader.pathToUrl(directory));
+			final Class<?> cachedClass = loader.loadClass(className);
+			classFile.setLastModified(System.currentTimeMillis());
+			return cachedClass;
+		}
+		catch (final ClassNotFoundException | LinkageError e) {
+			LogUtils.warn(e);
+			return null;
+		}
+	}
+
+	File createTemporaryDirectory() throws IOException {
+		directory.mkdirs();
+		return Files.createTempDirectory(directory.toPath(), TEMPORARY_DIRECTORY_PREFIX).toFile();
+	}
+
+	/**
+	 * Moves the class files compiled into the temporary directory into the cache and deletes the temporary directory.
+	 * The class named after the script is moved last, so that its presence means that all its classes are available.
+	 */
+	void store(final File temporaryDirectory, final String className) {
+		try {
+			final File[] classFiles = temporaryDirectory.listFiles();
+			if (classFiles != null) {
+				final String mainClassFileName = className + CLASS_FILE_EXTENSION;
+				final List<File> orderedClassFiles = new ArrayList<File>(classFiles.length);
+				File mainClassFile = null;
+				for (final File classFile : classFiles) {
+					if (classFile.getName().equals(mainClassFileName))
+						mainClassFile = classFile;
+					else
+						orderedClassFiles.add(classFile);
+				}
+				if (mainClassFile != null) {
+					orderedClassFiles.add(mainClassFile);
+					for (final File classFile : orderedClassFiles) {
+						move(classFile, new File(directory, classFile.getName()));
+					}
+				}
+			}
+		}
+		catch (final IOException e) {
+			LogUtils.warn(e);
+		}
+		finally {
+			FileUtils.deleteQuietly(temporaryDirectory);
+		}
+	}
+
+	private void move(final File source, final File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (final AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/** Deletes the classes of scripts not used for the given time and left over temporary directories. */
+	void removeUnused(final long unusedTime) {
+		final File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		final long oldestUsageTime = System.currentTimeMillis() - unusedTime;
+		for (final File file : files) {
+			final String name = file.getName();
+			if (file.isDirectory()) {
+				if (name.startsWith(TEMPORARY_DIRECTORY_PREFIX) && file.lastModified() < oldestUsageTime)
+					FileUtils.deleteQuietly(file);
+				continue;
+			}
+			final int innerClassSeparatorIndex = name.indexOf('$');
+			final File mainClassFile = innerClassSeparatorIndex >= 0
+			        ? new File(directory, name.substring(0, innerClassSeparatorIndex) + CLASS_FILE_EXTENSION) : file;
+			final File usageTimeFile = mainClassFile.exists() ? mainClassFile : file;
+			if (usageTimeFile.lastModified() < oldestUsageTime) {
+				FileUtils.deleteQuietly(file);
+			}
+		}
+	}
+}
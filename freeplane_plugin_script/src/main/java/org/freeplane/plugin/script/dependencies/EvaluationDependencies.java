@@ -42,7 +42,7 @@ public class EvaluationDependencies implements IExtension{
 	private final WeakHashMap<MapModel, DependentNodeReferences> onMapDependencies = new WeakHashMap<>();
 
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onNodeDependencies = new WeakHashMap<>();
-	// FIXME: organize node and branch dependencies in a tree?
+	/** Keyed by the branch root, so that dependencies on a node are found by looking up the node and its ancestors. */
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onBranchDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onAnyNodeDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onGlobalNodeDependencies = new WeakHashMap<>();
@@ -51,12 +51,11 @@ public class EvaluationDependencies implements IExtension{
 		final Iterable<NodeModel> onNode = onNodeDependencies.get(accessedNode);
 		if (onNode != null)
 			getRecursively(accessingNodes, onNode);
-		ArrayList<Entry<NodeModel, DependentNodeReferences>> onBranchDependencyList = new ArrayList<>(onBranchDependencies.entrySet());
-		for (Entry<NodeModel, DependentNodeReferences> entry : onBranchDependencyList) {
-			final NodeModel branchNode = entry.getKey();
-			if (accessedNode.isDescendantOf(branchNode)) {
-				onBranchDependencies.get(branchNode);
-				getRecursively(accessingNodes, entry.getValue());
+		if (! onBranchDependencies.isEmpty()) {
+			for (NodeModel branchNode = accessedNode; branchNode != null; branchNode = branchNode.getParentNode()) {
+				final Iterable<NodeModel> onBranch = onBranchDependencies.get(branchNode);
+				if (onBranch != null)
+					getRecursively(accessingNodes, onBranch);
 			}
 		}
 		if(! onAnyNodeDependencies.isEmpty()) {
@@ -67,6 +66,20 @@ public class EvaluationDependencies implements IExtension{
 //		System.out.println("dependencies on(" + node + "): " + accessingNodes);
 	}
 
+	/** removedNode and its descendants were removed from the map. */
+	public void getRemovedDependencies(Set<NodeModel> accessingNodes, final NodeModel removedNode) {
+		if (onNodeDependencies.isEmpty() && onBranchDependencies.isEmpty())
+			return;
+		final Iterable<NodeModel> onNode = onNodeDependencies.get(removedNode);
+		if (onNode != null)
+			getRecursively(accessingNodes, onNode);
+		final Iterable<NodeModel> onBranch = onBranchDependencies.get(removedNode);
+		if (onBranch != null)
+			getRecursively(accessingNodes, onBranch);
+		for (NodeModel child : removedNode.getChildren())
+			getRemovedDependencies(accessingNodes, child);
+	}
+
 	public void getGlobalDependencies(Set<NodeModel> accessingNodes) {
 		getRecursively(accessingNodes, onGlobalNodeDependencies.keySet());
 //		System.out.println("dependencies on(" + node + "): " + accessingNodes);
@@ -34,6 +34,7 @@ import org.freeplane.features.export.mindmapmode.IExportEngine;
 import org.freeplane.features.filter.condition.ICondition;
 import org.freeplane.features.icon.factory.IconStoreFactory;
 import org.freeplane.features.map.IMapSelection;
+import org.freeplane.features.map.MapController;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.map.mindmapmode.MMapModel;
@@ -159,6 +160,18 @@ class ControllerProxy implements Proxy.Controller {
 		}
 	}
 
+	@Override
+	public void batchNodeChanges(final Runnable changes) {
+		final MapController mapController = Controller.getCurrentModeController().getMapController();
+		mapController.startNodeChangeBatch();
+		try {
+			changes.run();
+		}
+		finally {
+			mapController.commitNodeChangeBatch();
+		}
+	}
+
 	@Override
 	public void undo() {
 		final MapModel map = Controller.getCurrentController().getMap();
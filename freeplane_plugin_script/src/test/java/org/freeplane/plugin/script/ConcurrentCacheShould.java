@@ -0,0 +1,108 @@
+package org.freeplane.plugin.script;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrentCacheShould {
+	private final ConcurrentCache<String, String> cache = new ConcurrentCache<>(() -> 2);
+	private final AtomicInteger computationCount = new AtomicInteger();
+
+	private String get(String key) {
+		return cache.computeIfAbsent(key, () -> {
+			computationCount.incrementAndGet();
+			return key.toUpperCase();
+		});
+	}
+
+	@Test
+	public void computeMissingValuesOnce() throws Exception {
+		assertThat(get("a"), equalTo("A"));
+		assertThat(get("a"), equalTo("A"));
+		assertThat(computationCount.get(), equalTo(1));
+		assertThat(cache.getMissCount(), equalTo(1L));
+		assertThat(cache.getHitCount(), equalTo(1L));
+	}
+
+	@Test
+	public void removeLeastRecentlyUsedValues() throws Exception {
+		get("a");
+		get("b");
+		get("a");
+		get("c");
+		assertThat(cache.size(), equalTo(2));
+		get("a");
+		get("c");
+		assertThat(computationCount.get(), equalTo(3));
+		get("b");
+		assertThat(computationCount.get(), equalTo(4));
+	}
+
+	@Test
+	public void removeQuarterOfEntriesWhenFull() throws Exception {
+		final ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(() -> 8);
+		for (int i = 0; i <= 8; i++) {
+			cache.computeIfAbsent(i, () -> 0);
+		}
+		assertThat(cache.size(), equalTo(6));
+		cache.computeIfAbsent(9, () -> 0);
+		cache.computeIfAbsent(10, () -> 0);
+		assertThat(cache.size(), equalTo(8));
+	}
+
+	@Test
+	public void notKeepFailedComputations() throws Exception {
+		try {
+			cache.computeIfAbsent("a", () -> {
+				throw new IllegalStateException();
+			});
+		}
+		catch (IllegalStateException e) {
+		}
+		assertThat(get("a"), equalTo("A"));
+	}
+
+	@Test
+	public void letConcurrentThreadsWaitForValueBeingComputed() throws Exception {
+		final int threadCount = 8;
+		final CountDownLatch allThreadsStarted = new CountDownLatch(threadCount);
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			final List<Future<String>> results = new ArrayList<>();
+			for (int i = 0; i < threadCount; i++) {
+				results.add(executor.submit(() -> {
+					allThreadsStarted.countDown();
+					return cache.computeIfAbsent("a", () -> {
+						computationCount.incrementAndGet();
+						try {
+							allThreadsStarted.await(5, TimeUnit.SECONDS);
+							Thread.sleep(50);
+						}
+						catch (InterruptedException e) {
+							throw new RuntimeException(e);
+						}
+						return "A";
+					});
+				}));
+			}
+			for (Future<String> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS), equalTo("A"));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(computationCount.get(), equalTo(1));
+		assertThat(cache.getMissCount() + cache.getHitCount(), equalTo((long) threadCount));
+	}
+}
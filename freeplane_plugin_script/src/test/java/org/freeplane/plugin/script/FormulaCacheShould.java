@@ -0,0 +1,111 @@
+package org.freeplane.plugin.script;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.plugin.script.dependencies.RelatedElements;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FormulaCacheShould {
+	private static final long ENTRY_SIZE = CachedResult.DEFAULT_ESTIMATED_SIZE + CachedResult.estimateSize(1);
+	private final MapModel map = new MapModel(null, null, null);
+	private final FormulaCache formulaCache = new FormulaCache(() -> 2 * ENTRY_SIZE);
+	private final AtomicInteger computationCount = new AtomicInteger();
+
+	@BeforeClass
+	public static void setupController() {
+		final ResourceController resourceController = mock(ResourceController.class);
+		final Controller controller = mock(Controller.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		Controller.setCurrentController(controller);
+	}
+
+	public FormulaCacheShould() {
+		map.addExtension(formulaCache);
+	}
+
+	private NodeScript nodeScript(final String script) {
+		final NodeModel node = new NodeModel("=" + script, map);
+		node.createID();
+		return new NodeScript(node, script);
+	}
+
+	private Object evaluate(final NodeScript nodeScript) {
+		return FormulaCache.getOrThrowCachedResult(new ScriptContext(nodeScript), () -> {
+			computationCount.incrementAndGet();
+			return 1;
+		});
+	}
+
+	private void put(final NodeScript nodeScript, final long computationMillis) {
+		formulaCache.put(nodeScript, new CachedResult(1, new RelatedElements(nodeScript.node),
+		    TimeUnit.MILLISECONDS.toNanos(computationMillis)));
+	}
+
+	@Test
+	public void computeValuesOnce() throws Exception {
+		final NodeScript nodeScript = nodeScript("1");
+		evaluate(nodeScript);
+		evaluate(nodeScript);
+		assertThat(computationCount.get(), equalTo(1));
+		assertThat(formulaCache.getEstimatedSize(), equalTo(ENTRY_SIZE));
+	}
+
+	@Test
+	public void removeCheapValuesFirstWhenMemoryLimitIsExceeded() throws Exception {
+		final NodeScript expensive = nodeScript("expensive");
+		final NodeScript cheap = nodeScript("cheap");
+		final NodeScript added = nodeScript("added");
+		put(expensive, 1000);
+		put(cheap, 1);
+		put(added, 10);
+		evaluate(expensive);
+		assertThat(computationCount.get(), equalTo(0));
+		evaluate(cheap);
+		assertThat(computationCount.get(), equalTo(1));
+		assertThat(formulaCache.getEstimatedSize() <= 2 * ENTRY_SIZE, equalTo(true));
+	}
+
+	@Test
+	public void keepRelatedElementsOfRemovedValues() throws Exception {
+		final NodeScript removed = nodeScript("removed");
+		put(removed, 1);
+		put(nodeScript("second"), 1000);
+		put(nodeScript("third"), 1000);
+		assertThat(formulaCache.getAccessedValues(removed.node, removed.script), notNullValue());
+		evaluate(removed);
+		assertThat(computationCount.get(), equalTo(1));
+	}
+
+	@Test
+	public void releaseSizeOfRemovedNodes() throws Exception {
+		final NodeScript nodeScript = nodeScript("1");
+		evaluate(nodeScript);
+		formulaCache.remove(nodeScript.node);
+		assertThat(formulaCache.getEstimatedSize(), equalTo(0L));
+		evaluate(nodeScript);
+		assertThat(computationCount.get(), equalTo(2));
+	}
+
+	@Test
+	public void notCountSizeOfNullResults() throws Exception {
+		final NodeScript nodeScript = nodeScript("null");
+		for (int i = 0; i < 100; i++)
+			formulaCache.put(nodeScript, new CachedResult(null, new RelatedElements(nodeScript.node), 1));
+		assertThat(formulaCache.getEstimatedSize(), equalTo(0L));
+		put(nodeScript, 1);
+		formulaCache.remove(nodeScript.node);
+		assertThat(formulaCache.getEstimatedSize(), equalTo(0L));
+	}
+}
@@ -0,0 +1,19 @@
+package org.freeplane.plugin.script;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import org.junit.Test;
+
+public class FormulaUtilsShould {
+	@Test
+	public void removeBlanksAfterEqualSignAndTrailingWhiteSpaceFromScripts() throws Exception {
+		assertThat(FormulaUtils.scriptOf("= \t1 + 2 \n"), equalTo("1 + 2"));
+		assertThat(FormulaUtils.scriptOf("=1 + 2"), equalTo("1 + 2"));
+	}
+
+	@Test
+	public void keepLeadingLineBreaksOfScripts() throws Exception {
+		assertThat(FormulaUtils.scriptOf("= \n 1"), equalTo("\n 1"));
+	}
+}
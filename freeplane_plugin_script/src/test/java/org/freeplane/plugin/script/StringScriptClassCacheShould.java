@@ -0,0 +1,78 @@
+package org.freeplane.plugin.script;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+
+public class StringScriptClassCacheShould {
+	private static final String SCRIPT = "[1, 2, 3].collect { it * 2 }.sum()";
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private StringScriptClassCache cache() throws Exception {
+		return new StringScriptClassCache(folder.getRoot());
+	}
+
+	private void compileAndStore(final StringScriptClassCache cache, final String script) throws Exception {
+		final String className = StringScriptClassCache.className(script);
+		final File classes = cache.createTemporaryDirectory();
+		final CompilerConfiguration configuration = new CompilerConfiguration();
+		configuration.setTargetDirectory(classes);
+		try (GroovyClassLoader loader = new GroovyClassLoader(getClass().getClassLoader(), configuration)) {
+			loader.parseClass(new GroovyCodeSource(script, className + ".groovy", "/groovy/shell"), false);
+		}
+		cache.store(classes, className);
+	}
+
+	private Class<?> load(final StringScriptClassCache cache, final String script) throws Exception {
+		return cache.loadClass(new GroovyClassLoader(getClass().getClassLoader()), StringScriptClassCache.className(script));
+	}
+
+	@Test
+	public void deriveClassNamesFromScriptText() throws Exception {
+		assertThat(StringScriptClassCache.className(SCRIPT), equalTo(StringScriptClassCache.className(SCRIPT)));
+		assertThat(StringScriptClassCache.className(SCRIPT), not(equalTo(StringScriptClassCache.className("1"))));
+	}
+
+	@Test
+	public void notLoadUncompiledScripts() throws Exception {
+		assertThat(load(cache(), SCRIPT), nullValue());
+	}
+
+	@Test
+	public void loadCompiledScriptsWithClosures() throws Exception {
+		final StringScriptClassCache cache = cache();
+		compileAndStore(cache, SCRIPT);
+		final Class<?> scriptClass = load(cache, SCRIPT);
+		assertThat(scriptClass, notNullValue());
+		assertThat(((Script) scriptClass.getDeclaredConstructor().newInstance()).run(), equalTo((Object) 12));
+		assertThat(folder.getRoot().list().length, equalTo(2));
+	}
+
+	@Test
+	public void removeScriptsNotUsedForGivenTime() throws Exception {
+		final StringScriptClassCache cache = cache();
+		compileAndStore(cache, SCRIPT);
+		compileAndStore(cache, "2 + 3");
+		final File unusedClass = new File(folder.getRoot(), StringScriptClassCache.className(SCRIPT) + ".class");
+		unusedClass.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2));
+		cache.removeUnused(TimeUnit.DAYS.toMillis(1));
+		assertThat(load(cache, SCRIPT), nullValue());
+		assertThat(load(cache, "2 + 3"), notNullValue());
+		assertThat(folder.getRoot().list().length, equalTo(1));
+	}
+}
@@ -0,0 +1,84 @@
+package org.freeplane.plugin.script.dependencies;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class EvaluationDependenciesShould {
+	private final MapModel map = new MapModel(null, null, null);
+	private final NodeModel root = new NodeModel("root", map);
+	private final NodeModel branch = addChild(root, "branch");
+	private final NodeModel child = addChild(branch, "child");
+	private final NodeModel grandChild = addChild(child, "grand child");
+	private final NodeModel other = addChild(root, "other");
+	private final NodeModel formula = addChild(root, "formula");
+	private final EvaluationDependencies dependencies = EvaluationDependencies.of(map);
+
+	{
+		map.setRoot(root);
+	}
+
+	private NodeModel addChild(final NodeModel parent, final String text) {
+		final NodeModel node = new NodeModel(text, map);
+		parent.insert(node);
+		return node;
+	}
+
+	private Set<NodeModel> changedDependencies(final NodeModel changedNode) {
+		final Set<NodeModel> accessingNodes = new LinkedHashSet<>();
+		dependencies.getChangedDependencies(accessingNodes, changedNode);
+		return accessingNodes;
+	}
+
+	@Test
+	public void findNodeDependencies() throws Exception {
+		dependencies.accessNode(formula, other);
+		assertThat(changedDependencies(other), equalTo(Collections.singleton(formula)));
+		assertThat(changedDependencies(child), equalTo(Collections.<NodeModel>emptySet()));
+	}
+
+	@Test
+	public void findBranchDependenciesOfBranchNodes() throws Exception {
+		dependencies.accessBranch(formula, branch);
+		assertThat(changedDependencies(branch), equalTo(Collections.singleton(formula)));
+		assertThat(changedDependencies(grandChild), equalTo(Collections.singleton(formula)));
+		assertThat(changedDependencies(other), equalTo(Collections.<NodeModel>emptySet()));
+	}
+
+	@Test
+	public void findDependenciesTransitively() throws Exception {
+		final NodeModel secondFormula = addChild(other, "second formula");
+		dependencies.accessBranch(formula, child);
+		dependencies.accessNode(secondFormula, formula);
+		assertThat(changedDependencies(grandChild), equalTo(new HashSet<>(Arrays.asList(formula, secondFormula))));
+	}
+
+	@Test
+	public void findBranchDependenciesAfterMove() throws Exception {
+		dependencies.accessBranch(formula, branch);
+		branch.remove(0);
+		other.insert(child);
+		assertThat(changedDependencies(grandChild), equalTo(Collections.<NodeModel>emptySet()));
+		assertThat(changedDependencies(branch), equalTo(Collections.singleton(formula)));
+	}
+
+	@Test
+	public void findDependenciesOnRemovedNodes() throws Exception {
+		final NodeModel secondFormula = addChild(other, "second formula");
+		dependencies.accessNode(formula, grandChild);
+		dependencies.accessBranch(secondFormula, child);
+		branch.remove(0);
+		final Set<NodeModel> accessingNodes = new LinkedHashSet<>();
+		dependencies.getRemovedDependencies(accessingNodes, child);
+		assertThat(accessingNodes, equalTo(new HashSet<>(Arrays.asList(formula, secondFormula))));
+	}
+}